@@ -0,0 +1,105 @@
+/**
+ * Copyright 2017 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.common.metadata.events;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+
+/**
+ * Task or workflow status change waiting in the outbox to be published
+ */
+public class StatusEvent {
+
+	public enum Type {
+		TASK_STARTED, TASK_FINISHED, WORKFLOW_STARTED, WORKFLOW_COMPLETED, WORKFLOW_TERMINATED
+	}
+
+	private long id;
+
+	private Type type;
+
+	private String workflowId;
+
+	private Task task;
+
+	private int attempts;
+
+	private long created;
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public String getWorkflowId() {
+		return workflowId;
+	}
+
+	public void setWorkflowId(String workflowId) {
+		this.workflowId = workflowId;
+	}
+
+	/**
+	 * @return Snapshot of the task as of the status change. Null for the workflow events
+	 */
+	public Task getTask() {
+		return task;
+	}
+
+	public void setTask(Task task) {
+		this.task = task;
+	}
+
+	/**
+	 * @return Number of the failed publish attempts so far
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	public void setCreated(long created) {
+		this.created = created;
+	}
+
+	@Override
+	public String toString() {
+		return "StatusEvent{" +
+				"id=" + id +
+				", type=" + type +
+				", workflowId='" + workflowId + '\'' +
+				", taskId='" + (task == null ? null : task.getTaskId()) + '\'' +
+				", attempts=" + attempts +
+				'}';
+	}
+}
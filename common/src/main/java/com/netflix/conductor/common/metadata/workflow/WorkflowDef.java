@@ -62,6 +62,8 @@ public class WorkflowDef extends Auditable {
 
 	private Map<String, Object> variables = new HashMap<>();
 
+	private transient volatile WorkflowGraph graph;
+
 
 	/**
 	 * @return the name
@@ -103,6 +105,7 @@ public class WorkflowDef extends Auditable {
 	 */
 	public void setTasks(LinkedList<WorkflowTask> tasks) {
 		this.tasks = tasks;
+		this.graph = null;
 	}
 
 	/**
@@ -288,7 +291,33 @@ public class WorkflowDef extends Auditable {
 		this.attributes = attributes;
 	}
 
-    public WorkflowTask getNextTask(String taskReferenceName){
+	/**
+	 * Precomputes the task lookups, so {@link #getNextTask(String)} and {@link #getTaskByRefName(String)}
+	 * do not walk the tasks anymore. The tasks must not be changed afterwards other than by {@link #setTasks}.
+	 *
+	 * @return this definition
+	 */
+	public WorkflowDef compile() {
+		graph = new WorkflowGraph(this);
+		return this;
+	}
+
+	/**
+	 * @return The precomputed task lookups or null if the definition has not been compiled
+	 */
+	public WorkflowGraph graph() {
+		return graph;
+	}
+
+	public WorkflowTask getNextTask(String taskReferenceName){
+		WorkflowGraph graph = this.graph;
+		if (graph != null) {
+			return graph.getNextTask(taskReferenceName);
+		}
+		return walkNextTask(taskReferenceName);
+	}
+
+	WorkflowTask walkNextTask(String taskReferenceName){
 		Iterator<WorkflowTask> it = tasks.iterator();
 		while(it.hasNext()){
 			 WorkflowTask task = it.next();
@@ -308,6 +337,10 @@ public class WorkflowDef extends Auditable {
 	}
 	
 	public WorkflowTask getTaskByRefName(String taskReferenceName){
+		WorkflowGraph graph = this.graph;
+		if (graph != null) {
+			return graph.getTaskByRefName(taskReferenceName);
+		}
 		Optional<WorkflowTask> found = all().stream().filter(wft -> wft.getTaskReferenceName().equals(taskReferenceName)).findFirst();
 		if(found.isPresent()){
 			return found.get();
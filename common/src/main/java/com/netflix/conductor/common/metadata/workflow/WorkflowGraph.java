@@ -0,0 +1,113 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.common.metadata.workflow;
+
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask.Type;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable lookups of the workflow definition tasks, computed once by {@link WorkflowDef#compile()}.
+ * <p>
+ * The next task table is filled by walking the blueprint the same way {@link WorkflowDef#getNextTask(String)}
+ * does, so the answers do not differ from the walk. The reference names which are not part of the
+ * definition (e.g. dynamic tasks) have no entries.
+ */
+public class WorkflowGraph {
+
+	private final Map<String, WorkflowTask> byRefName;
+
+	private final Map<String, WorkflowTask> next;
+
+	private final Map<String, WorkflowTask> parents;
+
+	private final Map<String, WorkflowTask> joins;
+
+	WorkflowGraph(WorkflowDef def) {
+		Map<String, WorkflowTask> byRefName = new HashMap<>();
+		Map<String, WorkflowTask> parents = new HashMap<>();
+		Map<String, WorkflowTask> joins = new HashMap<>();
+		for (WorkflowTask task : def.getTasks()) {
+			visit(task, null, byRefName, parents);
+		}
+
+		Map<String, WorkflowTask> next = new HashMap<>();
+		for (String refName : byRefName.keySet()) {
+			WorkflowTask nextTask = def.walkNextTask(refName);
+			if (nextTask != null) {
+				next.put(refName, nextTask);
+			}
+			if (Type.FORK_JOIN.name().equals(byRefName.get(refName).getType()) && nextTask != null) {
+				joins.put(refName, nextTask);
+			}
+		}
+
+		this.byRefName = Collections.unmodifiableMap(byRefName);
+		this.next = Collections.unmodifiableMap(next);
+		this.parents = Collections.unmodifiableMap(parents);
+		this.joins = Collections.unmodifiableMap(joins);
+	}
+
+	/**
+	 * @return The task with the reference name, the first one found in case of duplicates
+	 */
+	public WorkflowTask getTaskByRefName(String taskReferenceName) {
+		return byRefName.get(taskReferenceName);
+	}
+
+	/**
+	 * @return The task to be scheduled after the given one or null if there is none
+	 */
+	public WorkflowTask getNextTask(String taskReferenceName) {
+		return next.get(taskReferenceName);
+	}
+
+	/**
+	 * @return The closest FORK_JOIN or DECISION task containing the given one or null for the top level tasks
+	 */
+	public WorkflowTask getParent(String taskReferenceName) {
+		return parents.get(taskReferenceName);
+	}
+
+	/**
+	 * @return The JOIN task following the FORK_JOIN task or null
+	 */
+	public WorkflowTask getJoin(String forkReferenceName) {
+		return joins.get(forkReferenceName);
+	}
+
+	private static void visit(WorkflowTask task, WorkflowTask parent,
+							  Map<String, WorkflowTask> byRefName, Map<String, WorkflowTask> parents) {
+		// Keeps the first one as the lookup over all() did
+		if (byRefName.putIfAbsent(task.getTaskReferenceName(), task) == null && parent != null) {
+			parents.put(task.getTaskReferenceName(), parent);
+		}
+
+		if (Type.DECISION.name().equals(task.getType())) {
+			for (List<WorkflowTask> branch : task.getDecisionCases().values()) {
+				branch.forEach(child -> visit(child, task, byRefName, parents));
+			}
+			task.getDefaultCase().forEach(child -> visit(child, task, byRefName, parents));
+		} else if (Type.FORK_JOIN.name().equals(task.getType())) {
+			for (List<WorkflowTask> branch : task.getForkTasks()) {
+				branch.forEach(child -> visit(child, task, byRefName, parents));
+			}
+		}
+	}
+}
@@ -628,6 +628,44 @@ public class WorkflowTask {
 		
 	}
 
+	/**
+	 * Shallow copy of the task. The input parameters map is copied so it can be changed without
+	 * affecting the workflow definition this task belongs to.
+	 *
+	 * @return copy of the task
+	 */
+	public WorkflowTask copy() {
+
+		WorkflowTask copy = new WorkflowTask();
+		copy.setName(name);
+		copy.setTaskReferenceName(taskReferenceName);
+		copy.setInputParameters(inputParameters == null ? null : new HashMap<>(inputParameters));
+		copy.setEventMessages(eventMessages);
+		copy.setDefaults(defaults);
+		copy.setType(type);
+		copy.setDynamicTaskNameParam(dynamicTaskNameParam);
+		copy.setCaseValueParam(caseValueParam);
+		copy.setCaseExpression(caseExpression);
+		copy.setScriptExpression(scriptExpression);
+		copy.setDecisionCases(decisionCases);
+		copy.setDynamicForkJoinTasksParam(dynamicForkJoinTasksParam);
+		copy.setDynamicForkTasksParam(dynamicForkTasksParam);
+		copy.setDynamicForkTasksInputParamName(dynamicForkTasksInputParamName);
+		copy.setDefaultCase(defaultCase);
+		copy.setForkTasks(forkTasks);
+		copy.setStartDelay(startDelay);
+		copy.setSubWorkflowParam(subWorkflow);
+		copy.setJoinOn(joinOn);
+		copy.setJoinOnConditions(joinOnConditions);
+		copy.setSink(sink);
+		copy.setOptional(optional);
+		copy.setTimeOutWorkflow(timeOutWorkflow);
+		copy.setTerminationStatus(terminationStatus);
+		copy.setTimeoutSeconds(timeoutSeconds);
+		copy.setResetTags(resetTags);
+		return copy;
+	}
+
 	@Override
 	public String toString() {
 		return name + "/" + taskReferenceName;
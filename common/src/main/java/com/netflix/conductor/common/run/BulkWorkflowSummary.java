@@ -0,0 +1,118 @@
+package com.netflix.conductor.common.run;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress of the asynchronous bulk workflow operation
+ */
+public class BulkWorkflowSummary {
+
+    public enum Status {
+        RUNNING, COMPLETED
+    }
+
+    private String jobId;
+
+    private String operation;
+
+    private Status status;
+
+    private int total;
+
+    private long startTime;
+
+    private long endTime;
+
+    private List<String> completed;
+
+    private List<String> skipped;
+
+    private Map<String, String> failed;
+
+    public BulkWorkflowSummary() {
+
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * @return Number of the ids submitted
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    public List<String> getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(List<String> completed) {
+        this.completed = completed;
+    }
+
+    /**
+     * @return Job ids without running workflows, for the cancel by job id only
+     */
+    public List<String> getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(List<String> skipped) {
+        this.skipped = skipped;
+    }
+
+    /**
+     * @return Error message by id
+     */
+    public Map<String, String> getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Map<String, String> failed) {
+        this.failed = failed;
+    }
+
+}
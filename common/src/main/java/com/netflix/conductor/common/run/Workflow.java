@@ -57,6 +57,8 @@ public class Workflow extends Auditable {
 	private String parentWorkflowTaskId;
 	
 	private List<Task> tasks = new LinkedList<>();
+
+	private transient TaskIndex taskIndex;
 	
 	private Map<String, Object> input = new HashMap<>();
 	
@@ -481,19 +483,85 @@ public class Workflow extends Auditable {
 		if (refName == null) {
 			throw new RuntimeException("refName passed is null.  Check the workflow execution.  For dynamic tasks, make sure referenceTaskName is set to a not null value");
 		}
-		LinkedList<Task> found = new LinkedList<Task>();
-		for (Task t : tasks) {
-			if (t.getReferenceTaskName() == null) {
-				throw new RuntimeException("Task " + t.getTaskDefName() + ", seq=" + t.getSeq() + " does not have reference name specified.");
-			}
-			if (t.getReferenceTaskName().equals(refName)) {
-				found.add(t);
-			}
+		TaskIndex index = getTaskIndex();
+		if (index.missingRefName != null) {
+			Task t = index.missingRefName;
+			throw new RuntimeException("Task " + t.getTaskDefName() + ", seq=" + t.getSeq() + " does not have reference name specified.");
 		}
-		if (found.isEmpty()) {
+		Task task = index.byRefName.get(refName);
+		if (task != null && !refName.equals(task.getReferenceTaskName())) {
+			// The reference name has been changed since indexed
+			taskIndex = null;
+			return getTaskByRefName(refName);
+		}
+		return task;
+	}
+
+	/**
+	 * @param taskId Id of the task
+	 * @return the task of this workflow with the given id or null if not found
+	 */
+	public Task getTaskById(String taskId) {
+		if (taskId == null) {
 			return null;
 		}
-		return found.getLast();
+		Task task = getTaskIndex().byId.get(taskId);
+		if (task != null && !taskId.equals(task.getTaskId())) {
+			taskIndex = null;
+			return getTaskById(taskId);
+		}
+		return task;
+	}
+
+	/**
+	 * The index is rebuilt when the task list is replaced, appended to or cleared.
+	 */
+	private TaskIndex getTaskIndex() {
+		TaskIndex index = taskIndex;
+		if (index == null || !index.isValid(tasks)) {
+			index = new TaskIndex(tasks);
+			taskIndex = index;
+		}
+		return index;
+	}
+
+	private static class TaskIndex {
+		private final List<Task> source;
+		private final int size;
+		private final Task last;
+		private final Map<String, Task> byRefName;
+		private final Map<String, Task> byId;
+		private Task missingRefName;
+
+		TaskIndex(List<Task> tasks) {
+			source = tasks;
+			size = tasks.size();
+			byRefName = new HashMap<>(size * 2);
+			byId = new HashMap<>(size * 2);
+			Task task = null;
+			for (Iterator<Task> it = tasks.iterator(); it.hasNext(); ) {
+				task = it.next();
+				if (task.getReferenceTaskName() == null) {
+					if (missingRefName == null) {
+						missingRefName = task;
+					}
+				} else {
+					// The latest task wins for the retried ones
+					byRefName.put(task.getReferenceTaskName(), task);
+				}
+				if (task.getTaskId() != null) {
+					byId.put(task.getTaskId(), task);
+				}
+			}
+			last = task;
+		}
+
+		boolean isValid(List<Task> tasks) {
+			if (tasks != source || tasks.size() != size) {
+				return false;
+			}
+			return size == 0 || tasks.get(size - 1) == last;
+		}
 	}
 
     public Map<String, Object> getVariables() {
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.common.workflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.run.Workflow;
+
+public class TestWorkflow {
+
+	private Task task(String taskId, String refName) {
+		Task task = new Task();
+		task.setTaskId(taskId);
+		task.setReferenceTaskName(refName);
+		return task;
+	}
+
+	@Test
+	public void testTaskLookup() {
+		Workflow workflow = new Workflow();
+		Task t1 = task("t1", "a");
+		Task t2 = task("t2", "b");
+		workflow.getTasks().add(t1);
+		workflow.getTasks().add(t2);
+
+		assertSame(t1, workflow.getTaskByRefName("a"));
+		assertSame(t2, workflow.getTaskById("t2"));
+		assertNull(workflow.getTaskByRefName("c"));
+		assertNull(workflow.getTaskById("t3"));
+
+		// Retried task is appended - the latest one wins
+		Task retried = task("t3", "a");
+		workflow.getTasks().add(retried);
+		assertSame(retried, workflow.getTaskByRefName("a"));
+		assertSame(t1, workflow.getTaskById("t1"));
+
+		workflow.getTasks().clear();
+		assertNull(workflow.getTaskByRefName("a"));
+
+		List<Task> tasks = new LinkedList<>();
+		tasks.add(t2);
+		workflow.setTasks(tasks);
+		assertSame(t2, workflow.getTaskByRefName("b"));
+		assertNull(workflow.getTaskById("t1"));
+	}
+
+	@Test
+	public void testMissingRefName() {
+		Workflow workflow = new Workflow();
+		workflow.getTasks().add(task("t1", "a"));
+		Task task = task("t2", null);
+		task.setTaskDefName("def");
+		workflow.getTasks().add(task);
+		try {
+			workflow.getTaskByRefName("a");
+		} catch (RuntimeException e) {
+			assertEquals("Task def, seq=0 does not have reference name specified.", e.getMessage());
+			return;
+		}
+		throw new AssertionError("Expected the missing reference name to be reported");
+	}
+}
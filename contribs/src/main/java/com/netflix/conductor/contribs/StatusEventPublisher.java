@@ -20,7 +20,9 @@ package com.netflix.conductor.contribs;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.conductor.common.metadata.events.EventPublished;
+import com.netflix.conductor.common.metadata.events.StatusEvent;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.common.run.Workflow;
@@ -35,6 +37,7 @@ import com.netflix.conductor.core.execution.TaskStatusListener;
 import com.netflix.conductor.core.execution.WorkflowStatusListener;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.MetadataDAO;
+import com.netflix.conductor.service.MetricService;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import com.netflix.conductor.core.utils.JobUtils;
@@ -44,10 +47,22 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 import static org.apache.commons.lang3.StringUtils.join;
 
+/**
+ * Publishes the messages configured in the workflow and task definitions for their start and end.
+ * <p>
+ * By default the messages are published right away by the thread changing the status. With the outbox enabled
+ * the listeners only store the status event, along with the status change itself, and the messages are rendered
+ * and published in the background. The events of a workflow are published in the order they were stored.
+ */
 @Singleton
 public class StatusEventPublisher implements TaskStatusListener, WorkflowStatusListener {
 	private static final Logger logger = LoggerFactory.getLogger(StatusEventPublisher.class);
@@ -63,6 +78,13 @@ public class StatusEventPublisher implements TaskStatusListener, WorkflowStatusL
 	private final ExecutionDAO edao;
 	private final ObjectMapper om;
 	private final boolean useGroupId;
+	private final boolean outboxEnabled;
+	private final int outboxBatchSize;
+	private final int outboxLeaseMs;
+	private final int outboxMaxAttempts;
+	private final int outboxRetryDelayMs;
+	private final int outboxMaxRetryDelayMs;
+	private ScheduledExecutorService dispatcher;
 
 	@Inject
 	public StatusEventPublisher(MetadataDAO metadata, ExecutionDAO edao, ObjectMapper om, Configuration config) {
@@ -70,31 +92,169 @@ public class StatusEventPublisher implements TaskStatusListener, WorkflowStatusL
 		this.edao = edao;
 		this.om = om;
 		this.useGroupId = Boolean.parseBoolean(config.getProperty("io.shotgun.use.groupId.header", "false"));
+		this.outboxEnabled = Boolean.parseBoolean(config.getProperty("workflow.status.events.outbox.enabled", "false"));
+		this.outboxBatchSize = config.getIntProperty("workflow.status.events.outbox.batch.size", 100);
+		this.outboxLeaseMs = config.getIntProperty("workflow.status.events.outbox.lease.ms", 60_000);
+		this.outboxMaxAttempts = config.getIntProperty("workflow.status.events.outbox.max.attempts", 10);
+		this.outboxRetryDelayMs = config.getIntProperty("workflow.status.events.outbox.retry.delay.ms", 1000);
+		this.outboxMaxRetryDelayMs = config.getIntProperty("workflow.status.events.outbox.max.retry.delay.ms", 300_000);
+		if (outboxEnabled) {
+			int threads = config.getIntProperty("workflow.status.events.outbox.thread.count", 1);
+			int frequency = config.getIntProperty("workflow.status.events.outbox.frequency", 500);
+			this.dispatcher = Executors.newScheduledThreadPool(threads,
+				new ThreadFactoryBuilder().setNameFormat("status-event-dispatcher-%d").build());
+			for (int i = 0; i < threads; i++) {
+				dispatcher.scheduleWithFixedDelay(this::dispatch, frequency, frequency, TimeUnit.MILLISECONDS);
+			}
+			logger.debug("Status events outbox initialized with " + threads + " dispatcher threads");
+		}
 	}
 
 	@Override
 	public void onTaskStarted(Task task) {
-		notifyTaskStatus(task, StartEndState.start);
+		if (outboxEnabled) {
+			addTaskEvent(task, StartEndState.start, StatusEvent.Type.TASK_STARTED);
+		} else {
+			notifyTaskStatus(task, StartEndState.start);
+		}
 	}
 
 	@Override
 	public void onTaskFinished(Task task) {
-		notifyTaskStatus(task, StartEndState.end);
+		if (outboxEnabled) {
+			addTaskEvent(task, StartEndState.end, StatusEvent.Type.TASK_FINISHED);
+		} else {
+			notifyTaskStatus(task, StartEndState.end);
+		}
 	}
 
 	@Override
 	public void onWorkflowStarted(Workflow workflow) {
-		notifyWorkflowStatus(workflow, StartEndState.start);
+		if (outboxEnabled) {
+			addWorkflowEvent(workflow, StartEndState.start, StatusEvent.Type.WORKFLOW_STARTED);
+		} else {
+			notifyWorkflowStatus(workflow, StartEndState.start);
+		}
 	}
 
 	@Override
 	public void onWorkflowCompleted(Workflow workflow) {
-		notifyWorkflowStatus(workflow, StartEndState.end);
+		if (outboxEnabled) {
+			addWorkflowEvent(workflow, StartEndState.end, StatusEvent.Type.WORKFLOW_COMPLETED);
+		} else {
+			notifyWorkflowStatus(workflow, StartEndState.end);
+		}
 	}
 
 	@Override
 	public void onWorkflowTerminated(Workflow workflow) {
-		notifyWorkflowStatus(workflow, StartEndState.end);
+		if (outboxEnabled) {
+			addWorkflowEvent(workflow, StartEndState.end, StatusEvent.Type.WORKFLOW_TERMINATED);
+		} else {
+			notifyWorkflowStatus(workflow, StartEndState.end);
+		}
+	}
+
+	public void shutdown() {
+		if (dispatcher == null) {
+			return;
+		}
+		try {
+			logger.info("Closing status event dispatcher");
+			dispatcher.shutdown();
+			dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			logger.debug("Closing status event dispatcher failed " + e.getMessage(), e);
+		}
+	}
+
+	// Only the events having the message configured go to the outbox
+	private void addTaskEvent(Task task, StartEndState state, StatusEvent.Type type) {
+		Map<String, Object> eventMap = task.getWorkflowTask().getEventMessages();
+		if (eventMap == null || !eventMap.containsKey(state.name())) {
+			return;
+		}
+		addStatusEvent(type, task.getWorkflowInstanceId(), task);
+	}
+
+	private void addWorkflowEvent(Workflow workflow, StartEndState state, StatusEvent.Type type) {
+		WorkflowDef workflowDef = metadata.get(workflow.getWorkflowType(), workflow.getVersion());
+		Map<String, Object> eventMap = workflowDef.getEventMessages();
+		if (eventMap == null || !eventMap.containsKey(state.name())) {
+			return;
+		}
+		addStatusEvent(type, workflow.getWorkflowId(), null);
+	}
+
+	private void addStatusEvent(StatusEvent.Type type, String workflowId, Task task) {
+		StatusEvent event = new StatusEvent();
+		event.setType(type);
+		event.setWorkflowId(workflowId);
+		event.setTask(task);
+		event.setCreated(System.currentTimeMillis());
+		edao.addStatusEvent(event);
+	}
+
+	/**
+	 * Publishes the batch of the due events. Every event of the batch is the oldest one of its workflow,
+	 * so they do not depend on each other.
+	 */
+	void dispatch() {
+		try {
+			List<StatusEvent> events;
+			do {
+				events = edao.leaseStatusEvents(outboxBatchSize, outboxLeaseMs);
+				events.forEach(this::dispatch);
+			} while (events.size() == outboxBatchSize && !dispatcher.isShutdown());
+		} catch (Exception ex) {
+			logger.error("Status events dispatch failed with " + ex.getMessage(), ex);
+		}
+	}
+
+	private void dispatch(StatusEvent event) {
+		try {
+			Workflow workflow = edao.getWorkflow(event.getWorkflowId(), true);
+			if (workflow == null) {
+				logger.debug("No workflow found for " + event + ", skipping");
+			} else {
+				switch (event.getType()) {
+					case TASK_STARTED:
+						notifyTaskStatus(event.getTask(), StartEndState.start, () -> withTask(workflow, event.getTask()));
+						break;
+					case TASK_FINISHED:
+						notifyTaskStatus(event.getTask(), StartEndState.end, () -> withTask(workflow, event.getTask()));
+						break;
+					case WORKFLOW_STARTED:
+						notifyWorkflowStatus(workflow, StartEndState.start);
+						break;
+					default:
+						notifyWorkflowStatus(workflow, StartEndState.end);
+						break;
+				}
+			}
+			edao.removeStatusEvent(event);
+			MetricService.getInstance().statusEventPublished(event.getType().name(), System.currentTimeMillis() - event.getCreated());
+		} catch (Exception ex) {
+			int attempts = event.getAttempts() + 1;
+			if (attempts >= outboxMaxAttempts) {
+				logger.error("Dropping " + event + " after " + attempts + " attempts, last failed with " + ex.getMessage(), ex);
+				edao.removeStatusEvent(event);
+				MetricService.getInstance().statusEventFailed(event.getType().name(), true);
+			} else {
+				long delay = Math.min((long) outboxRetryDelayMs << Math.min(attempts - 1, 20), outboxMaxRetryDelayMs);
+				logger.debug("Publish failed for " + event + ", retrying in " + delay + "ms. " + ex.getMessage());
+				edao.retryStatusEvent(event, delay);
+				MetricService.getInstance().statusEventFailed(event.getType().name(), false);
+			}
+		}
+	}
+
+	// The workflow is loaded on dispatch, so its copy of the task is replaced by the one as of the status change
+	private Workflow withTask(Workflow workflow, Task task) {
+		workflow.setTasks(workflow.getTasks().stream()
+			.map(t -> t.getTaskId().equals(task.getTaskId()) ? task : t)
+			.collect(Collectors.toCollection(LinkedList::new)));
+		return workflow;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -136,8 +296,12 @@ public class StatusEventPublisher implements TaskStatusListener, WorkflowStatusL
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	private void notifyTaskStatus(Task task, StartEndState state) {
+		notifyTaskStatus(task, state, () -> edao.getWorkflow(task.getWorkflowInstanceId()));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void notifyTaskStatus(Task task, StartEndState state, Supplier<Workflow> workflowSupplier) {
 		try {
 			Map<String, Object> eventMap = task.getWorkflowTask().getEventMessages();
 			if (eventMap == null || !eventMap.containsKey(state.name())) {
@@ -147,7 +311,7 @@ public class StatusEventPublisher implements TaskStatusListener, WorkflowStatusL
 			// Get the 'start' or 'end' map
 			eventMap = (Map<String, Object>) eventMap.get(state.name());
 
-			Workflow workflow = edao.getWorkflow(task.getWorkflowInstanceId());
+			Workflow workflow = workflowSupplier.get();
 
 			// Check preProcess map for JSON Path engine
 			Map<String, Object> preProcess = (Map<String, Object>) eventMap.get("defaults");
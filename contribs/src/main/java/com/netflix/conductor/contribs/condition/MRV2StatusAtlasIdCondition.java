@@ -1,5 +1,6 @@
 package com.netflix.conductor.contribs.condition;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.netflix.conductor.core.events.JavaEventCondition;
 import com.netflix.conductor.core.events.ScriptEvaluator;
 
@@ -8,8 +9,9 @@ import java.util.Objects;
 public class MRV2StatusAtlasIdCondition implements JavaEventCondition {
 	@Override
 	public boolean evalBool(Object payload) throws Exception {
-		Object titleKeys = ScriptEvaluator.evalJqAsObject(".Data.MetadataRepositoryEvent.AtlasId", payload);
-		Object statusName = ScriptEvaluator.evalJqAsObject(".Status.Name", payload);
+		JsonNode node = ScriptEvaluator.toJsonNode(payload);
+		Object titleKeys = ScriptEvaluator.evalJqAsObject(".Data.MetadataRepositoryEvent.AtlasId", node);
+		Object statusName = ScriptEvaluator.evalJqAsObject(".Status.Name", node);
 		return Objects.nonNull(titleKeys) && Objects.nonNull(statusName);
 	}
 }
@@ -1,5 +1,6 @@
 package com.netflix.conductor.contribs.condition;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.netflix.conductor.core.events.JavaEventCondition;
 import com.netflix.conductor.core.events.ScriptEvaluator;
 
@@ -8,14 +9,15 @@ import java.util.Objects;
 public class OriginalTitleKeysActionCondition implements JavaEventCondition {
 	@Override
 	public boolean evalBool(Object payload) throws Exception {
-		Object featureId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.featureId", payload);
-		Object seasonId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.seasonId", payload);
-		Object episodeId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.episodeId", payload);
-		Object seriesId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.seriesId", payload);
-		Object franchiseId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.franchiseId", payload);
-		Object franchiseVersionId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.franchiseVersionId", payload);
-		Object seriesVersionId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.seriesVersionId", payload);
-		Object seasonVersionId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.seasonVersionId", payload);
+		JsonNode node = ScriptEvaluator.toJsonNode(payload);
+		Object featureId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.featureId", node);
+		Object seasonId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.seasonId", node);
+		Object episodeId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.episodeId", node);
+		Object seriesId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.seriesId", node);
+		Object franchiseId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.franchiseId", node);
+		Object franchiseVersionId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.franchiseVersionId", node);
+		Object seriesVersionId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.seriesVersionId", node);
+		Object seasonVersionId = ScriptEvaluator.evalJqAsObject(".data.originalTitleKeys.seasonVersionId", node);
 		return (Objects.nonNull(featureId) || (Objects.nonNull(seasonId) && Objects.nonNull(episodeId) && Objects.nonNull(seriesId)) ||
 				(Objects.nonNull(franchiseId) && Objects.nonNull(franchiseVersionId)) || (Objects.nonNull(seriesId) && Objects.nonNull(seriesVersionId)) ||
 				(Objects.nonNull(seasonId) && Objects.nonNull(seasonVersionId)));
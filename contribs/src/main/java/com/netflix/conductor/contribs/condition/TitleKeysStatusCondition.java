@@ -1,5 +1,6 @@
 package com.netflix.conductor.contribs.condition;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.netflix.conductor.core.events.JavaEventCondition;
 import com.netflix.conductor.core.events.ScriptEvaluator;
 
@@ -8,8 +9,9 @@ import java.util.Objects;
 public class TitleKeysStatusCondition implements JavaEventCondition {
 	@Override
 	public boolean evalBool(Object payload) throws Exception {
-		Object titleKeys = ScriptEvaluator.evalJqAsObject(".data.titleKeys", payload);
-		Object statusName = ScriptEvaluator.evalJqAsObject(".status.name", payload);
+		JsonNode node = ScriptEvaluator.toJsonNode(payload);
+		Object titleKeys = ScriptEvaluator.evalJqAsObject(".data.titleKeys", node);
+		Object statusName = ScriptEvaluator.evalJqAsObject(".status.name", node);
 		return Objects.nonNull(titleKeys) && Objects.nonNull(statusName);
 	}
 }
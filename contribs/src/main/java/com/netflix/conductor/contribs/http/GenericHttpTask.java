@@ -113,15 +113,17 @@ class GenericHttpTask extends WorkflowSystemTask {
 	 */
 	HttpResponse httpCall(Input input, Task task, Workflow workflow, WorkflowExecutor executor) throws Exception {
 		Client client = rcm.getClient(input);
+		WebResource resource = client.resource(input.getUri());
 
+		// The client is shared, so the filter goes to this request resource only
 		if (input.getOauthConsumerKey() != null) {
 			logger.debug("Configuring OAuth filter");
 			OAuthParameters params = new OAuthParameters().consumerKey(input.getOauthConsumerKey()).signatureMethod("HMAC-SHA1").version("1.0");
 			OAuthSecrets secrets = new OAuthSecrets().consumerSecret(input.getOauthConsumerSecret());
-			client.addFilter(new OAuthClientFilter(client.getProviders(), params, secrets));
+			resource.addFilter(new OAuthClientFilter(client.getProviders(), params, secrets));
 		}
 
-		WebResource.Builder builder = client.resource(input.getUri()).type(MediaType.APPLICATION_JSON);
+		WebResource.Builder builder = resource.type(MediaType.APPLICATION_JSON);
 
 		if (input.getBody() != null) {
 			builder.entity(input.getBody());
@@ -183,13 +185,18 @@ class GenericHttpTask extends WorkflowSystemTask {
 		HttpResponse response = new HttpResponse();
 		try {
 			ClientResponse cr = builder.accept(input.getAccept()).method(input.getMethod(), ClientResponse.class);
-			Response.Status.Family family = cr.getStatusInfo().getFamily();
-			if (cr.getStatus() != 204 && cr.hasEntity() && !family.equals(Response.Status.Family.REDIRECTION)) {
-				response.body = extractBody(cr);
+			try {
+				Response.Status.Family family = cr.getStatusInfo().getFamily();
+				if (cr.getStatus() != 204 && cr.hasEntity() && !family.equals(Response.Status.Family.REDIRECTION)) {
+					response.body = extractBody(cr);
+				}
+				response.statusCode = cr.getStatus();
+				response.headers = cr.getHeaders();
+				return response;
+			} finally {
+				// Releases the connection back to the pool when the entity has not been read
+				cr.close();
 			}
-			response.statusCode = cr.getStatus();
-			response.headers = cr.getHeaders();
-			return response;
 		} catch (UniformInterfaceException ex) {
 			logger.error("HTTP task failed for workflowId{}, taskId {}, taskRefname {}, url {}, errorMessage {}", workflow.getWorkflowId(), task.getTaskId(), task.getReferenceTaskName(), input.getUri(), ex.getMessage());
 			ClientResponse cr = ex.getResponse();
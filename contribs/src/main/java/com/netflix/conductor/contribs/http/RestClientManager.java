@@ -14,27 +14,129 @@
  * limitations under the License.
  */
 /**
- * 
+ *
  */
 package com.netflix.conductor.contribs.http;
 
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.service.MetricService;
 import com.sun.jersey.api.client.Client;
-import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.client.apache4.ApacheHttpClient4;
+import com.sun.jersey.client.apache4.ApacheHttpClient4Handler;
 import com.sun.jersey.client.apache4.config.DefaultApacheHttpClient4Config;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Viren
- * Provider for Jersey Client.  This class provides an 
+ * Provider for Jersey Client.  This class provides shared clients backed by pooled connections,
+ * one per redirect policy, so the http tasks reuse the established (TLS) connections.
  */
 @Singleton
 public class RestClientManager {
+	private static final Logger logger = LoggerFactory.getLogger(RestClientManager.class);
+	private final PoolingHttpClientConnectionManager redirectPool;
+	private final PoolingHttpClientConnectionManager noRedirectPool;
+	private final Client redirectClient;
+	private final Client noRedirectClient;
+
+	@Inject
+	public RestClientManager(Configuration config) {
+		int maxTotal = config.getIntProperty("workflow.system.task.http.pool.max.total", 200);
+		int maxPerRoute = config.getIntProperty("workflow.system.task.http.pool.max.per.route", 50);
+		int idleSeconds = config.getIntProperty("workflow.system.task.http.pool.idle.seconds", 30);
+		int keepAliveSeconds = config.getIntProperty("workflow.system.task.http.pool.keepalive.seconds", 60);
+		int monitorSeconds = config.getIntProperty("workflow.system.task.http.pool.monitor.seconds", 30);
+
+		// The pools are shared, so a hung endpoint must not hold the connections (and the task threads) forever.
+		// The request fails on a timeout, and so does the task
+		RequestConfig requestConfig = RequestConfig.custom()
+			.setConnectionRequestTimeout(config.getIntProperty("workflow.system.task.http.pool.request.timeout.ms", 60_000))
+			.setConnectTimeout(config.getIntProperty("workflow.system.task.http.connect.timeout.ms", 30_000))
+			.setSocketTimeout(config.getIntProperty("workflow.system.task.http.socket.timeout.ms", 600_000))
+			.build();
+
+		// Servers which do not send Keep-Alive header would keep the connection in the pool forever
+		ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+			long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return keepAlive > 0 ? keepAlive : TimeUnit.SECONDS.toMillis(keepAliveSeconds);
+		};
+
+		redirectPool = createPool(maxTotal, maxPerRoute);
+		noRedirectPool = createPool(maxTotal, maxPerRoute);
+		redirectClient = createClient(redirectPool, keepAliveStrategy, requestConfig, true);
+		noRedirectClient = createClient(noRedirectPool, keepAliveStrategy, requestConfig, false);
 
+		ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "http-pool-monitor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executorService.scheduleWithFixedDelay(() -> monitor(idleSeconds), monitorSeconds, monitorSeconds, TimeUnit.SECONDS);
+		logger.debug("RestClientManager initialized with maxTotal=" + maxTotal + ", maxPerRoute=" + maxPerRoute);
+	}
+
+	/**
+	 * The returned client is shared between tasks and must not be modified (e.g. filters added)
+	 *
+	 * @param input HTTP Request
+	 * @return The client for the redirect policy of the request
+	 */
 	public Client getClient(Input input) {
-		ClientConfig config = new DefaultApacheHttpClient4Config();
-		config.getProperties().put("http.protocol.handle-redirects", input.isFollowRedirects());
-		return ApacheHttpClient4.create(config);
+		return input.isFollowRedirects() ? redirectClient : noRedirectClient;
+	}
+
+	private PoolingHttpClientConnectionManager createPool(int maxTotal, int maxPerRoute) {
+		PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+		pool.setMaxTotal(maxTotal);
+		pool.setDefaultMaxPerRoute(maxPerRoute);
+		return pool;
+	}
+
+	private Client createClient(PoolingHttpClientConnectionManager pool, ConnectionKeepAliveStrategy keepAliveStrategy,
+								RequestConfig requestConfig, boolean followRedirects) {
+		// Cookies must not leak between tasks as the client is shared
+		HttpClientBuilder builder = HttpClients.custom()
+			.setConnectionManager(pool)
+			.setKeepAliveStrategy(keepAliveStrategy)
+			.setDefaultRequestConfig(requestConfig)
+			.disableCookieManagement()
+			.disableContentCompression();
+		if (!followRedirects) {
+			builder.disableRedirectHandling();
+		}
+
+		ApacheHttpClient4Handler handler = new ApacheHttpClient4Handler(builder.build(), null, false);
+		return new ApacheHttpClient4(handler, new DefaultApacheHttpClient4Config());
+	}
+
+	private void monitor(int idleSeconds) {
+		try {
+			monitor("redirect", redirectPool, idleSeconds);
+			monitor("no_redirect", noRedirectPool, idleSeconds);
+		} catch (Exception e) {
+			logger.error("Http pool monitor failed " + e.getMessage(), e);
+		}
+	}
+
+	private void monitor(String name, PoolingHttpClientConnectionManager pool, int idleSeconds) {
+		pool.closeExpiredConnections();
+		pool.closeIdleConnections(idleSeconds, TimeUnit.SECONDS);
+
+		PoolStats stats = pool.getTotalStats();
+		MetricService.getInstance().httpPoolGauge(name, stats.getLeased(), stats.getPending(), stats.getAvailable());
 	}
 }
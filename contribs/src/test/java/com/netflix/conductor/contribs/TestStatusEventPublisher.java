@@ -0,0 +1,294 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.contribs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.events.StatusEvent;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.events.EventQueueProvider;
+import com.netflix.conductor.core.events.EventQueues;
+import com.netflix.conductor.core.events.EventQueues.QueueType;
+import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.core.events.queue.ObservableQueue;
+import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.MetadataDAO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TestStatusEventPublisher {
+
+	private ObjectMapper om = new ObjectMapper();
+
+	private MetadataDAO metadata = mock(MetadataDAO.class);
+
+	private ExecutionDAO edao = mock(ExecutionDAO.class);
+
+	private ObservableQueue queue = mock(ObservableQueue.class);
+
+	private Outbox outbox = new Outbox();
+
+	// Payloads in the order they were published
+	private List<Map<String, Object>> published = new CopyOnWriteArrayList<>();
+
+	// Number of the next publish calls to fail
+	private AtomicInteger failures = new AtomicInteger();
+
+	private Map<String, String> props = new HashMap<>();
+
+	private StatusEventPublisher publisher;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void init() {
+		outbox.register(edao);
+		when(edao.getWorkflow("A", true)).thenReturn(workflow("A"));
+		when(edao.getWorkflow("B", true)).thenReturn(workflow("B"));
+		when(metadata.get("test", 1)).thenReturn(workflowDef());
+
+		when(queue.getURI()).thenReturn("status");
+		when(queue.getType()).thenReturn("nats");
+		doAnswer(invocation -> {
+			if (failures.getAndDecrement() > 0) {
+				throw new RuntimeException("broker down");
+			}
+			for (Message msg : (List<Message>) invocation.getArguments()[0]) {
+				published.add(om.readValue(msg.getPayload(), Map.class));
+			}
+			return null;
+		}).when(queue).publish(any());
+		EventQueueProvider provider = mock(EventQueueProvider.class);
+		when(provider.getQueue("status")).thenReturn(queue);
+		EventQueues.registerProvider(QueueType.nats, provider);
+
+		props.put("workflow.status.events.outbox.enabled", "true");
+		// The tests dispatch by themselves
+		props.put("workflow.status.events.outbox.frequency", "3600000");
+	}
+
+	@After
+	public void shutdown() {
+		if (publisher != null) {
+			publisher.shutdown();
+		}
+	}
+
+	@Test
+	public void testHeadOfLineOrder() throws Exception {
+		props.put("workflow.status.events.outbox.retry.delay.ms", "100");
+		publisher = publisher();
+		publisher.onWorkflowStarted(workflow("A"));
+		publisher.onWorkflowCompleted(workflow("A"));
+		publisher.onWorkflowStarted(workflow("B"));
+		assertTrue(published.isEmpty());
+
+		// The start of A fails, the end of A waits behind it, B goes on
+		failures.set(1);
+		publisher.dispatch();
+		assertEquals(Arrays.asList(payload("B", "start")), published);
+		assertEquals(2, outbox.events.size());
+
+		// Nothing is due until the retry delay has passed
+		publisher.dispatch();
+		assertEquals(1, published.size());
+
+		Thread.sleep(150);
+		publisher.dispatch();
+		publisher.dispatch();
+		assertEquals(Arrays.asList(payload("B", "start"), payload("A", "start"), payload("A", "end")), published);
+		assertTrue(outbox.events.isEmpty());
+	}
+
+	@Test
+	public void testLeaseExpiry() throws Exception {
+		props.put("workflow.status.events.outbox.lease.ms", "100");
+		publisher = publisher();
+		publisher.onWorkflowStarted(workflow("A"));
+
+		// Leased by a dispatcher which went away before publishing it
+		assertEquals(1, edao.leaseStatusEvents(10, 100).size());
+		publisher.dispatch();
+		assertTrue(published.isEmpty());
+
+		// Leased once more when the lease expires
+		Thread.sleep(150);
+		publisher.dispatch();
+		assertEquals(Arrays.asList(payload("A", "start")), published);
+		assertTrue(outbox.events.isEmpty());
+	}
+
+	@Test
+	public void testRetryDelayGrowsThenDrops() throws Exception {
+		props.put("workflow.status.events.outbox.retry.delay.ms", "10");
+		props.put("workflow.status.events.outbox.max.retry.delay.ms", "30");
+		props.put("workflow.status.events.outbox.max.attempts", "4");
+		failures.set(Integer.MAX_VALUE);
+		publisher = publisher();
+		publisher.onWorkflowStarted(workflow("A"));
+
+		for (int i = 0; i < 4; i++) {
+			publisher.dispatch();
+			Thread.sleep(50);
+		}
+
+		// Doubled after every attempt up to the max, then dropped once the attempts run out
+		assertEquals(Arrays.asList(10L, 20L, 30L), outbox.delays);
+		assertTrue(outbox.events.isEmpty());
+		verify(queue, times(4)).publish(any());
+		verify(edao, times(1)).removeStatusEvent(any());
+	}
+
+	private StatusEventPublisher publisher() {
+		Configuration config = mock(Configuration.class);
+		when(config.getProperty(anyString(), anyString())).thenAnswer(invocation -> {
+			Object[] args = invocation.getArguments();
+			return props.getOrDefault((String) args[0], (String) args[1]);
+		});
+		when(config.getIntProperty(anyString(), anyInt())).thenAnswer(invocation -> {
+			Object[] args = invocation.getArguments();
+			String value = props.get((String) args[0]);
+			return value == null ? args[1] : Integer.parseInt(value);
+		});
+		return new StatusEventPublisher(metadata, edao, om, config);
+	}
+
+	private static Workflow workflow(String workflowId) {
+		Workflow workflow = new Workflow();
+		workflow.setWorkflowId(workflowId);
+		workflow.setWorkflowType("test");
+		workflow.setVersion(1);
+		return workflow;
+	}
+
+	private static WorkflowDef workflowDef() {
+		Map<String, Object> eventMessages = new HashMap<>();
+		for (String state : Arrays.asList("start", "end")) {
+			Map<String, Object> inputParameters = new HashMap<>();
+			inputParameters.put("workflowId", "${workflow.workflowId}");
+			inputParameters.put("state", state);
+			Map<String, Object> message = new HashMap<>();
+			message.put("sink", "nats:status");
+			message.put("inputParameters", inputParameters);
+			eventMessages.put(state, message);
+		}
+		WorkflowDef def = new WorkflowDef();
+		def.setName("test");
+		def.setVersion(1);
+		def.setEventMessages(eventMessages);
+		return def;
+	}
+
+	private static Map<String, Object> payload(String workflowId, String state) {
+		Map<String, Object> payload = new HashMap<>();
+		payload.put("workflowId", workflowId);
+		payload.put("state", state);
+		return payload;
+	}
+
+	/**
+	 * In memory status_event table with the lease semantics of the database one: an event is due once its
+	 * deliver time has passed and no older event of the same workflow is left, leased or not.
+	 */
+	private static class Outbox {
+		private final List<Row> events = new ArrayList<>();
+		private final List<Long> delays = new ArrayList<>();
+		private long sequence;
+
+		void register(ExecutionDAO edao) {
+			doAnswer(invocation -> {
+				add((StatusEvent) invocation.getArguments()[0]);
+				return null;
+			}).when(edao).addStatusEvent(any());
+			when(edao.leaseStatusEvents(anyInt(), anyLong())).thenAnswer(invocation ->
+				lease((Integer) invocation.getArguments()[0], (Long) invocation.getArguments()[1]));
+			doAnswer(invocation -> {
+				remove(((StatusEvent) invocation.getArguments()[0]).getId());
+				return null;
+			}).when(edao).removeStatusEvent(any());
+			doAnswer(invocation -> {
+				retry(((StatusEvent) invocation.getArguments()[0]).getId(), (Long) invocation.getArguments()[1]);
+				return null;
+			}).when(edao).retryStatusEvent(any(), anyLong());
+		}
+
+		synchronized void add(StatusEvent event) {
+			events.add(new Row(++sequence, event));
+		}
+
+		synchronized List<StatusEvent> lease(int count, long leaseMs) {
+			long now = System.currentTimeMillis();
+			List<StatusEvent> leased = new ArrayList<>();
+			for (Row row : events) {
+				boolean head = events.stream().noneMatch(r -> r.workflowId.equals(row.workflowId) && r.id < row.id);
+				if (leased.size() < count && row.deliverOn <= now && head) {
+					row.deliverOn = now + leaseMs;
+					StatusEvent event = new StatusEvent();
+					event.setId(row.id);
+					event.setType(row.event.getType());
+					event.setWorkflowId(row.workflowId);
+					event.setTask(row.event.getTask());
+					event.setCreated(row.event.getCreated());
+					event.setAttempts(row.attempts);
+					leased.add(event);
+				}
+			}
+			return leased;
+		}
+
+		synchronized void remove(long id) {
+			events.removeIf(row -> row.id == id);
+		}
+
+		synchronized void retry(long id, long delayMs) {
+			delays.add(delayMs);
+			events.stream().filter(row -> row.id == id).forEach(row -> {
+				row.attempts++;
+				row.deliverOn = System.currentTimeMillis() + delayMs;
+			});
+		}
+
+		private static class Row {
+			private final long id;
+			private final String workflowId;
+			private final StatusEvent event;
+			private int attempts;
+			private long deliverOn = System.currentTimeMillis();
+
+			Row(long id, StatusEvent event) {
+				this.id = id;
+				this.workflowId = event.getWorkflowId();
+				this.event = event;
+			}
+		}
+	}
+}
@@ -53,6 +53,9 @@ import java.util.stream.Collectors;
 import static com.netflix.conductor.contribs.http.GenericHttpTask.CUSTOM_FAILURE_REASON_PARAMETER_NAME;
 import static com.netflix.conductor.contribs.http.GenericHttpTask.RESPONSE_PARAMETER_NAME;
 import static org.junit.Assert.*;
+import static org.mockito.AdditionalAnswers.returnsLastArg;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -114,7 +117,8 @@ public class TestHttpTask {
 	public void setup() {
 		Configuration config = mock(Configuration.class);
 		when(config.getServerId()).thenReturn("test_server_id");
-		RestClientManager rcm = new RestClientManager();
+		when(config.getIntProperty(anyString(), anyInt())).thenAnswer(returnsLastArg());
+		RestClientManager rcm = new RestClientManager(config);
 		httpTask = new HttpTask(rcm, config, new ObjectMapper(), authManager, foreignAuthManager,null);
 	}
 	
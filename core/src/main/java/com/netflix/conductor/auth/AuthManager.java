@@ -51,7 +51,9 @@ import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Singleton
 public class AuthManager {
@@ -62,7 +64,15 @@ public class AuthManager {
 	public static final String PROPERTY_ENDPOINT = "conductor.auth.endpoint";
 	public static final String PROPERTY_CLIENT = "conductor.auth.clientId";
 	public static final String PROPERTY_SECRET = "conductor.auth.clientSecret";
+	public static final String PROPERTY_TOKEN_CACHE = "conductor.auth.token.cache.enabled";
+	public static final String PROPERTY_TOKEN_REFRESH = "conductor.auth.token.refresh.seconds";
 	private final ObjectMapper mapper = new ObjectMapper();
+	private final LoadingCache<String, JsonQuery> queryCache = createQueryCache();
+	private final Map<String, CachedToken> tokenCache = new ConcurrentHashMap<>();
+	private final Map<String, ReentrantLock> tokenLocks = new ConcurrentHashMap<>();
+	private final Client client = Client.create();
+	private final boolean tokenCacheEnabled;
+	private final long tokenRefreshMs;
 	private final String clientSecret;
 	private final String clientId;
 	private final String authUrl;
@@ -94,21 +104,91 @@ public class AuthManager {
 			throw new IllegalArgumentException(MISSING_PROPERTY + PROPERTY_SECRET);
 
 		traceIdEnabled = Boolean.parseBoolean(config.getProperty("workflow.traceid.enabled", "false"));
+		tokenCacheEnabled = Boolean.parseBoolean(config.getProperty(PROPERTY_TOKEN_CACHE, "true"));
+		tokenRefreshMs = TimeUnit.SECONDS.toMillis(config.getIntProperty(PROPERTY_TOKEN_REFRESH, 60));
 	}
 
+	/**
+	 * Returns the client credentials token. The token is shared by all the workflows and refreshed
+	 * ahead of its expiration. Only one caller requests the token, others use the current one or wait for it.
+	 */
 	public AuthResponse authorize(Workflow workflow) throws Exception {
-		Client client = Client.create();
+		if (!tokenCacheEnabled) {
+			return requestToken(workflow);
+		}
+
+		String key = StringUtils.defaultIfEmpty(authService, authUrl) + ":" + clientId;
+		CachedToken cached = tokenCache.get(key);
+		if (cached != null && !cached.isRefreshDue()) {
+			return cached.response;
+		}
+
+		ReentrantLock lock = tokenLocks.computeIfAbsent(key, k -> new ReentrantLock());
+		if (cached != null && !cached.isExpired()) {
+			// Somebody is already refreshing it - the current token is still good
+			if (!lock.tryLock()) {
+				return cached.response;
+			}
+		} else {
+			lock.lock();
+		}
+
+		try {
+			cached = tokenCache.get(key);
+			if (cached != null && !cached.isRefreshDue()) {
+				return cached.response;
+			}
+
+			AuthResponse response = requestToken(workflow);
+			if (response.hasAccessToken()) {
+				cacheToken(key, response);
+			} else if (cached != null && !cached.isExpired()) {
+				logger.error("Token refresh failed with " + response.getError() + ": " + response.getErrorDescription());
+				return cached.response;
+			}
+			return response;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void cacheToken(String key, AuthResponse response) {
+		Object exp;
+		try {
+			exp = decode(response.getAccessToken()).get("exp");
+		} catch (Exception ex) {
+			logger.debug("Unable to decode access token " + ex.getMessage());
+			tokenCache.remove(key);
+			return;
+		}
+
+		// Not possible to tell when it expires
+		if (exp == null) {
+			tokenCache.remove(key);
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		long expiresAt = Long.valueOf(exp.toString()) * 1000;
+		// Short living tokens get refreshed in the middle of their life
+		long refreshAt = expiresAt - Math.min(tokenRefreshMs, (expiresAt - now) / 2);
+		tokenCache.put(key, new CachedToken(response, refreshAt, expiresAt));
+	}
+
+	private AuthResponse requestToken(Workflow workflow) throws Exception {
 		MultivaluedMap<String, String> data = new MultivaluedMapImpl();
 		data.add("grant_type", "client_credentials");
 		data.add("client_id", this.clientId);
 		data.add("client_secret", this.clientSecret);
 
 		String url = this.authUrl;
-		String hostAndPort = DNSLookup.lookup(this.authService);
-		if (StringUtils.isEmpty(hostAndPort)) {
-			logger.error("Service lookup failed for " + this.authService + " falling back to: " + this.authUrl);
-		} else {
-			url = hostAndPort + authEndpoint;
+		if (StringUtils.isNotEmpty(this.authService)) {
+			String hostAndPort = DNSLookup.lookup(this.authService);
+			if (StringUtils.isEmpty(hostAndPort)) {
+				logger.error("Service lookup failed for " + this.authService + " falling back to: " + this.authUrl);
+			} else {
+				url = hostAndPort + authEndpoint;
+			}
 		}
 
 		WebResource.Builder webResource = client.resource(url).type(MediaType.APPLICATION_FORM_URLENCODED_TYPE);
@@ -164,8 +244,6 @@ public class AuthManager {
 
 		JsonNode input = mapper.valueToTree(decoded);
 
-		LoadingCache<String, JsonQuery> queryCache = createQueryCache();
-
 		Map<String, Object> failed = new HashMap<>();
 		rules.forEach((rule, condition) -> {
 			try {
@@ -206,4 +284,24 @@ public class AuthManager {
 		};
 		return CacheBuilder.newBuilder().expireAfterWrite(1, TimeUnit.HOURS).maximumSize(1000).build(loader);
 	}
+
+	private static class CachedToken {
+		private final AuthResponse response;
+		private final long refreshAt;
+		private final long expiresAt;
+
+		CachedToken(AuthResponse response, long refreshAt, long expiresAt) {
+			this.response = response;
+			this.refreshAt = refreshAt;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isRefreshDue() {
+			return System.currentTimeMillis() >= refreshAt;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
+	}
 }
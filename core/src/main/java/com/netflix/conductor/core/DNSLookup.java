@@ -1,24 +1,56 @@
 package com.netflix.conductor.core;
 
 import com.netflix.conductor.service.MetricService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xbill.DNS.*;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by hhwang on 6/15/2017.
+ *
+ * Resolved SRV records are cached for their TTL. Entries used since the last resolution are refreshed
+ * in the background before they expire, so the hot services never wait for the DNS round trip.
  */
 public class DNSLookup {
+	private static final Logger logger = LoggerFactory.getLogger(DNSLookup.class);
+	// Consul returns TTL 0 by default, so the records are kept at least this long
+	private static final long MIN_TTL_MS = 1000;
+	// Refresh happens once this part of the TTL has passed
+	private static final double REFRESH_FACTOR = 0.75;
+	private static final Map<String, ServiceRecords> cache = new ConcurrentHashMap<>();
+	private static final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "dns-lookup-refresher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	public DNSLookup() {
 	}
 
 	public static String lookup(String service) {
 		long sd_start_time = System.currentTimeMillis();
 		long sd_lookup_time = -1;
+		boolean cached = false;
 		try {
-			DNSLookup lookup = new DNSLookup();
-			DNSResponse dnsResponse = lookup.lookupService(service);
+			ServiceRecords records = cache.get(service);
+			if (records != null && !records.isExpired()) {
+				cached = true;
+			} else {
+				records = resolve(service);
+			}
+
+			DNSResponse dnsResponse = records == null ? null : records.select();
 			if (dnsResponse != null) {
 				String address = dnsResponse.getAddress();
 				int port = dnsResponse.getPort();
@@ -30,42 +62,164 @@ public class DNSLookup {
 			// Service Discovery Metric
 			MetricService
 					.getInstance()
-					.serviceDiscovery(service, sd_lookup_time);
+					.serviceDiscovery(service, sd_lookup_time, cached);
 		}
 	}
 
 	public DNSResponse lookupService(String query) {
+		ServiceRecords records = resolve(query);
+		return records == null ? null : records.select();
+	}
+
+	/**
+	 * Queries the SRV records and the addresses of their targets, and caches the result.
+	 *
+	 * @param query The SRV query
+	 * @return The resolved records or null if nothing found
+	 */
+	private static ServiceRecords resolve(String query) {
 		try {
 			Lookup lookup = new Lookup(query, Type.SRV);
-			Cache cache = Lookup.getDefaultCache(DClass.IN);
-			cache.clearCache();
 			lookup.setCache(null);
 			Record[] records = lookup.run();
-			if (records != null) {
-				for (Record record : records) {
-					SRVRecord srv = (SRVRecord) record;
-
-					String hostname = srv.getTarget().toString().replaceFirst("\\.$", "");
-					InetAddress address = Address.getByName(hostname);
-					int port = srv.getPort();
-					return new DNSResponse(hostname, port, address.getHostAddress());
+			if (records == null) {
+				cache.remove(query);
+				return null;
+			}
+
+			long ttl = Long.MAX_VALUE;
+			List<DNSResponse> responses = new ArrayList<>(records.length);
+			for (Record record : records) {
+				SRVRecord srv = (SRVRecord) record;
+
+				String hostname = srv.getTarget().toString().replaceFirst("\\.$", "");
+				ttl = Math.min(ttl, TimeUnit.SECONDS.toMillis(srv.getTTL()));
+
+				Lookup addressLookup = new Lookup(srv.getTarget(), Type.A);
+				addressLookup.setCache(null);
+				Record[] addresses = addressLookup.run();
+				String address;
+				if (addresses != null && addresses.length > 0) {
+					ARecord a = (ARecord) addresses[0];
+					ttl = Math.min(ttl, TimeUnit.SECONDS.toMillis(a.getTTL()));
+					address = a.getAddress().getHostAddress();
+				} else {
+					try {
+						InetAddress inetAddress = Address.getByName(hostname);
+						address = inetAddress.getHostAddress();
+					} catch (UnknownHostException e) {
+						logger.error("Unable to resolve " + hostname + " for " + query);
+						continue;
+					}
 				}
+
+				responses.add(new DNSResponse(hostname, srv.getPort(), address, srv.getPriority(), srv.getWeight()));
 			}
-		} catch (TextParseException | UnknownHostException e) {
+
+			if (responses.isEmpty()) {
+				cache.remove(query);
+				return null;
+			}
+
+			ServiceRecords result = new ServiceRecords(responses, Math.max(ttl, MIN_TTL_MS));
+			cache.put(query, result);
+			scheduleRefresh(query, result);
+			return result;
+		} catch (TextParseException e) {
 			e.printStackTrace();
 		}
 		return null;
 	}
 
+	private static void scheduleRefresh(String query, ServiceRecords records) {
+		long delay = (long) (records.ttl * REFRESH_FACTOR);
+		refresher.schedule(() -> refresh(query, records), delay, TimeUnit.MILLISECONDS);
+	}
+
+	private static void refresh(String query, ServiceRecords records) {
+		try {
+			// Already replaced by a lookup after the expiration
+			if (cache.get(query) != records) {
+				return;
+			}
+
+			// Not used since resolved - let it expire
+			if (!records.used) {
+				cache.remove(query, records);
+				return;
+			}
+
+			resolve(query);
+		} catch (Exception e) {
+			logger.error("Refresh failed for " + query + " " + e.getMessage(), e);
+		}
+	}
+
+	private static class ServiceRecords {
+		private final List<DNSResponse> responses;
+		private final long ttl;
+		private final long expiresAt;
+		private volatile boolean used;
+
+		ServiceRecords(List<DNSResponse> responses, long ttl) {
+			this.responses = responses;
+			this.ttl = ttl;
+			this.expiresAt = System.currentTimeMillis() + ttl;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
+
+		/**
+		 * Picks the record as per RFC 2782: the lowest priority wins, records of the same priority
+		 * are chosen randomly in proportion to their weight.
+		 */
+		DNSResponse select() {
+			used = true;
+
+			int priority = Integer.MAX_VALUE;
+			for (DNSResponse response : responses) {
+				priority = Math.min(priority, response.priority);
+			}
+
+			List<DNSResponse> candidates = new ArrayList<>(responses.size());
+			int totalWeight = 0;
+			for (DNSResponse response : responses) {
+				if (response.priority == priority) {
+					candidates.add(response);
+					totalWeight += response.weight;
+				}
+			}
+
+			if (totalWeight == 0) {
+				return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+			}
+
+			int value = ThreadLocalRandom.current().nextInt(totalWeight);
+			for (DNSResponse candidate : candidates) {
+				value -= candidate.weight;
+				if (value < 0) {
+					return candidate;
+				}
+			}
+			return candidates.get(candidates.size() - 1);
+		}
+	}
+
 	private static class DNSResponse {
 		private final String hostname;
 		private final String address;
 		private final int port;
+		private final int priority;
+		private final int weight;
 
-		public DNSResponse(String hostname, int port, String address) {
+		public DNSResponse(String hostname, int port, String address, int priority, int weight) {
 			this.hostname = hostname;
 			this.address = address;
 			this.port = port;
+			this.priority = priority;
+			this.weight = weight;
 		}
 
 		public String getHostName() {
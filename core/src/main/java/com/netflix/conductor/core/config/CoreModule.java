@@ -28,6 +28,7 @@ import com.netflix.conductor.core.execution.appconfig.cache.PriorityConfig;
 import com.netflix.conductor.core.execution.batch.BatchSweeper;
 import com.netflix.conductor.core.execution.batch.SherlockBatchProcessor;
 import com.netflix.conductor.core.execution.tasks.*;
+import com.netflix.conductor.core.utils.IDGenerator;
 
 
 /**
@@ -64,6 +65,7 @@ public class CoreModule extends AbstractModule {
 		bind(SetVariable.class).asEagerSingleton();
 		bind(AppConfig.class).asEagerSingleton();
 		bind(PriorityConfig.class).asEagerSingleton();
+		bind(IDGenerator.class).asEagerSingleton();
 	}
 	
 }
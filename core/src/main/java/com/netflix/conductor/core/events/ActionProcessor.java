@@ -18,6 +18,7 @@
  */
 package com.netflix.conductor.core.events;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Injector;
@@ -176,33 +177,34 @@ public class ActionProcessor {
 		UpdateTask updateTask = action.getUpdate_task();
 		Map<String, Object> op = new HashMap<>();
 		try {
-			String workflowId = ScriptEvaluator.evalJq(updateTask.getWorkflowId(), payload);
+			JsonNode payloadNode = ScriptEvaluator.toJsonNode(payload);
+			String workflowId = ScriptEvaluator.evalJq(updateTask.getWorkflowId(), payloadNode);
 			if (StringUtils.isEmpty(workflowId))
 				throw new RuntimeException("Unable to determine workflowId. Check mapping and payload");
 
 			String taskId;
 			if (StringUtils.isNotEmpty(updateTask.getTaskId())) {
-				taskId = ScriptEvaluator.evalJq(updateTask.getTaskId(), payload);
+				taskId = ScriptEvaluator.evalJq(updateTask.getTaskId(), payloadNode);
 			} else {
 				taskId = null;
 			}
 
 			String taskRef;
 			if (StringUtils.isNotEmpty(updateTask.getTaskRef())) {
-				taskRef = ScriptEvaluator.evalJq(updateTask.getTaskRef(), payload);
+				taskRef = ScriptEvaluator.evalJq(updateTask.getTaskRef(), payloadNode);
 			} else {
 				taskRef = null;
 			}
 			if (StringUtils.isEmpty(taskId) && StringUtils.isEmpty(taskRef))
 				throw new RuntimeException("Unable to determine taskId/taskRef " + taskId + "/" + taskRef + ". Check mapping and payload");
 
-			String status = ScriptEvaluator.evalJq(updateTask.getStatus(), payload);
+			String status = ScriptEvaluator.evalJq(updateTask.getStatus(), payloadNode);
 			if (StringUtils.isEmpty(status))
 				throw new RuntimeException("Unable to determine status. Check mapping and payload");
 
 			String failedReason = null;
 			if (StringUtils.isNotEmpty(updateTask.getFailedReason())) {
-				failedReason = ScriptEvaluator.evalJq(updateTask.getFailedReason(), payload);
+				failedReason = ScriptEvaluator.evalJq(updateTask.getFailedReason(), payloadNode);
 			}
 
 			Status taskStatus;
@@ -18,6 +18,7 @@
  */
 package com.netflix.conductor.core.events;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.netflix.conductor.common.metadata.events.EventExecution;
@@ -31,8 +32,8 @@ import com.netflix.conductor.core.execution.ParametersUtils;
 import com.netflix.conductor.service.ExecutionService;
 import com.netflix.conductor.service.MetadataService;
 import com.netflix.conductor.service.MetricService;
+import net.thisptr.jackson.jq.JsonQuery;
 import org.apache.commons.lang.BooleanUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.log4j.NDC;
 import org.slf4j.Logger;
@@ -40,6 +41,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.script.CompiledScript;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
@@ -55,12 +57,18 @@ public class EventProcessor {
 	private static Logger logger = LoggerFactory.getLogger(EventProcessor.class);
 	private Map<String, Pair<ObservableQueue, ThreadPoolExecutor>> queuesMap = new ConcurrentHashMap<>();
 	private ParametersUtils pu = new ParametersUtils();
-	private volatile List<EventHandler> activeHandlers;
+	// Routing snapshot. Rebuilt on refresh and replaced as a whole, so a message sees a consistent set of handlers
+	private volatile Map<String, List<Route>> routes = Collections.emptyMap();
 	private ScheduledExecutorService refreshPool;
 	private MetadataService ms;
 	private ExecutionService es;
 	private ActionProcessor ap;
 	private ObjectMapper om;
+	// Messages being processed per queue, up to maxInFlight but no more than the prefetch size of the queue.
+	// One at a time by default, so the messages of a subject are applied in the order they are delivered.
+	// A higher limit processes them concurrently, then back-to-back updates of the same job may apply out of order
+	private final Map<ObservableQueue, InFlight> inFlightMap = new ConcurrentHashMap<>();
+	private final int maxInFlight;
 
 	@Inject
 	public EventProcessor(ExecutionService es, MetadataService ms, ActionProcessor ap, Configuration config, ObjectMapper om) {
@@ -68,6 +76,7 @@ public class EventProcessor {
 		this.ms = ms;
 		this.ap = ap;
 		this.om = om;
+		this.maxInFlight = Math.max(1, config.getIntProperty("workflow.event.processor.max.inflight", 1));
 
 		boolean disabled = Boolean.parseBoolean(config.getProperty("workflow.event.processor.disabled", "false"));
 		if (!disabled) {
@@ -104,12 +113,19 @@ public class EventProcessor {
 
 	public synchronized void refresh() {
 		try {
-			activeHandlers = ms.getEventHandlers().stream().filter(EventHandler::isActive)
+			List<EventHandler> activeHandlers = ms.getEventHandlers().stream().filter(EventHandler::isActive)
 				.peek(handler -> {
 					String replaced = (String) pu.replace(handler.getEvent());
 					handler.setEvent(replaced);
 				}).collect(Collectors.toList());
 
+			// Keyed by the lower-cased event, the handlers keep their order within the event
+			Map<String, List<Route>> routing = new HashMap<>();
+			activeHandlers.forEach(handler -> routing.computeIfAbsent(handler.getEvent().toLowerCase(), k -> new ArrayList<>())
+				.add(new Route(handler)));
+			// Swapped in before any queue is created or observed, so the delivered messages find their handlers
+			routes = Collections.unmodifiableMap(routing);
+
 			List<ObservableQueue> created = new LinkedList<>();
 			activeHandlers.parallelStream().forEach(handler -> queuesMap.computeIfAbsent(handler.getEvent(), s -> {
 				//validate handler/action conditions
@@ -138,8 +154,7 @@ public class EventProcessor {
 			// Find events which present in queuesMap but does not exist in the db (disabled/removed)
 			List<String> removed = new LinkedList<>();
 			queuesMap.keySet().forEach(event -> {
-				boolean noneMatch = activeHandlers.stream().noneMatch(handler -> handler.getEvent().equalsIgnoreCase(event));
-				if (noneMatch) {
+				if (!routing.containsKey(event.toLowerCase())) {
 					removed.add(event);
 				}
 			});
@@ -147,6 +162,7 @@ public class EventProcessor {
 			// Close required  and remove from the mapping
 			removed.forEach(event -> queuesMap.computeIfPresent(event, (s, entry) -> {
 				closeQueue(event);
+				inFlightMap.remove(entry.getLeft());
 				closeExecutor(event, entry.getRight());
 				return null;
 			}));
@@ -163,6 +179,7 @@ public class EventProcessor {
 
 					closeQueue(handler.getEvent());
 					closeExecutor(handler.getEvent(), entry.getRight());
+					inFlightMap.remove(entry.getLeft());
 
 					logger.debug("Creating " + handler.getThreadCount() + " executors for " + handler.getName());
 					ThreadPoolExecutor executor = new ThreadPoolExecutor(handler.getThreadCount(), handler.getThreadCount(),
@@ -230,11 +247,27 @@ public class EventProcessor {
 		}
 	}
 
+	/**
+	 * Submits the matching actions and returns without waiting for them, the message is acked or unacked once
+	 * all the actions complete. Blocks the delivering thread while the queue has max messages in flight.
+	 */
 	private void handle(ObservableQueue queue, Message msg) {
+		InFlight inFlight = inFlightMap.computeIfAbsent(queue, q -> new InFlight(q.getPrefetchSize() > 0 ? Math.min(q.getPrefetchSize(), maxInFlight) : maxInFlight));
+		try {
+			inFlight.permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.debug("Interrupted while waiting for in-flight messages of " + queue.getName());
+			unack(queue, msg);
+			return;
+		}
+		MetricService.getInstance().eventInFlight(queue.getSubject(), inFlight.count());
+
+		boolean completing = false;
 		try {
 			msg.setAccepted(System.currentTimeMillis());
 
-			List<Future<Boolean>> futures = new LinkedList<>();
+			List<CompletableFuture<Boolean>> futures = new LinkedList<>();
 
 			String payload = msg.getPayload();
 			Object payloadObj = null;
@@ -250,9 +283,9 @@ public class EventProcessor {
 
 			// Find event handlers by the event name considering variables in the handler's event
 			String event = queue.getType() + ":" + queue.getURI();
-			List<EventHandler> handlers = activeHandlers.stream()
-				.filter(handler -> handler.getEvent().equalsIgnoreCase(event))
-				.collect(Collectors.toList());
+			List<Route> handlers = routes.getOrDefault(event.toLowerCase(), Collections.emptyList());
+			Pair<ObservableQueue, ThreadPoolExecutor> entry = queuesMap.get(event);
+			ExecutorService executor = entry == null ? null : entry.getRight();
 
 			String subject = queue.getURI();
 			if (queue.getURI().contains(":")) {
@@ -260,18 +293,21 @@ public class EventProcessor {
 			}
 
 			// The retry flag is true if ANY of handlers requires it and tags JQ expression defined
-			boolean retryEnabled = handlers.stream().anyMatch(h -> h.isRetryEnabled() && StringUtils.isNotEmpty(h.getTags()));
+			boolean retryEnabled = handlers.stream().anyMatch(h -> h.handler.isRetryEnabled() && h.hasTags);
 			int tagsMatchCounter = 0;
 			int tagsNotMatchCounter = 0;
 			Set<String> tags = null;
-			for (EventHandler handler : handlers) {
+			// Converted once for all the handlers' expressions
+			JsonNode payloadNode = null;
+			for (Route route : handlers) {
+				EventHandler handler = route.handler;
+				long handlerStart = System.currentTimeMillis();
+
 				// Check handler's condition
-				String condition = handler.getCondition();
-				String conditionClass = handler.getConditionClass();
-				if (isNotEmpty(condition) || isNotEmpty(conditionClass)) {
-					boolean success = evalCondition(condition, conditionClass, payloadObj);
+				if (route.condition != null) {
+					boolean success = route.condition.evalBool(payloadObj);
 					if (!success) {
-						logger.debug("Handler did not match payload. Handler={}, condition={}", handler.getName(), condition);
+						logger.debug("Handler did not match payload. Handler={}, condition={}", handler.getName(), handler.getCondition());
 						EventExecution ee = new EventExecution(msg.getId() + "_0", msg.getId());
 						ee.setAccepted(msg.getAccepted());
 						ee.setCreated(System.currentTimeMillis());
@@ -284,14 +320,19 @@ public class EventProcessor {
 						es.addEventExecution(ee);
 						MetricService.getInstance()
 							.eventExecutionSkipped(handler.getName(), queue.getSubject());
+						MetricService.getInstance()
+							.eventHandlerRouted(handler.getName(), queue.getSubject(), System.currentTimeMillis() - handlerStart);
 						continue;
 					}
 				}
 
 				// Evaluate tags and check associated workflows (if needed)
-				if (isNotEmpty(handler.getTags())) {
-					List<Object> candidates = ScriptEvaluator.evalJqAsList(handler.getTags(), payloadObj);
-					tags = candidates.stream().filter(Objects::nonNull).map(String::valueOf).collect(Collectors.toSet());
+				if (route.hasTags) {
+					if (payloadNode == null) {
+						payloadNode = ScriptEvaluator.toJsonNode(payloadObj);
+					}
+					List<JsonNode> candidates = route.evalTags(payloadNode);
+					tags = candidates.stream().filter(node -> node != null && !node.isNull()).map(this::toTag).collect(Collectors.toSet());
 					logger.debug("Evaluated tags={}", tags);
 
 					// Check running workflows only when retry enabled
@@ -315,6 +356,8 @@ public class EventProcessor {
 							ee.setTags(tags);
 							es.addEventExecution(ee);
 							tagsNotMatchCounter++;
+							MetricService.getInstance()
+								.eventHandlerRouted(handler.getName(), queue.getSubject(), System.currentTimeMillis() - handlerStart);
 							continue;
 						} else {
 							MetricService.getInstance()
@@ -326,15 +369,13 @@ public class EventProcessor {
 
 				// Walk over the handler's actions
 				int i = 0;
-				List<Action> actions = handler.getActions();
-				for (Action action : actions) {
-					String actionName = action.getAction().name() + "_" + i;
+				for (RouteAction routeAction : route.actions) {
+					Action action = routeAction.action;
+					String actionName = routeAction.name;
 					String id = msg.getId() + "_" + i++;
 
-					condition = action.getCondition();
-					conditionClass = action.getConditionClass();
-					if (isNotEmpty(condition) || isNotEmpty(conditionClass)) {
-						boolean success = evalCondition(condition, conditionClass, payloadObj);
+					if (routeAction.condition != null) {
+						boolean success = routeAction.condition.evalBool(payloadObj);
 						if (!success) {
 							logger.debug("Action did not match payload. Handler={}, action={}", handler.getName(), action);
 							EventExecution ee = new EventExecution(id, msg.getId());
@@ -365,28 +406,50 @@ public class EventProcessor {
 					ee.setStatus(Status.IN_PROGRESS);
 					ee.setSubject(subject);
 					ee.setTags(tags);
-					ExecutorService executor = queuesMap.get(event).getRight();
-					Future<Boolean> future = execute(executor, ee, action, payload);
+					CompletableFuture<Boolean> future = execute(executor, ee, action, payload);
 					futures.add(future);
 				}
+				MetricService.getInstance()
+					.eventHandlerRouted(handler.getName(), queue.getSubject(), System.currentTimeMillis() - handlerStart);
 			}
 
+			// Released once the submitted actions complete
+			CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+
 			// if no tags for all handlers - ack message
 			if (retryEnabled && tagsNotMatchCounter > 0 && tagsMatchCounter == 0) {
 				logger.debug("No running workflows for the tags. Ack for " + msg.getReceipt());
-				//logger.info("ShotgunMsg:ep:  ACKing Message. No wf " + msg.getReceipt());
-				queue.ack(Collections.singletonList(msg));
+				ack(queue, msg);
+				completing = true;
+				all.whenComplete((result, error) -> inFlight.permits.release());
 				return;
 			}
 
+			boolean retry = retryEnabled;
+			completing = true;
+			all.whenComplete((result, error) -> complete(queue, msg, retry, futures, inFlight));
+		} catch (Exception e) {
+			MetricService.getInstance()
+				.eventExecutionFailed(queue.getName(), queue.getSubject());
+			logger.error(e.getMessage() + " occurred for " + msg.getPayload(), e);
+			unack(queue, msg);
+		} finally {
+			if (!completing) {
+				inFlight.permits.release();
+			}
+		}
+	}
+
+	private void complete(ObservableQueue queue, Message msg, boolean retryEnabled,
+						  List<CompletableFuture<Boolean>> futures, InFlight inFlight) {
+		try {
 			boolean anySuccess = false;
-			for (Future<Boolean> future : futures) {
+			for (CompletableFuture<Boolean> future : futures) {
 				try {
-					if (BooleanUtils.isTrue(future.get())) {
+					if (BooleanUtils.isTrue(future.join())) {
 						anySuccess = true;
 					}
 				} catch (Exception e) {
-					//logger.info("ShotgunMsg:ep: Process Message. Failed " + msg.getReceipt(), e);
 					logger.error(e.getMessage(), e);
 				}
 			}
@@ -394,31 +457,57 @@ public class EventProcessor {
 			// Ack for legacy mode or when no actions submitted (e.g. handler/actions did not match payload)
 			if (!retryEnabled || futures.isEmpty()) {
 				logger.debug("Ack for messageId=" + msg.getReceipt());
-				//logger.info("ShotgunMsg:ep: ACKing Message.. No match " + msg.getReceipt());
-				queue.ack(Collections.singletonList(msg));
+				ack(queue, msg);
 			} else {
 				// Any action succeeded
 				if (anySuccess) {
 					logger.debug("Processed. Ack for messageId=" + msg.getReceipt());
-					//logger.info("ShotgunMsg:ep: ACKing Message. Processed " + msg.getReceipt());
-					queue.ack(Collections.singletonList(msg));
+					ack(queue, msg);
 				} else {
 					MetricService.getInstance()
 						.eventRedeliveryRequested(queue.getName(), queue.getSubject());
 					logger.debug("Redelivery needed. Unack for messageId=" + msg.getReceipt());
-					//logger.info("ShotgunMsg:ep: UNACK Message. Need redelivery " + msg.getReceipt());
-					queue.unack(Collections.singletonList(msg));
+					unack(queue, msg);
 				}
 			}
 		} catch (Exception e) {
-			MetricService.getInstance()
-				.eventExecutionFailed(queue.getName(), queue.getSubject());
-			logger.error(e.getMessage() + " occurred for " + msg.getPayload(), e);
-			//logger.info("ShotgunMsg:ep: UNACK Message.. Exception " + msg.getReceipt(), e);
-			queue.unack(Collections.singletonList(msg));
+			logger.error("Completion failed for " + msg.getReceipt() + " " + e.getMessage(), e);
+		} finally {
+			inFlight.permits.release();
 		}
 	}
 
+	private void ack(ObservableQueue queue, Message msg) {
+		queue.ack(Collections.singletonList(msg));
+		MetricService.getInstance().eventAcked(queue.getSubject(), true, System.currentTimeMillis() - msg.getReceived());
+	}
+
+	private void unack(ObservableQueue queue, Message msg) {
+		queue.unack(Collections.singletonList(msg));
+		MetricService.getInstance().eventAcked(queue.getSubject(), false, System.currentTimeMillis() - msg.getReceived());
+	}
+
+	private static class InFlight {
+		private final Semaphore permits;
+		private final int limit;
+
+		InFlight(int limit) {
+			this.permits = new Semaphore(limit);
+			this.limit = limit;
+		}
+
+		int count() {
+			return limit - permits.availablePermits();
+		}
+	}
+
+	private String toTag(JsonNode node) {
+		if (node.isValueNode()) {
+			return node.asText();
+		}
+		return String.valueOf(om.convertValue(node, Object.class));
+	}
+
 	private boolean evalCondition(String condition, String conditionClass, Object payload) throws Exception {
 		if (isNotEmpty(condition)) {
 			return ScriptEvaluator.evalBool(condition, payload);
@@ -430,8 +519,8 @@ public class EventProcessor {
 		return true;
 	}
 
-	private Future<Boolean> execute(ExecutorService executor, EventExecution ee, Action action, String payload) {
-		return executor.submit(() -> {
+	private CompletableFuture<Boolean> execute(ExecutorService executor, EventExecution ee, Action action, String payload) {
+		return CompletableFuture.supplyAsync(() -> {
 			boolean success = false;
 			NDC.push("event-" + ee.getMessageId());
 			try {
@@ -480,7 +569,81 @@ public class EventProcessor {
 			} finally {
 				NDC.remove();
 			}
-		});
+		}, executor);
+	}
+
+	/**
+	 * Condition of the handler or action resolved once per refresh: the script is compiled,
+	 * the condition class is instantiated (the conditions are stateless and shared across the threads)
+	 */
+	private interface Condition {
+		boolean evalBool(Object payload) throws Exception;
+	}
+
+	private static Condition compileCondition(String condition, String conditionClass) {
+		try {
+			if (isNotEmpty(condition)) {
+				CompiledScript script = ScriptEvaluator.compileScript(condition);
+				return payload -> ScriptEvaluator.evalBool(script, payload);
+			} else if (isNotEmpty(conditionClass)) {
+				JavaEventCondition javaEventCondition = (JavaEventCondition) Class.forName(conditionClass).newInstance();
+				return javaEventCondition::evalBool;
+			}
+			return null;
+		} catch (Exception ex) {
+			// Reported on every message, same as it would be without the precompilation
+			return payload -> {
+				throw ex;
+			};
+		}
+	}
+
+	private static class Route {
+		private final EventHandler handler;
+		private final Condition condition;
+		private final boolean hasTags;
+		private JsonQuery tags;
+		private Exception tagsError;
+		private final List<RouteAction> actions;
+
+		Route(EventHandler handler) {
+			this.handler = handler;
+			this.condition = compileCondition(handler.getCondition(), handler.getConditionClass());
+			this.hasTags = isNotEmpty(handler.getTags());
+			if (hasTags) {
+				try {
+					this.tags = ScriptEvaluator.compileJq(handler.getTags());
+				} catch (Exception ex) {
+					logger.error(handler.getName() + " event handler tags compilation failed " + ex.getMessage(), ex);
+					this.tagsError = ex;
+				}
+			}
+			List<RouteAction> actions = new ArrayList<>(handler.getActions().size());
+			int i = 0;
+			for (Action action : handler.getActions()) {
+				actions.add(new RouteAction(action, action.getAction().name() + "_" + i++));
+			}
+			this.actions = Collections.unmodifiableList(actions);
+		}
+
+		List<JsonNode> evalTags(JsonNode payload) throws Exception {
+			if (tagsError != null) {
+				throw tagsError;
+			}
+			return ScriptEvaluator.evalJqAsNodes(tags, payload);
+		}
+	}
+
+	private static class RouteAction {
+		private final Action action;
+		private final String name;
+		private final Condition condition;
+
+		RouteAction(Action action, String name) {
+			this.action = action;
+			this.name = name;
+			this.condition = compileCondition(action.getCondition(), action.getConditionClass());
+		}
 	}
 
 	public void validateHandlerConditions(EventHandler handler) {
@@ -1,5 +1,8 @@
 package com.netflix.conductor.core.events;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.netflix.conductor.common.metadata.events.EventExecution;
 import com.netflix.conductor.common.metadata.events.EventHandler;
 import com.netflix.conductor.common.metadata.tasks.Task;
@@ -38,13 +41,15 @@ public class FindUpdateAction implements JavaEventAction {
 			throw new RuntimeException("No inputParameters defined in the action");
 
 		// Convert map value field=expression to the map of field=value
-		Map<String, Object> inputParameters = ScriptEvaluator.evaluateMap(findUpdate.getInputParameters(), payload);
+		JsonNode payloadNode = ScriptEvaluator.toJsonNode(payload);
+		Map<String, Object> inputParameters = ScriptEvaluator.evaluateMap(findUpdate.getInputParameters(), payloadNode);
+		JsonNode inputParametersNode = StringUtils.isNotEmpty(findUpdate.getExpression()) ? ScriptEvaluator.toJsonNode(inputParameters) : null;
 
 		// Task status is completed by default. It either can be a constant or expression
 		Task.Status taskStatus;
 		if (StringUtils.isNotEmpty(findUpdate.getStatus())) {
 			// Get an evaluating which might result in error or empty response
-			String status = ScriptEvaluator.evalJq(findUpdate.getStatus(), payload);
+			String status = ScriptEvaluator.evalJq(findUpdate.getStatus(), payloadNode);
 			if (StringUtils.isEmpty(status))
 				throw new RuntimeException("Unable to determine status. Check mapping and payload");
 
@@ -96,7 +101,7 @@ public class FindUpdateAction implements JavaEventAction {
 				}
 
 				// Complex match - either legacy mode (compare maps) or the JQ expression against two maps
-				boolean matches = matches(task.getInputData(), inputParameters, findUpdate.getExpression());
+				boolean matches = matches(task.getInputData(), inputParameters, inputParametersNode, findUpdate.getExpression());
 				if (!matches) {
 					return;
 				}
@@ -116,7 +121,7 @@ public class FindUpdateAction implements JavaEventAction {
 				if (Task.Status.FAILED.equals(taskStatus)) {
 					String failedReason = null;
 					if (StringUtils.isNotEmpty(findUpdate.getFailedReason())) {
-						failedReason = ScriptEvaluator.evalJq(findUpdate.getFailedReason(), payload);
+						failedReason = ScriptEvaluator.evalJq(findUpdate.getFailedReason(), payloadNode);
 					}
 					task.setReasonForIncompletion(failedReason);
 				}
@@ -140,12 +145,17 @@ public class FindUpdateAction implements JavaEventAction {
 	}
 
 	boolean matches(Map<String, Object> task, Map<String, Object> event, String expression) throws Exception {
+		return matches(task, event, null, expression);
+	}
+
+	private boolean matches(Map<String, Object> task, Map<String, Object> event, JsonNode eventNode, String expression) throws Exception {
 
 		// Use JQ expression
 		if (StringUtils.isNotEmpty(expression)) {
-			Map<String, Object> map = new HashMap<>();
-			map.put("task", task);
-			map.put("event", event);
+			// The event tree is shared between the tasks, only the task is converted per call
+			ObjectNode map = JsonNodeFactory.instance.objectNode();
+			map.set("task", ScriptEvaluator.toJsonNode(task));
+			map.set("event", eventNode != null ? eventNode : ScriptEvaluator.toJsonNode(event));
 
 			String result = ScriptEvaluator.evalJq(expression, map);
 			return "true".equals(result);
@@ -21,18 +21,23 @@ package com.netflix.conductor.core.events;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.netflix.conductor.service.MetricService;
 import net.thisptr.jackson.jq.JsonQuery;
 import net.thisptr.jackson.jq.exception.JsonQueryException;
 import org.apache.commons.lang.StringUtils;
 
 import javax.annotation.Nonnull;
-import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -47,6 +52,8 @@ public class ScriptEvaluator {
 
 	private static ScriptEngine engine = new ScriptEngineManager().getEngineByName("nashorn");
 	private static LoadingCache<String, JsonQuery> queryCache = createQueryCache();
+	private static final Cache<String, CompiledScript> scriptCache = CacheBuilder.newBuilder()
+		.expireAfterAccess(1, TimeUnit.HOURS).maximumSize(1000).build();
 	private static final ObjectMapper om = new ObjectMapper();
 
 	private ScriptEvaluator() {
@@ -54,8 +61,17 @@ public class ScriptEvaluator {
 	}
 
 	public static Boolean evalBool(String script, Object input) throws ScriptException {
-		Object ret = eval(script, input);
+		return toBoolean(eval(script, input));
+	}
+
+	/**
+	 * Evaluates the script compiled by {@link #compileScript(String)}, skipping the lookup by its text
+	 */
+	public static Boolean evalBool(CompiledScript script, Object input) throws ScriptException {
+		return toBoolean(eval(script, true, input));
+	}
 
+	private static Boolean toBoolean(Object ret) {
 		if (ret instanceof Boolean) {
 			return ((Boolean) ret);
 		} else if (ret instanceof Number) {
@@ -65,13 +81,54 @@ public class ScriptEvaluator {
 	}
 
 	public static Object eval(String script, Object input) throws ScriptException {
-		Bindings bindings = engine.createBindings();
-		bindings.put("$", input);
-		return engine.eval(script, bindings);
+		CompiledScript compiled = scriptCache.getIfPresent(script);
+		boolean cached = compiled != null;
+		if (compiled == null) {
+			compiled = compile(script);
+		}
+		return eval(compiled, cached, input);
+	}
+
+	private static Object eval(CompiledScript compiled, boolean cached, Object input) throws ScriptException {
+		long start = System.currentTimeMillis();
+		// Every evaluation gets a fresh global, so the variables of one script do not leak into another one
+		ScriptContext context = createScriptContext();
+		context.getBindings(ScriptContext.ENGINE_SCOPE).put("$", input);
+		try {
+			return compiled.eval(context);
+		} finally {
+			MetricService.getInstance().scriptEval(System.currentTimeMillis() - start, cached);
+		}
+	}
+
+	/**
+	 * Compiles the script once for the repeated evaluation by the caller
+	 */
+	public static CompiledScript compileScript(String script) throws ScriptException {
+		CompiledScript compiled = scriptCache.getIfPresent(script);
+		return compiled != null ? compiled : compile(script);
+	}
+
+	private static CompiledScript compile(String script) throws ScriptException {
+		long start = System.currentTimeMillis();
+		CompiledScript compiled;
+		synchronized (engine) {
+			compiled = ((Compilable) engine).compile(script);
+		}
+		MetricService.getInstance().scriptCompile(System.currentTimeMillis() - start);
+		scriptCache.put(script, compiled);
+		return compiled;
+	}
+
+	private static ScriptContext createScriptContext() {
+		ScriptContext context = new SimpleScriptContext();
+		context.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+		context.setBindings(engine.getBindings(ScriptContext.GLOBAL_SCOPE), ScriptContext.GLOBAL_SCOPE);
+		return context;
 	}
 
 	public static String evalJq(String expression, Object payload) throws Exception {
-		JsonNode input = om.valueToTree(payload);
+		JsonNode input = toJsonNode(payload);
 		JsonQuery query = queryCache.get(expression);
 		List<JsonNode> result = query.apply(input);
 		if (result == null || result.isEmpty()) {
@@ -82,7 +139,7 @@ public class ScriptEvaluator {
 	}
 
 	public static Object evalJqAsObject(String expression, Object payload) throws Exception {
-		JsonNode input = om.valueToTree(payload);
+		JsonNode input = toJsonNode(payload);
 		JsonQuery query = queryCache.get(expression);
 		List<JsonNode> result = query.apply(input);
 		if (result == null || result.isEmpty()) {
@@ -96,7 +153,7 @@ public class ScriptEvaluator {
 	}
 
 	public static List<Object> evalJqAsList(String expression, Object payload) throws Exception {
-		JsonNode input = om.valueToTree(payload);
+		JsonNode input = toJsonNode(payload);
 		JsonQuery query = queryCache.get(expression);
 		List<JsonNode> result = query.apply(input);
 		if (result == null || result.isEmpty()) {
@@ -105,8 +162,36 @@ public class ScriptEvaluator {
 		return om.convertValue(result, new TypeReference<List<Object>>(){});
 	}
 
+	/**
+	 * Returns the raw result nodes, so the caller converts only what it needs
+	 */
+	public static List<JsonNode> evalJqAsNodes(String expression, Object payload) throws Exception {
+		JsonNode input = toJsonNode(payload);
+		JsonQuery query = queryCache.get(expression);
+		List<JsonNode> result = query.apply(input);
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		return result;
+	}
+
+	/**
+	 * Compiles the jq expression once for the repeated evaluation by the caller
+	 */
+	public static JsonQuery compileJq(String expression) throws Exception {
+		return queryCache.get(expression);
+	}
+
+	public static List<JsonNode> evalJqAsNodes(JsonQuery query, JsonNode input) throws Exception {
+		List<JsonNode> result = query.apply(input);
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		return result;
+	}
+
 	public static Object evalJqRaw(String expression, Object payload) throws Exception {
-		JsonNode input = om.valueToTree(payload);
+		JsonNode input = toJsonNode(payload);
 		JsonQuery query = queryCache.get(expression);
 		List<JsonNode> result = query.apply(input);
 		if (result == null || result.isEmpty()) {
@@ -115,7 +200,19 @@ public class ScriptEvaluator {
 		return om.convertValue(result, Object.class);
 	}
 
+	/**
+	 * Converts the payload to the tree which the evalJq methods take as is. Converting it once allows
+	 * to evaluate any number of expressions against the same payload without the conversion on each.
+	 */
+	public static JsonNode toJsonNode(Object payload) {
+		if (payload instanceof JsonNode) {
+			return (JsonNode) payload;
+		}
+		return om.valueToTree(payload);
+	}
+
 	public static Map<String, Object> evaluateMap(Map<String, String> map, Object payload) {
+		JsonNode input = toJsonNode(payload);
 		return map.entrySet().stream().map(entry -> {
 			String fieldName = entry.getKey();
 			String expression = entry.getValue();
@@ -124,7 +221,7 @@ public class ScriptEvaluator {
 
 			Object fieldValue;
 			try {
-				fieldValue = evalJqAsObject(expression, payload);
+				fieldValue = evalJqAsObject(expression, input);
 			} catch (Exception e) {
 				throw new RuntimeException(fieldName + " evaluating failed with " + e.getMessage(), e);
 			}
@@ -43,6 +43,7 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.script.ScriptException;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -441,20 +442,25 @@ public class DeciderService {
 		return getTasksToBeScheduled(def, workflow, taskToSchedule, retryCount, null);
 	}
 	
-	private List<Task> getTasksToBeScheduled(WorkflowDef def, Workflow workflow, WorkflowTask taskToSchedule, int retryCount, String retriedTaskId) {
+	private List<Task> getTasksToBeScheduled(WorkflowDef def, Workflow workflow, WorkflowTask workflowTask, int retryCount, String retriedTaskId) {
 
 		List<Task> tasks = new LinkedList<>();
 		
 		Task task = null;
-		Map<String, Object> input = getTaskInput(taskToSchedule.getInputParameters(), workflow, null, null);
+		Map<String, Object> input = getTaskInput(workflowTask.getInputParameters(), workflow, null, null);
 
+		// Workflow definitions are shared between executions, so the override goes to a copy of the task
+		final WorkflowTask taskToSchedule;
 		if ( input.get("timeoutSecondsOverride") != null){
+			taskToSchedule = workflowTask.copy();
 			try {
 				taskToSchedule.setTimeoutSeconds(Long.parseLong(String.valueOf(input.get("timeoutSecondsOverride"))));
 			}catch(NumberFormatException nfe){}
 
 			taskToSchedule.getInputParameters().remove("timeoutSecondsOverride");
 			input.remove("timeoutSecondsOverride");
+		} else {
+			taskToSchedule = workflowTask;
 		}
 
 		Type tt = Type.USER_DEFINED;
@@ -505,8 +511,9 @@ public class DeciderService {
 					//Workflow should be terminated here...
 					throw new TerminateWorkflow("Cannot map a dynamic task based on the parameter and input.  Parameter= " + paramName + ", input=" + input);
 				}
-				taskToSchedule.setName(taskName);				
-				task = createSimpleTask(workflow, taskToSchedule, retryCount);
+				WorkflowTask dynamicTask = taskToSchedule.copy();
+				dynamicTask.setName(taskName);
+				task = createSimpleTask(workflow, dynamicTask, retryCount);
 				task.setTaskType(taskName);
 				task.setRetriedTaskId(retriedTaskId);
 				tasks.add(task);
@@ -601,8 +608,9 @@ public class DeciderService {
 				}
 				Map<String, Map<String, Object>> defaults = Collections.singletonMap("defaults", preProcess);
 
-				taskToSchedule.getInputParameters().put("sink", taskToSchedule.getSink());
-				Map<String, Object> eventTaskInput = pu.getTaskInputV2(taskToSchedule.getInputParameters(), defaults, workflow, taskId, null, taskToSchedule);
+				Map<String, Object> eventInputParams = new HashMap<>(taskToSchedule.getInputParameters());
+				eventInputParams.put("sink", taskToSchedule.getSink());
+				Map<String, Object> eventTaskInput = pu.getTaskInputV2(eventInputParams, defaults, workflow, taskId, null, taskToSchedule);
 				String sink = (String)eventTaskInput.get("sink");				
 				Task eventTask = SystemTask.eventTask(workflow, taskId, taskToSchedule, eventTaskInput, sink);
 				tasks.add(eventTask);
@@ -670,10 +678,19 @@ public class DeciderService {
 
 		tasks.add(st);
 		List<String> joinOnTaskRefs = new LinkedList<>();
+		// Simple branches of the same task and parameters share the task definition and the compiled input
+		Map<List<Object>, SimpleBranches> simpleBranches = new HashMap<>();
 		// Create Dynamic tasks
 		for (WorkflowTask wft : dynForkTasks) {
-			List<Task> forkedTasks = getTasksToBeScheduled(def, workflow, wft, retryCount);
-			tasks.addAll(forkedTasks);			
+			List<Task> forkedTasks;
+			if (isSimpleBranch(workflow, wft)) {
+				SimpleBranches branches = simpleBranches.computeIfAbsent(Arrays.asList(wft.getName(), wft.getInputParameters()),
+					key -> new SimpleBranches(workflow, wft));
+				forkedTasks = Collections.singletonList(branches.create(workflow, wft, retryCount));
+			} else {
+				forkedTasks = getTasksToBeScheduled(def, workflow, wft, retryCount);
+			}
+			tasks.addAll(forkedTasks);
 			Task last = forkedTasks.get(forkedTasks.size()-1);
 			joinOnTaskRefs.add(last.getReferenceTaskName());
 			for(Task ft : forkedTasks){
@@ -695,7 +712,35 @@ public class DeciderService {
 		Task joinTask = SystemTask.JoinTask(workflow, IDGenerator.generate(), joinWorkflowTask, joinInput);
 		return joinTask;
 	}
-	
+
+	/**
+	 * @return true if the forked task is scheduled the same way as by {@link #createSimpleTask}
+	 */
+	private boolean isSimpleBranch(Workflow workflow, WorkflowTask wft) {
+		return workflow.getSchemaVersion() > 1
+			&& Type.SIMPLE.name().equals(wft.getType())
+			&& (wft.getInputParameters() == null || !wft.getInputParameters().containsKey("timeoutSecondsOverride"));
+	}
+
+	private class SimpleBranches {
+		private final TaskDef taskDef;
+		private final Function<String, Map<String, Object>> input;
+
+		SimpleBranches(Workflow workflow, WorkflowTask wft) {
+			this.taskDef = metadata.getTaskDef(wft.getName());
+			if (taskDef == null) {
+				String reason = "Invalid task specified.  Cannot find task by name " + wft.getName() + " in the task definitions";
+				throw new TerminateWorkflow(reason);
+			}
+			this.input = pu.getTaskInputResolver(wft.getInputParameters(), workflow, taskDef);
+		}
+
+		Task create(Workflow workflow, WorkflowTask wft, int retryCount) {
+			String taskId = IDGenerator.generate();
+			return SystemTask.createSimpleTask(workflow, taskId, wft, input.apply(taskId), taskDef, retryCount);
+		}
+	}
+
 	private Task createSimpleTask(Workflow workflow, WorkflowTask taskToSchedule, int retryCount) {
 		TaskDef taskDef = metadata.getTaskDef(taskToSchedule.getName());
 		
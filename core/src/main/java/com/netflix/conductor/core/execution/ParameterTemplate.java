@@ -0,0 +1,240 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	 http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+import com.netflix.conductor.core.events.ScriptEvaluator;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Parameters template parsed once into a tree of literal, ${path}, $jq{} and system parameter nodes.
+ * The template is immutable, each evaluation builds a new map and leaves the template untouched.
+ */
+class ParameterTemplate {
+	private static final Pattern SPLITTER = Pattern.compile("(?=\\$\\{)|(?=\\$jq\\{)|(?<=\\})");
+	private static final Configuration CONFIGURATION = Configuration.defaultConfiguration().addOptions(Option.SUPPRESS_EXCEPTIONS);
+
+	private final Map<String, Node> entries;
+
+	private ParameterTemplate(Map<String, Node> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * @param template Parameters map which values may contain the expressions
+	 * @return The compiled template
+	 */
+	static ParameterTemplate compile(Map<String, Object> template) {
+		return new ParameterTemplate(compileMap(template));
+	}
+
+	/**
+	 * @param value Single string which may contain the expressions
+	 * @return The compiled node
+	 */
+	static Node compile(String value) {
+		String[] values = SPLITTER.split(value);
+		List<Node> segments = new ArrayList<>(values.length);
+		for (String segment : values) {
+			segments.add(compileSegment(segment));
+		}
+		return segments.size() == 1 ? segments.get(0) : new Concat(segments);
+	}
+
+	/**
+	 * @param document Supplier of the document the paths are read from. Called at most once and only if needed.
+	 * @param taskId Task id for the CPEWF_TASK_ID parameter
+	 * @param systemParameters Resolver of the system parameters, returns null if not resolved
+	 * @return The parameters with all the expressions replaced
+	 */
+	Map<String, Object> evaluate(Supplier<Object> document, String taskId, BiFunction<String, String, String> systemParameters) {
+		return evaluateMap(entries, new Context(document, taskId, systemParameters));
+	}
+
+	private static Map<String, Node> compileMap(Map<String, Object> map) {
+		Map<String, Node> nodes = new LinkedHashMap<>();
+		map.forEach((key, value) -> nodes.put(key, compileValue(value)));
+		return Collections.unmodifiableMap(nodes);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Node compileValue(Object value) {
+		if (value instanceof String) {
+			return compile((String) value);
+		} else if (value instanceof Map) {
+			Map<String, Node> nodes = compileMap((Map<String, Object>) value);
+			return context -> evaluateMap(nodes, context);
+		} else if (value instanceof List) {
+			List<Node> nodes = new ArrayList<>();
+			for (Object item : (List<?>) value) {
+				nodes.add(compileValue(item));
+			}
+			return context -> {
+				List<Object> list = new LinkedList<>();
+				for (Node node : nodes) {
+					list.add(node.evaluate(context));
+				}
+				return list;
+			};
+		}
+		return context -> value;
+	}
+
+	private static Node compileSegment(String segment) {
+		if (segment.startsWith("${") && segment.endsWith("}")) {
+			String path = segment.substring(2, segment.length() - 1);
+			for (ParametersUtils.SystemParameters parameter : ParametersUtils.SystemParameters.values()) {
+				if (path.startsWith(parameter.name())) {
+					return new SystemParameter(segment, path);
+				}
+			}
+			return new Path(path);
+		} else if (segment.startsWith("$jq{") && segment.endsWith("}")) {
+			String expression = segment.substring(4, segment.length() - 1);
+			return context -> {
+				try {
+					List<Object> result = ScriptEvaluator.evalJqAsList(expression, context.tree());
+					return CollectionUtils.isNotEmpty(result) ? result.get(0) : null;
+				} catch (Exception ex) {
+					throw new RuntimeException(ex);
+				}
+			};
+		}
+		return context -> segment;
+	}
+
+	private static Map<String, Object> evaluateMap(Map<String, Node> nodes, Context context) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		nodes.forEach((key, node) -> map.put(key, node.evaluate(context)));
+		return map;
+	}
+
+	interface Node {
+		Object evaluate(Context context);
+	}
+
+	static class Context {
+		private final Supplier<Object> documentSupplier;
+		private final String taskId;
+		private final BiFunction<String, String, String> systemParameters;
+		private Object document;
+		private boolean resolved;
+		private JsonNode tree;
+
+		Context(Supplier<Object> documentSupplier, String taskId, BiFunction<String, String, String> systemParameters) {
+			this.documentSupplier = documentSupplier;
+			this.taskId = taskId;
+			this.systemParameters = systemParameters;
+		}
+
+		Object document() {
+			if (!resolved) {
+				document = documentSupplier.get();
+				resolved = true;
+			}
+			return document;
+		}
+
+		// All the jq expressions of the template share the tree
+		JsonNode tree() {
+			if (tree == null) {
+				tree = ScriptEvaluator.toJsonNode(document());
+			}
+			return tree;
+		}
+	}
+
+	private static class Path implements Node {
+		private final String path;
+		private final JsonPath compiled;
+
+		Path(String path) {
+			this.path = path;
+			JsonPath compiled;
+			try {
+				compiled = JsonPath.compile(path);
+			} catch (InvalidPathException e) {
+				// Reported on evaluation, same as for the paths parsed on every read
+				compiled = null;
+			}
+			this.compiled = compiled;
+		}
+
+		@Override
+		public Object evaluate(Context context) {
+			// Environment and system properties take over the paths with the same name
+			String value = System.getenv(path);
+			if (value == null) {
+				value = System.getProperty(path);
+			}
+			if (value != null) {
+				return value;
+			}
+			JsonPath jsonPath = compiled != null ? compiled : JsonPath.compile(path);
+			return jsonPath.read(context.document(), CONFIGURATION);
+		}
+	}
+
+	private static class SystemParameter implements Node {
+		private final String segment;
+		private final String name;
+
+		SystemParameter(String segment, String name) {
+			this.segment = segment;
+			this.name = name;
+		}
+
+		@Override
+		public Object evaluate(Context context) {
+			String value = context.systemParameters.apply(name, context.taskId);
+			return value != null ? value : segment;
+		}
+	}
+
+	private static class Concat implements Node {
+		private final List<Node> segments;
+
+		Concat(List<Node> segments) {
+			this.segments = segments;
+		}
+
+		@Override
+		public Object evaluate(Context context) {
+			StringBuilder builder = new StringBuilder();
+			for (Node segment : segments) {
+				Object value = segment.evaluate(context);
+				if (value != null) {
+					builder.append(value.toString());
+				}
+			}
+			return builder.toString();
+		}
+	}
+}
@@ -17,16 +17,15 @@ package com.netflix.conductor.core.execution;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.DocumentContext;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.Option;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
 import com.netflix.conductor.common.run.Workflow;
-import com.netflix.conductor.core.events.ScriptEvaluator;
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
 import org.joda.time.DateTime;
@@ -39,6 +38,8 @@ import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 
@@ -52,6 +53,16 @@ public class ParametersUtils {
 	
 	private TypeReference<Map<String, Object>> map = new TypeReference<Map<String,Object>>() {};
 
+	// Keyed by the identity of the input parameters, so a lookup costs no comparison of the parameters
+	private final Cache<Map<String, Object>, CompiledInput> templates = CacheBuilder.newBuilder()
+		.weakKeys()
+		.maximumSize(10_000)
+		.build();
+
+	private final LoadingCache<String, ParameterTemplate.Node> expressions = CacheBuilder.newBuilder()
+		.maximumSize(1_000)
+		.build(CacheLoader.from(ParameterTemplate::compile));
+
 	public enum SystemParameters {
 		UUID,
 		CPEWF_TASK_ID,
@@ -73,21 +84,58 @@ public class ParametersUtils {
 	}
 
 	public Map<String, Object> getTaskInputV2(Map<String, Object> input, Map<String, Map<String, Object>> defaults, Workflow workflow, String taskId, TaskDef taskDef, WorkflowTask workflowTask) {
-		Map<String, Object> inputParams = null;
-		if(input != null) {
-			inputParams = clone(input);
-		} else {
-			inputParams = new HashMap<>();
-		}
-		if(taskDef != null && taskDef.getInputTemplate() != null) {
-			inputParams.putAll(clone(taskDef.getInputTemplate()));
+		Map<String, Object> inputTemplate = taskDef != null ? taskDef.getInputTemplate() : null;
+		ParameterTemplate template = getTemplate(input, inputTemplate);
+		return template.evaluate(() -> getInputMap(defaults, workflow, taskId, workflowTask), taskId, this::getSystemParametersValue);
+	}
+
+	/**
+	 * Resolves the same input parameters for many new tasks of the workflow, e.g. the dynamic fork branches.
+	 * The parameters are compiled and the workflow document is built once, only the task id differs per call.
+	 *
+	 * @return Function of the task id to the task input
+	 */
+	public Function<String, Map<String, Object>> getTaskInputResolver(Map<String, Object> input, Workflow workflow, TaskDef taskDef) {
+		Map<String, Object> inputTemplate = taskDef != null ? taskDef.getInputTemplate() : null;
+		ParameterTemplate template = ParameterTemplate.compile(merge(input, inputTemplate));
+		// The new tasks are not part of the workflow yet, so the document does not depend on the task id
+		Object[] document = new Object[1];
+		Supplier<Object> documentSupplier = () -> {
+			if (document[0] == null) {
+				document[0] = getInputMap(null, workflow, null, null);
+			}
+			return document[0];
+		};
+		return taskId -> template.evaluate(documentSupplier, taskId, this::getSystemParametersValue);
+	}
+
+	/**
+	 * Task inputs are compiled once per input parameters object. The parameters come from the cached workflow
+	 * and task definitions, which are not changed in place, so an updated definition brings new objects and
+	 * the callers building the parameters per call do not evict each other's templates.
+	 */
+	private ParameterTemplate getTemplate(Map<String, Object> input, Map<String, Object> inputTemplate) {
+		if (input == null) {
+			return ParameterTemplate.compile(merge(null, inputTemplate));
 		}
 
-		Map<String, Map<String, Object>> inputMap = getInputMap(defaults, workflow, taskId, workflowTask);
+		CompiledInput compiled = templates.getIfPresent(input);
+		if (compiled == null || compiled.inputTemplate != inputTemplate) {
+			compiled = new CompiledInput(inputTemplate, ParameterTemplate.compile(merge(input, inputTemplate)));
+			templates.put(input, compiled);
+		}
+		return compiled.template;
+	}
 
-		Configuration option = Configuration.defaultConfiguration().addOptions(Option.SUPPRESS_EXCEPTIONS);
-		DocumentContext io = JsonPath.parse(inputMap, option);
-		return replace(inputParams, io, taskId);
+	private Map<String, Object> merge(Map<String, Object> input, Map<String, Object> inputTemplate) {
+		Map<String, Object> merged = new LinkedHashMap<>();
+		if (input != null) {
+			merged.putAll(input);
+		}
+		if (inputTemplate != null) {
+			merged.putAll(inputTemplate);
+		}
+		return merged;
 	}
 
 	public Map<String, Map<String, Object>> getInputMap(Map<String, Map<String, Object>> defaults, Workflow workflow, String taskId, WorkflowTask workflowTask) {
@@ -140,19 +188,17 @@ public class ParametersUtils {
 			inputMap.put("task", taskIO);
 		}
 
-		if (taskId != null) {
-			Optional<Task> task = workflow.getTasks().stream()
-					.filter(item -> item.getTaskId().equalsIgnoreCase(taskId)).findFirst();
-			if (task.isPresent()) {
-				Map<String, Object> taskIO = createTaskIO(task.get());
-				inputMap.put("task", taskIO);
-			}
+		Task current = taskId == null ? null : workflow.getTaskById(taskId);
+		if (current != null) {
+			inputMap.put("task", createTaskIO(current));
 		}
 
-		workflow.getTasks().stream().map(Task::getReferenceTaskName).map(taskRefName -> workflow.getTaskByRefName(taskRefName)).forEach(task -> {
-			Map<String, Object> taskIO = createTaskIO(task);
-			inputMap.put(task.getReferenceTaskName(), taskIO);
-		});
+		// Only the latest task per reference name is exposed, the IO map is built once for it
+		for (Task task : workflow.getTasks()) {
+			if (workflow.getTaskByRefName(task.getReferenceTaskName()) == task) {
+				inputMap.put(task.getReferenceTaskName(), createTaskIO(task));
+			}
+		}
 
 		return inputMap;
 	}
@@ -181,18 +227,6 @@ public class ParametersUtils {
 		return taskIO;
 	}
 
-	//deep clone using json - POJO
-	private Map<String, Object> clone(Map<String, Object> inputTemplate) {
-		try {
-			
-			byte[] bytes = om.writeValueAsBytes(inputTemplate);
-			Map<String, Object> cloned = om.readValue(bytes, map);
-			return cloned;
-		} catch (IOException e) {
-			throw new RuntimeException(e.getMessage(), e);
-		}
-	}
-	
 	public Map<String, Object> replace(Map<String, Object> input, Object json) {
 		Object doc = null;
 		if(json instanceof String) {
@@ -200,102 +234,13 @@ public class ParametersUtils {
 		} else {
 			doc = json;
 		}
-		Configuration option = Configuration.defaultConfiguration().addOptions(Option.SUPPRESS_EXCEPTIONS);
-		DocumentContext io = JsonPath.parse(doc, option);
-		return replace(input, io, null);
+		Object document = doc;
+		return ParameterTemplate.compile(input).evaluate(() -> document, null, this::getSystemParametersValue);
 	}
 	
 	public Object replace(String paramString) {
-		Configuration option = Configuration.defaultConfiguration().addOptions(Option.SUPPRESS_EXCEPTIONS);
-		DocumentContext io = JsonPath.parse(Collections.emptyMap(), option);
-		return replaceVariables(paramString, io, null);
-	}
-
-	@SuppressWarnings("unchecked")
-	private Map<String, Object> replace(Map<String, Object> input, DocumentContext io, String taskId) {
-		for (Entry<String, Object> e : input.entrySet()) {
-			Object value = e.getValue();
-			if (value instanceof String) {
-				Object replaced = replaceVariables(value.toString(), io, taskId);
-				e.setValue(replaced);
-			} else if (value instanceof Map) {
-				Object replaced = replace((Map<String, Object>) value, io, taskId);
-				e.setValue(replaced);
-			} else if (value instanceof List) {
-				Object replaced = replaceList((List<?>) value, taskId, io);
-				e.setValue(replaced);
-			}else {
-				e.setValue(value);
-			}
-		}
-		return input;
-	}
-	
-	@SuppressWarnings("unchecked")
-	private Object replaceList(List<?> values, String taskId, DocumentContext io) {
-		List<Object> replacedList = new LinkedList<>();
-		for (Object listVal : values) {
-			if (listVal instanceof String) {
-				Object replaced = replaceVariables(listVal.toString(), io, taskId);
-				replacedList.add(replaced);
-			} else if (listVal instanceof Map) {
-				Object replaced = replace((Map<String, Object>) listVal, io, taskId);
-				replacedList.add(replaced);
-			} else if (listVal instanceof List) {
-				Object replaced = replaceList((List<?>) listVal, taskId, io);
-				replacedList.add(replaced);
-			}else {
-				replacedList.add(listVal);
-			}
-		}
-		return replacedList;
-	}
-
-	private Object replaceVariables(String paramString, DocumentContext io, String taskId){
-		String[] values = paramString.split("(?=\\$\\{)|(?=\\$jq\\{)|(?<=\\})");
-		Object[] convertedValues = new Object[values.length];
-		for(int i=0; i < values.length; i++){
-			convertedValues[i] = values[i];
-			if(values[i].startsWith("${") && values[i].endsWith("}")){
-				String paramPath = values[i].substring(2, values[i].length()-1);
-				if (contains(paramPath)) {
-					String sysValue = getSystemParametersValue(paramPath, taskId);
-					if(sysValue != null){
-						convertedValues[i] = sysValue;
-					}
-
-				} else {
-					convertedValues[i] = io.read(paramPath);
-				}
-			} else if(values[i].startsWith("$jq{") && values[i].endsWith("}")) {
-				String expression = values[i].substring(4, values[i].length() - 1);
-				try {
-					Object json = io.read("$");
-					List<Object> result = ScriptEvaluator.evalJqAsList(expression, json);
-					convertedValues[i] = (CollectionUtils.isNotEmpty(result) ? result.get(0) : null);
-				} catch (Exception ex) {
-					throw new RuntimeException(ex);
-				}
-			}
-		}
-
-		Object retObj = convertedValues[0];
-		// If the parameter String was "v1 v2 v3" then make sure to stitch it back
-		if(convertedValues.length > 1){
-			for (int i = 0; i < convertedValues.length; i++) {
-				Object val = convertedValues[i];
-				if(val == null){
-					val = "";
-				}
-				if(i == 0){
-					retObj = val;
-				} else {
-					retObj = retObj + "" + val.toString();				
-				}
-			}
-			
-		}
-		return retObj;
+		ParameterTemplate.Node node = expressions.getUnchecked(paramString);
+		return node.evaluate(new ParameterTemplate.Context(Collections::emptyMap, null, this::getSystemParametersValue));
 	}
 
 	private String getSystemParametersValue(String sysParam, String taskId){
@@ -326,14 +271,15 @@ public class ParametersUtils {
 		return value;
 	}
 	
-	private boolean contains(String test) {
-		for (SystemParameters c : SystemParameters.values()) {
-			if (test.startsWith(c.name())) {
-				return true;
-			}
+	private static class CompiledInput {
+		// Compared by reference, same as the input parameters
+		private final Map<String, Object> inputTemplate;
+		private final ParameterTemplate template;
+
+		CompiledInput(Map<String, Object> inputTemplate, ParameterTemplate template) {
+			this.inputTemplate = inputTemplate;
+			this.template = template;
 		}
-		String value = Optional.ofNullable(System.getProperty(test)).orElse(Optional.ofNullable(System.getenv(test)).orElse(null));
-		return value != null;
 	}
-	
+
 }
@@ -22,7 +22,8 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.netflix.conductor.annotations.Trace;
 import com.netflix.conductor.auth.AuthManager;
 import com.netflix.conductor.common.metadata.events.EventPublished;
@@ -49,6 +50,8 @@ import com.netflix.conductor.core.execution.tasks.SubWorkflow;
 import com.netflix.conductor.core.execution.tasks.WorkflowSystemTask;
 import com.netflix.conductor.core.utils.IDGenerator;
 import com.netflix.conductor.core.utils.JobUtils;
+import com.netflix.conductor.core.utils.LockException;
+import com.netflix.conductor.core.utils.LockProvider;
 import com.netflix.conductor.core.utils.PriorityLookup;
 import com.netflix.conductor.core.utils.QueueUtils;
 import com.netflix.conductor.dao.ErrorLookupDAO;
@@ -68,7 +71,10 @@ import javax.inject.Inject;
 import javax.ws.rs.core.HttpHeaders;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -82,6 +88,8 @@ public class WorkflowExecutor {
 	private static final int MAX_REJECT_SIZE = 5 * 1024 * 1024;
 	private static final int MAX_ALERT_SIZE = 600 * 1024;
 	private static final String BEARER = "Bearer";
+	private static final int LOCKED_RETRY_SECONDS = 1;
+	private static final long WAKEUP_LOCK_TIMEOUT_MS = 100;
 	private static Logger logger = LoggerFactory.getLogger(WorkflowExecutor.class);
 
 	private MetadataDAO metadata;
@@ -99,6 +107,8 @@ public class WorkflowExecutor {
 
 	private AuthManager auth;
 
+	private LockProvider lockProvider;
+
 	public static final String deciderQueue = "_deciderQueue";
 	public static final String sweeperQueue = "_sweeperQueue";
 
@@ -110,6 +120,13 @@ public class WorkflowExecutor {
 	private boolean traceIdEnabled;
 	private boolean authContextEnabled;
 	private boolean lazyDecider;
+	private int maxDecideIterations;
+	private long decideLockTimeout;
+	// Workflows being decided in this JVM, and the ones changed meanwhile by a caller which gave up on the lock.
+	// The latter expire, so a mark left behind by a decide which has just finished does not stay forever
+	private final Set<String> deciding = ConcurrentHashMap.newKeySet();
+	private final Cache<String, Boolean> redecide;
+	private boolean statusEventsOutbox;
 
 	private ParametersUtils pu = new ParametersUtils();
 
@@ -124,7 +141,8 @@ public class WorkflowExecutor {
 							AuthManager auth, Configuration config,
 							TaskStatusListener taskStatusListener,
 							WorkflowStatusListener workflowStatusListener,
-							PropertiesLoader propertiesLoader, AppConfig appConfig, PriorityConfig priorityConfig) {
+							PropertiesLoader propertiesLoader, AppConfig appConfig, PriorityConfig priorityConfig,
+							LockProvider lockProvider) {
 		this.metadata = metadata;
 		this.edao = edao;
 		this.queue = queue;
@@ -140,6 +158,13 @@ public class WorkflowExecutor {
 		this.traceIdEnabled = Boolean.parseBoolean(config.getProperty("workflow.traceid.enabled", "false"));
 		this.authContextEnabled = Boolean.parseBoolean(config.getProperty("workflow.authcontext.enabled", "false"));
 		this.lazyDecider = Boolean.parseBoolean(config.getProperty("workflow.lazy.decider", "false"));
+		this.maxDecideIterations = config.getIntProperty("workflow.decider.max.iterations", 100);
+		this.decideLockTimeout = config.getIntProperty("workflow.decider.lock.timeout.ms", 1000);
+		this.redecide = CacheBuilder.newBuilder()
+			.expireAfterWrite(config.getIntProperty("workflow.decider.redecide.expire.ms", 60_000), TimeUnit.MILLISECONDS)
+			.build();
+		this.statusEventsOutbox = Boolean.parseBoolean(config.getProperty("workflow.status.events.outbox.enabled", "false"));
+		this.lockProvider = lockProvider;
 		this.propertiesLoader = propertiesLoader;
 		this.appConfig = appConfig;
 		this.priorityConfig = priorityConfig;
@@ -256,7 +281,9 @@ public class WorkflowExecutor {
 			wf.setAuthorization(authorization);
 			wf.setClientId(clientId);
 			wf.setContextUser(contextUser);
-			wf.setVariables(workflowDef.getVariables());
+			if (workflowDef.getVariables() != null) {
+				wf.setVariables(new HashMap<>(workflowDef.getVariables()));
+			}
 			Map <String, String > configValues = new HashMap<>();
 			Map<String, String> configs = appConfig.getConfigs();
 			configs.entrySet().forEach(x-> configValues.put(x.getKey(), x.getValue()));
@@ -314,7 +341,9 @@ public class WorkflowExecutor {
 			wf.setUpdateTime(null);
 			wf.setEvent(event);
 			wf.setTaskToDomain(taskToDomain);
-			wf.setAttributes(workflowDef.getAttributes());
+			if (workflowDef.getAttributes() != null) {
+				wf.setAttributes(new HashMap<>(workflowDef.getAttributes()));
+			}
 
 			if (StringUtils.isNotEmpty(workflowDef.getTags())) {
 				Map<String, Map<String, Object>> inputMap = pu.getInputMap(null, wf, null, null);
@@ -1218,50 +1247,54 @@ public class WorkflowExecutor {
 			}
 		}
 
-		if (result.isResetStartTime()) {
-			edao.resetStartTime(task, result.isUpdateOutput());
-		} else {
-			edao.updateTask(task);
-		}
-		if (task.isTerminal()) {
-			MetricService.getInstance().taskComplete(task.getTaskType(),
-					task.getReferenceTaskName(),
-					task.getTaskDefName(),
-					task.getStatus().name(),
-					task.getStartTime());
-		}
+		// The task update and its status event are stored together
+		inStatusEventsUnit(() -> {
+			if (result.isResetStartTime()) {
+				edao.resetStartTime(task, result.isUpdateOutput());
+			} else {
+				edao.updateTask(task);
+			}
+			if (task.isTerminal()) {
+				MetricService.getInstance().taskComplete(task.getTaskType(),
+						task.getReferenceTaskName(),
+						task.getTaskDefName(),
+						task.getStatus().name(),
+						task.getStartTime());
+			}
 
-		result.getLogs().forEach(tl -> tl.setTaskId(task.getTaskId()));
-		edao.addTaskExecLog(result.getLogs());
+			result.getLogs().forEach(tl -> tl.setTaskId(task.getTaskId()));
+			edao.addTaskExecLog(result.getLogs());
 
-		switch (task.getStatus()) {
+			switch (task.getStatus()) {
 
-			case COMPLETED:
-				queue.remove(QueueUtils.getQueueName(task), result.getTaskId());
-				taskStatusListener.onTaskFinished(task);
-				break;
+				case COMPLETED:
+					queue.remove(QueueUtils.getQueueName(task), result.getTaskId());
+					taskStatusListener.onTaskFinished(task);
+					break;
 
-			case CANCELED:
-				queue.remove(QueueUtils.getQueueName(task), result.getTaskId());
-				taskStatusListener.onTaskFinished(task);
-				break;
-			case FAILED:
-				queue.remove(QueueUtils.getQueueName(task), result.getTaskId());
-				taskStatusListener.onTaskFinished(task);
-				break;
-			case RESET:
-				queue.remove(QueueUtils.getQueueName(task), result.getTaskId());
-				taskStatusListener.onTaskFinished(task);
-				break;
-			case IN_PROGRESS:
-				// put it back in queue based in callbackAfterSeconds
-				long callBack = result.getCallbackAfterSeconds();
-				queue.remove(QueueUtils.getQueueName(task), task.getTaskId());
-				queue.push(QueueUtils.getQueueName(task), task.getTaskId(), callBack, wf.getJobPriority()); // Milliseconds
-				break;
-			default:
-				break;
-		}
+				case CANCELED:
+					queue.remove(QueueUtils.getQueueName(task), result.getTaskId());
+					taskStatusListener.onTaskFinished(task);
+					break;
+				case FAILED:
+					queue.remove(QueueUtils.getQueueName(task), result.getTaskId());
+					taskStatusListener.onTaskFinished(task);
+					break;
+				case RESET:
+					queue.remove(QueueUtils.getQueueName(task), result.getTaskId());
+					taskStatusListener.onTaskFinished(task);
+					break;
+				case IN_PROGRESS:
+					// put it back in queue based in callbackAfterSeconds
+					long callBack = result.getCallbackAfterSeconds();
+					queue.remove(QueueUtils.getQueueName(task), task.getTaskId());
+					queue.push(QueueUtils.getQueueName(task), task.getTaskId(), callBack, wf.getJobPriority()); // Milliseconds
+					break;
+				default:
+					break;
+			}
+			return null;
+		});
 
 		// Exit if resetStartTime was requested as decider won't do any actions
 		if (result.isResetStartTime()) {
@@ -1277,22 +1310,14 @@ public class WorkflowExecutor {
 	}
 
 	private void wakeUpSweeper(String workflowId, int priority) {
-		boolean active = queue.exists(WorkflowExecutor.sweeperQueue, workflowId);
-		if (active) {
-			logger.debug("wakeUpSweeper. Sweeper in progress for " + workflowId);
-
-			// Wait a little bit. If the current sweeper call is empty
-			// then it will exit soon and we can wake it up again
-			Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
-
-			// Check again
-			active = queue.exists(WorkflowExecutor.sweeperQueue, workflowId);
-
-			// Exit if it still active
-			if (active) {
-				logger.debug("wakeUpSweeper. Sweeper still in progress for " + workflowId);
-				return;
-			}
+		// The decide in progress may have loaded the workflow before this change, so it decides once more when done
+		try (AutoCloseable ignored = lockProvider.lock(workflowId, WAKEUP_LOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+			logger.debug("wakeUpSweeper. No decide in progress for " + workflowId);
+		} catch (LockException e) {
+			logger.debug("wakeUpSweeper. Decide in progress for " + workflowId);
+			markRedecide(workflowId);
+		} catch (Exception e) {
+			logger.debug("wakeUpSweeper. Lock failed for " + workflowId + " " + e.getMessage(), e);
 		}
 
 		// Otherwise wake it up by unacking message via queue
@@ -1334,6 +1359,15 @@ public class WorkflowExecutor {
 		return edao.getWorkflowIdsByStartDate(state, workflowName, startedBefore, startedAfter);
 	}
 
+	/**
+	 * With the status events outbox the listeners store the events, so the work runs as a unit of work and
+	 * the events are persisted along with the changes. Otherwise the listeners publish right away and the
+	 * work runs as is, so the broker latency does not hold the transaction.
+	 */
+	private <R> R inStatusEventsUnit(Callable<R> work) throws Exception {
+		return statusEventsOutbox ? edao.unitOfWork(work) : work.call();
+	}
+
 	/**
 	 *
 	 * @param workflowId ID of the workflow to evaluate the state for
@@ -1341,17 +1375,82 @@ public class WorkflowExecutor {
 	 * @throws Exception If there was an error - caller should retry in this case.
 	 */
 	public Pair<Boolean, Integer> decide(String workflowId) throws Exception {
+		return decide(workflowId, null);
+	}
+
+	/**
+	 *
+	 * @param workflowId ID of the workflow to evaluate the state for
+	 * @param onLoad Optional callback receiving the workflow once it is loaded for the evaluation
+	 * @return true if the workflow has completed (success or failed), false otherwise.
+	 * @throws Exception If there was an error - caller should retry in this case.
+	 */
+	public Pair<Boolean, Integer> decide(String workflowId, Consumer<Workflow> onLoad) throws Exception {
 		logger.debug("Invoked decide for workflow " + workflowId);
 		if (workflowId == null || workflowId.isEmpty()) {
 			logger.error("ONECOND-1106: Invoked decide() with an empty or null Workflow ID");
 			return Pair.of(false, config.getSweepFrequency());
 		}
 
+		try {
+			Pair<Boolean, Integer> result;
+			do {
+				// All the changes made by the decision are persisted together
+				result = edao.unitOfWork(() -> {
+					// The lock lasts till the end of the unit, so the next decide sees the changes made by this one
+					try (AutoCloseable ignored = lockProvider.lock(workflowId, decideLockTimeout, TimeUnit.MILLISECONDS)) {
+						deciding.add(workflowId);
+						try {
+							return decideUnit(workflowId, onLoad);
+						} finally {
+							deciding.remove(workflowId);
+						}
+					}
+				});
+				// Someone else changed the workflow while this decide was in progress and gave up on the lock
+			} while (redecide.asMap().remove(workflowId) != null && !result.getLeft());
+			return result;
+		} catch (LockException e) {
+			logger.debug("Decide is in progress by someone else for " + workflowId);
+			requeueDecide(workflowId);
+			return Pair.of(false, LOCKED_RETRY_SECONDS);
+		}
+	}
+
+	/**
+	 * The decide holding the lock may have loaded the workflow before the caller's change committed.
+	 * The holder in this JVM decides once more when done, and the decider queue message is made visible
+	 * right away for a holder elsewhere.
+	 */
+	private void requeueDecide(String workflowId) {
+		markRedecide(workflowId);
+		try {
+			int priority = queue.exists(deciderQueue, workflowId) ? queue.getPriority(deciderQueue, workflowId) : 0;
+			boolean result = queue.wakeup(deciderQueue, workflowId, priority);
+			logger.debug("requeueDecide " + result + " for " + workflowId);
+		} catch (Exception e) {
+			logger.debug("requeueDecide failed for " + workflowId + " " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Only a decide in progress in this JVM picks the mark up, the holder elsewhere is woken up via the queue
+	 */
+	private void markRedecide(String workflowId) {
+		if (deciding.contains(workflowId)) {
+			redecide.put(workflowId, true);
+		}
+	}
+
+	private Pair<Boolean, Integer> decideUnit(String workflowId, Consumer<Workflow> onLoad) throws Exception {
 		Workflow workflow = edao.getWorkflow(workflowId, true);
 		if (workflow == null) {
 			logger.error("ONECOND-1106: getWorkflow() returned null for workflow: " + workflowId);
 			return Pair.of(false, config.getSweepFrequency());
 		}
+		if (onLoad != null) {
+			onLoad.accept(workflow);
+		}
 
 		if (workflow.getStatus().isTerminal()) {
 			logger.debug("Invoked decide for finished workflow " + workflowId);
@@ -1360,49 +1459,82 @@ public class WorkflowExecutor {
 
 		WorkflowDef def = metadata.get(workflow.getWorkflowType(), workflow.getVersion());
 		int sweepFrequency = def.getSweepFrequency() != null && def.getSweepFrequency() > 0 ? def.getSweepFrequency() : config.getSweepFrequency();
-		try {
-			DeciderOutcome outcome = decider.decide(workflow, def);
-			if(outcome.isComplete) {
-				completeWorkflow(workflow);
-				return Pair.of(true, sweepFrequency);
-			}
 
-			List<Task> tasksToBeScheduled = outcome.tasksToBeScheduled;
-			setTaskDomains(tasksToBeScheduled, workflow);
-			List<Task> tasksToBeUpdated = outcome.tasksToBeUpdated;
-			boolean stateChanged = false;
+		// The iterations are evaluated against the workflow in memory. Task updates are collected
+		// and persisted together with the workflow once the decision is made
+		Map<String, Task> tasksToBeUpdated = new LinkedHashMap<>();
+		boolean workflowChanged = false;
+		int iterations = 0;
+		try {
+			while (true) {
+				iterations++;
+				DeciderOutcome outcome = decider.decide(workflow, def);
+				if (outcome.isComplete) {
+					if (workflowChanged) {
+						persistDecision(workflow, tasksToBeUpdated.values());
+					}
+					completeWorkflow(workflow);
+					return Pair.of(true, sweepFrequency);
+				}
 
-			workflow.getTasks().addAll(tasksToBeScheduled);
-			for (Task task : tasksToBeScheduled) {
-				if (SystemTaskType.is(task.getTaskType()) && !task.getStatus().isTerminal()) {
-					WorkflowSystemTask stt = WorkflowSystemTask.get(task.getTaskType());
-					if (!stt.isAsync() && stt.execute(workflow, task, this)) {
-						tasksToBeUpdated.add(task);
-						stateChanged = true;
+				List<Task> tasksToBeScheduled = outcome.tasksToBeScheduled;
+				setTaskDomains(tasksToBeScheduled, workflow);
+				boolean stateChanged = false;
+
+				Set<String> knownTaskIds = workflow.getTasks().stream().map(Task::getTaskId).collect(Collectors.toSet());
+				workflow.getTasks().addAll(tasksToBeScheduled);
+				for (Task task : tasksToBeScheduled) {
+					if (SystemTaskType.is(task.getTaskType()) && !task.getStatus().isTerminal()) {
+						WorkflowSystemTask stt = WorkflowSystemTask.get(task.getTaskType());
+						if (!stt.isAsync() && stt.execute(workflow, task, this)) {
+							outcome.tasksToBeUpdated.add(task);
+							stateChanged = true;
+						}
 					}
 				}
-			}
-			if (!outcome.tasksToBeDeleted.isEmpty()) {
-				outcome.tasksToBeDeleted.forEach(task -> edao.removeTask(task));
-			}
+				if (!outcome.tasksToBeDeleted.isEmpty()) {
+					outcome.tasksToBeDeleted.forEach(task -> edao.removeTask(task));
+				}
 
-			stateChanged = scheduleTask(workflow, tasksToBeScheduled) || stateChanged;
+				Set<String> createdTaskIds = new HashSet<>();
+				stateChanged = scheduleTask(workflow, tasksToBeScheduled, createdTaskIds) || stateChanged;
 
-			if(!outcome.tasksToBeUpdated.isEmpty() || !outcome.tasksToBeScheduled.isEmpty()) {
-				edao.updateTasks(tasksToBeUpdated);
-				boolean shallResetTags = tasksToBeUpdated.stream().anyMatch(t -> t.isTerminal() && t.shallResetTags());
-				if (shallResetTags) {
-					workflow.setResetTags(true);
+				if (!outcome.tasksToBeUpdated.isEmpty() || !outcome.tasksToBeScheduled.isEmpty()) {
+					outcome.tasksToBeUpdated.forEach(task -> tasksToBeUpdated.put(task.getTaskId(), task));
+					workflowChanged = true;
 				}
-				edao.updateWorkflow(workflow);
-				queue.push(deciderQueue, workflow.getWorkflowId(), sweepFrequency, workflow.getJobPriority());
-			}
 
-			if(stateChanged) {
-				decide(workflowId);
+				if (!stateChanged) {
+					break;
+				}
+
+				if (iterations >= maxDecideIterations) {
+					logger.warn("Decide stopped after " + iterations + " iterations, the sweeper continues. workflowId=" + workflowId
+							+ ",correlationId=" + workflow.getCorrelationId() + ",contextUser=" + workflow.getContextUser());
+					MetricService.getInstance().decideIterationsExceeded(workflow.getWorkflowType());
+					sweepFrequency = 0;
+					break;
+				}
+
+				if (!refreshTasks(workflow, knownTaskIds, createdTaskIds, outcome.tasksToBeDeleted)) {
+					// Tasks were scheduled by someone else meanwhile - continue with the stored state
+					persistDecision(workflow, tasksToBeUpdated.values());
+					tasksToBeUpdated.clear();
+					workflow = edao.getWorkflow(workflowId, true);
+					if (workflow == null || workflow.getStatus().isTerminal()) {
+						return Pair.of(workflow != null, sweepFrequency);
+					}
+				}
 			}
 
+			if (workflowChanged) {
+				persistDecision(workflow, tasksToBeUpdated.values());
+				queue.push(deciderQueue, workflow.getWorkflowId(), sweepFrequency, workflow.getJobPriority());
+			}
 		} catch (TerminateWorkflow tw) {
+			if (workflowChanged) {
+				persistDecision(workflow, tasksToBeUpdated.values());
+			}
 			String message = "Error in workflow execution: " + tw.getMessage()
 					+ ",workflowId=" + workflow.getWorkflowId() + ",correlationId=" + workflow.getCorrelationId()
 					+ ",traceId=" + workflow.getTraceId() + ",contextUser=" + workflow.getContextUser()
@@ -1417,10 +1549,48 @@ public class WorkflowExecutor {
 			}
 			terminate(def, workflow, tw);
 			return Pair.of(true, sweepFrequency);
+		} finally {
+			MetricService.getInstance().decideIterations(def.getName(), iterations);
 		}
 		return Pair.of(false, sweepFrequency);
 	}
 
+	private void persistDecision(Workflow workflow, Collection<Task> tasksToBeUpdated) {
+		edao.updateTasks(new ArrayList<>(tasksToBeUpdated));
+		boolean shallResetTags = tasksToBeUpdated.stream().anyMatch(t -> t.isTerminal() && t.shallResetTags());
+		if (shallResetTags) {
+			workflow.setResetTags(true);
+		}
+		edao.updateWorkflow(workflow);
+	}
+
+	/**
+	 * Brings the tasks of the workflow in memory in line with the storage after a decide iteration,
+	 * so the next iteration does not need to reload the workflow.
+	 *
+	 * @return false if the workflow has scheduled tasks which were not stored by this decide, and it must be reloaded
+	 */
+	private boolean refreshTasks(Workflow workflow, Set<String> knownTaskIds, Set<String> createdTaskIds, List<Task> deletedTasks) {
+		Set<String> deletedTaskIds = deletedTasks.stream().map(Task::getTaskId).collect(Collectors.toSet());
+		Map<String, Task> tasks = new LinkedHashMap<>();
+		for (Task task : workflow.getTasks()) {
+			String taskId = task.getTaskId();
+			if (deletedTaskIds.contains(taskId)) {
+				continue;
+			}
+			if (!knownTaskIds.contains(taskId) && !createdTaskIds.contains(taskId)) {
+				return false;
+			}
+			// Pending system tasks are scheduled again by every iteration
+			tasks.putIfAbsent(taskId, task);
+		}
+
+		List<Task> refreshed = new LinkedList<>(tasks.values());
+		refreshed.sort(Comparator.comparingLong(Task::getScheduledTime).thenComparingInt(Task::getSeq));
+		workflow.setTasks(refreshed);
+		return true;
+	}
+
 	public void pauseWorkflow(String workflowId,String correlationId) throws Exception {
 		WorkflowStatus status = WorkflowStatus.PAUSED;
 		Workflow workflow = edao.getWorkflow(workflowId, false);
@@ -1579,16 +1749,10 @@ public class WorkflowExecutor {
 				String propName = "workflow.system.task." + task.getTaskDefName().toLowerCase() + ".unpop.offset";
 				int unpopOffset = config.getIntProperty(propName, 30);
 
-				if (edao.exceedsInProgressLimit(task)) {
-					MetricService.getInstance().taskRateLimited(task.getTaskType(), task.getReferenceTaskName(), task.getTaskDefName());
-					logger.debug("Concurrent Execution limited for {}:{}:{}", task.getReferenceTaskName(), task.getTaskDefName(), taskId);
-					queue.unpop(queueName, task.getTaskId(), unpopOffset * 1000L);
-					return;
-				}
-
-				if (edao.exceedsRateLimitPerFrequency(task)) {
+				// Both limits at once, so the concurrency permit is given back when the rate limit rejects the task
+				if (!edao.exceedsLimits(Collections.singletonList(task)).isEmpty()) {
 					MetricService.getInstance().taskRateLimited(task.getTaskType(), task.getReferenceTaskName(), task.getTaskDefName());
-					logger.debug("RateLimit Execution limited for {}:{}:{}", task.getReferenceTaskName(), task.getTaskDefName(), taskId);
+					logger.debug("Concurrent/RateLimit Execution limited for {}:{}:{}", task.getReferenceTaskName(), task.getTaskDefName(), taskId);
 					queue.unpop(queueName, task.getTaskId(), unpopOffset * 1000L);
 					return;
 				}
@@ -1719,6 +1883,10 @@ public class WorkflowExecutor {
 
 	@VisibleForTesting
 	boolean scheduleTask(Workflow workflow, List<Task> tasks) throws Exception {
+		return scheduleTask(workflow, tasks, new HashSet<>());
+	}
+
+	private boolean scheduleTask(Workflow workflow, List<Task> tasks, Set<String> createdTaskIds) throws Exception {
 
 		if (tasks == null || tasks.isEmpty()) {
 			return false;
@@ -1730,6 +1898,7 @@ public class WorkflowExecutor {
 		}
 
 		List<Task> created = edao.createTasks(tasks);
+		created.forEach(task -> createdTaskIds.add(task.getTaskId()));
 		List<Task> createdSystemTasks = created.stream().filter(task -> SystemTaskType.is(task.getTaskType())).collect(Collectors.toList());
 		List<Task> toBeQueued = created.stream().filter(task -> !SystemTaskType.is(task.getTaskType())).collect(Collectors.toList());
 
@@ -1815,8 +1984,18 @@ public class WorkflowExecutor {
 	}
 
 	private void addTaskToQueue(final List<Task> tasks, int priority) throws Exception {
+		// The tasks due now are pushed with one call per queue, e.g. the branches of a dynamic fork
+		Map<String, List<Message>> messages = new LinkedHashMap<>();
 		for (Task t : tasks) {
-			pushTaskToQueue(t, priority);
+			if (t.getCallbackAfterSeconds() > 0) {
+				pushTaskToQueue(t, priority);
+			} else {
+				messages.computeIfAbsent(QueueUtils.getQueueName(t), name -> new LinkedList<>())
+					.add(new Message(t.getTaskId(), null, null));
+			}
+		}
+		for (Map.Entry<String, List<Message>> entry : messages.entrySet()) {
+			queue.push(entry.getKey(), entry.getValue(), priority);
 		}
 	}
 
@@ -1963,6 +2142,34 @@ public class WorkflowExecutor {
 			return null;
 		}
 
+		Map<String, Object> decoded = decodeAuthorization(headers);
+		validateAuth(workflowDef, decoded);
+		return decoded;
+	}
+
+	/**
+	 * Validates the already decoded access token against the auth rules of the workflow definition.
+	 * Lets the bulk operations decode the token once per request rather than per workflow.
+	 */
+	public void validateAuth(WorkflowDef workflowDef, Map<String, Object> decoded) {
+		if (!validateAuth || MapUtils.isEmpty(workflowDef.getAuthValidation())) {
+			return;
+		}
+
+		// Do a validation
+		Map<String, Object> failedList;
+		try {
+			failedList = auth.validate(decoded, workflowDef.getAuthValidation());
+		} catch (Exception ex) {
+			throw new ApplicationException(Code.UNAUTHORIZED, "Auth validation failed: " + ex.getMessage());
+		}
+
+		if (!failedList.isEmpty()) {
+			throw new ApplicationException(Code.UNAUTHORIZED, "Auth validation rules failed: " + failedList.keySet());
+		}
+	}
+
+	public Map<String, Object> decodeAuthorization(HttpHeaders headers) {
 		List<String> strings = headers.getRequestHeader(HttpHeaders.AUTHORIZATION);
 		if (strings == null || strings.isEmpty())
 			throw new ApplicationException(Code.UNAUTHORIZED, "No " + HttpHeaders.AUTHORIZATION + " header provided");
@@ -1984,22 +2191,11 @@ public class WorkflowExecutor {
 		if (!BEARER.equalsIgnoreCase(type))
 			throw new ApplicationException(Code.UNAUTHORIZED, "Invalid " + HttpHeaders.AUTHORIZATION + " type(" + type + ")");
 
-		Map<String, Object> decoded;
-
-		// Do a validation
-		Map<String, Object> failedList;
 		try {
-			decoded = auth.decode(token);
-			failedList = auth.validate(decoded, workflowDef.getAuthValidation());
+			return auth.decode(token);
 		} catch (Exception ex) {
 			throw new ApplicationException(Code.UNAUTHORIZED, "Auth validation failed: " + ex.getMessage());
 		}
-
-		if (!failedList.isEmpty()) {
-			throw new ApplicationException(Code.UNAUTHORIZED, "Auth validation rules failed: " + failedList.keySet());
-		}
-
-		return decoded;
 	}
 
 	public String decodeAuthorizationUser(HttpHeaders headers) {
@@ -18,10 +18,14 @@
  */
 package com.netflix.conductor.core.execution;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.conductor.core.WorkflowContext;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
 import com.netflix.conductor.dao.QueueDAO;
+import com.netflix.conductor.service.MetricService;
 import org.apache.log4j.NDC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,26 +34,42 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * @author Viren
  * @author Vikram
  *
+ * The sweeper keeps up to {@literal workflow.sweeper.queue.size} workflows in progress. The popper asks the decider
+ * queue for as many workflows as there are free slots, and every finished decide frees its slot, so a slow workflow
+ * holds only its own slot rather than the whole batch. When all the slots are taken the popper waits (backpressure).
+ * <p>
+ * A single workflow type can take up to {@literal workflow.sweeper.type.max.share} percent of the slots while other
+ * types are waiting. Workflows of a type over its share are then put back to the queue for a moment so the other
+ * types are not starved. Otherwise the type takes all the free slots.
  */
 @Singleton
 public class WorkflowSweeper {
 
     private static Logger logger = LoggerFactory.getLogger(WorkflowSweeper.class);
-    private ScheduledExecutorService deciderPool;
-    private ExecutorService es;
+    private ExecutorService popper;
+    private ThreadPoolExecutor es;
     private Configuration config;
     private QueueDAO queues;
     private int executorThreadPoolSize;
     private long sweeperFrequency;
     private int poolTimeout;
+    private int queueSize;
+    private int maxPerType;
+    private Semaphore permits;
+    private volatile boolean running = true;
+    // Workflow types learnt from the previous decides, used to apply the fairness before the decide
+    private final Cache<String, String> workflowTypes = CacheBuilder.newBuilder().maximumSize(100_000).build();
+    private final Map<String, AtomicInteger> inFlightByType = new ConcurrentHashMap<>();
 
     private static final String className = WorkflowSweeper.class.getSimpleName();
 
@@ -60,10 +80,18 @@ public class WorkflowSweeper {
         this.executorThreadPoolSize = config.getIntProperty("workflow.sweeper.thread.count", 5);
         this.sweeperFrequency = config.getIntProperty("workflow.sweeper.frequency", 500);
         this.poolTimeout = config.getIntProperty("workflow.sweeper.pool.timeout", 2000);
+        this.queueSize = Math.max(config.getIntProperty("workflow.sweeper.queue.size", 2 * executorThreadPoolSize), executorThreadPoolSize);
+        int maxShare = config.getIntProperty("workflow.sweeper.type.max.share", 50);
+        this.maxPerType = Math.max(1, queueSize * maxShare / 100);
         if (this.executorThreadPoolSize > 0) {
-            this.es = Executors.newFixedThreadPool(executorThreadPoolSize);
+            ThreadFactory tf = new ThreadFactoryBuilder().setNameFormat("workflow-sweeper-%d").build();
+            this.es = new ThreadPoolExecutor(executorThreadPoolSize, executorThreadPoolSize,
+                    0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    tf);
+            this.permits = new Semaphore(queueSize);
             init(executor);
-            logger.debug("Workflow Sweeper Initialized");
+            logger.debug("Workflow Sweeper Initialized with {} threads and queue size {}", executorThreadPoolSize, queueSize);
         } else {
             logger.warn("Workflow sweeper is DISABLED");
         }
@@ -76,26 +104,20 @@ public class WorkflowSweeper {
             return;
         }
 
-        deciderPool = Executors.newScheduledThreadPool(1);
-        deciderPool.scheduleWithFixedDelay(() -> {
-            try {
-                List<String> workflowIds = queues.pop(WorkflowExecutor.deciderQueue, 2 * executorThreadPoolSize, poolTimeout);
-                sweep(workflowIds, executor);
-            } catch (Throwable e) {
-                logger.debug("Workflow sweep failed " + e.getMessage(), e);
-            }
-        }, 500, sweeperFrequency, TimeUnit.MILLISECONDS);
+        popper = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("workflow-sweeper-popper").build());
+        popper.submit(() -> pop(executor));
     }
 
     public void shutdown() {
+        running = false;
         try {
-            if (deciderPool != null) {
-                logger.info("Closing workflow sweeper decider pool");
-                deciderPool.shutdown();
-                deciderPool.awaitTermination(5, TimeUnit.SECONDS);
+            if (popper != null) {
+                logger.info("Closing workflow sweeper popper");
+                popper.shutdownNow();
+                popper.awaitTermination(5, TimeUnit.SECONDS);
             }
         } catch (Exception e) {
-            logger.debug("Closing decider pool failed " + e.getMessage(), e);
+            logger.debug("Closing popper failed " + e.getMessage(), e);
         }
         try {
             if (es != null) {
@@ -108,49 +130,118 @@ public class WorkflowSweeper {
         }
     }
 
-    public void sweep(List<String> workflowIds, WorkflowExecutor executor) throws Exception {
+    /**
+     * Keeps the executor pool busy. Pops as many workflows as there are free slots and waits while there are none.
+     */
+    private void pop(WorkflowExecutor executor) {
+        while (running) {
+            int count = 0;
+            try {
+                // Backpressure - wait for at least one free slot
+                if (!permits.tryAcquire(poolTimeout, TimeUnit.MILLISECONDS)) {
+                    reportGauges();
+                    continue;
+                }
+                count = 1 + permits.drainPermits();
 
-        List<Future<?>> futures = new LinkedList<>();
-        for (String workflowId : workflowIds) {
+                List<String> workflowIds = queues.pop(WorkflowExecutor.deciderQueue, count, poolTimeout);
+                // Other types are waiting when the batch is a mix of types (unknown type counts as another one)
+                boolean contended = workflowIds.stream().map(workflowTypes::getIfPresent).distinct().limit(2).count() > 1;
+                for (String workflowId : workflowIds) {
+                    count--;
+                    try {
+                        dispatch(workflowId, contended, executor);
+                    } catch (Exception e) {
+                        logger.debug("Workflow dispatch failed for " + workflowId + " " + e.getMessage(), e);
+                    }
+                }
+                permits.release(count);
+                count = 0;
+                reportGauges();
 
-            Future<?> future = es.submit(() -> {
-                NDC.push("sweep-" + UUID.randomUUID().toString());
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Calling decider from sweeper for workflow {}", workflowId);
+                if (workflowIds.isEmpty()) {
+                    Thread.sleep(sweeperFrequency);
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                permits.release(count);
+                logger.debug("Workflow sweep failed " + e.getMessage(), e);
                 try {
+                    Thread.sleep(sweeperFrequency);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
 
-                    WorkflowContext ctx = new WorkflowContext(config.getAppId());
-                    WorkflowContext.set(ctx);
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("Running sweeper for workflow {}", workflowId);
-                    }
-                    queues.push(WorkflowExecutor.sweeperQueue, workflowId, 0, 0); // For sweeper queue 0 priority is fine
-                    Pair<Boolean, Integer> result = executor.decide(workflowId);
-                    if (!result.getLeft()) {
-                        if (logger.isDebugEnabled()) {
-                            logger.debug("Setting unack timeout {} secs for workflow {}", result.getRight(), workflowId);
-                        }
-                        queues.setUnackTimeout(WorkflowExecutor.deciderQueue, workflowId, result.getRight() * 1000);
-                    } else {
-                        if (logger.isDebugEnabled()) {
-                            logger.debug("Marking workflow as completed {}", workflowId);
-                        }
-                        queues.remove(WorkflowExecutor.deciderQueue, workflowId);
-                    }
+    /**
+     * Submits the workflow holding a slot, which is released once the decide finishes.
+     *
+     * @param contended Whether other workflow types are waiting for the slots
+     */
+    private void dispatch(String workflowId, boolean contended, WorkflowExecutor executor) {
+        String workflowType = workflowTypes.getIfPresent(workflowId);
+        if (workflowType != null) {
+            AtomicInteger inFlight = inFlightByType.computeIfAbsent(workflowType, t -> new AtomicInteger());
+            if (inFlight.incrementAndGet() > maxPerType && contended && defer(workflowId, workflowType)) {
+                inFlight.decrementAndGet();
+                permits.release();
+                return;
+            }
+        }
 
-                } catch (ApplicationException e) {
-                    if (e.getCode().equals(Code.NOT_FOUND)) {
-                        logger.debug("Workflow NOT found for id: " + workflowId, e);
-                        queues.remove(WorkflowExecutor.deciderQueue, workflowId);
-                    }
-                } catch (Exception e) {
-                    logger.debug("Error running sweep for " + workflowId, e);
+        try {
+            es.submit(() -> {
+                try {
+                    sweep(workflowId, workflowType, executor);
                 } finally {
-                    queues.remove(WorkflowExecutor.sweeperQueue, workflowId);
-                    NDC.remove();
+                    permits.release();
                 }
             });
+        } catch (RejectedExecutionException ree) {
+            permits.release();
+            if (workflowType != null) {
+                inFlightByType.get(workflowType).decrementAndGet();
+            }
+            try {
+                queues.unpop(WorkflowExecutor.deciderQueue, workflowId);
+                logger.debug("Workflow sweeper is shutting down, {} put back", workflowId);
+            } catch (Exception e) {
+                logger.debug("Workflow sweeper is shutting down, {} not put back {}", workflowId, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Puts the workflow of a type over its share back to the queue for a moment.
+     *
+     * @return false if the workflow could not be put back, so it is decided right away instead of being stranded
+     */
+    private boolean defer(String workflowId, String workflowType) {
+        try {
+            queues.unpop(WorkflowExecutor.deciderQueue, workflowId, sweeperFrequency);
+        } catch (Exception e) {
+            logger.debug("Deferring {} failed, deciding it now {}", workflowId, e.getMessage(), e);
+            return false;
+        }
+        logger.debug("Workflow type {} is over its share, deferred {}", workflowType, workflowId);
+        MetricService.getInstance().sweeperDeferred(workflowType);
+        return true;
+    }
+
+    private void reportGauges() {
+        MetricService.getInstance().sweeperGauge(es.getQueue().size(), queueSize - permits.availablePermits());
+    }
+
+    public void sweep(List<String> workflowIds, WorkflowExecutor executor) throws Exception {
+
+        List<Future<?>> futures = new LinkedList<>();
+        for (String workflowId : workflowIds) {
+            Future<?> future = es.submit(() -> sweep(workflowId, null, executor));
             futures.add(future);
         }
 
@@ -160,4 +251,61 @@ public class WorkflowSweeper {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * @param knownType The workflow type if it was known (and counted in flight) on dispatch
+     */
+    private void sweep(String workflowId, String knownType, WorkflowExecutor executor) {
+        NDC.push("sweep-" + UUID.randomUUID().toString());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calling decider from sweeper for workflow {}", workflowId);
+        }
+        long start = System.currentTimeMillis();
+        // Otherwise the type is counted in flight once the workflow is loaded
+        String[] workflowType = {knownType};
+        try {
+
+            WorkflowContext ctx = new WorkflowContext(config.getAppId());
+            WorkflowContext.set(ctx);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Running sweeper for workflow {}", workflowId);
+            }
+            Pair<Boolean, Integer> result = executor.decide(workflowId, workflow -> {
+                if (workflowType[0] == null) {
+                    workflowType[0] = workflow.getWorkflowType();
+                    inFlightByType.computeIfAbsent(workflowType[0], t -> new AtomicInteger()).incrementAndGet();
+                }
+            });
+            if (!result.getLeft()) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Setting unack timeout {} secs for workflow {}", result.getRight(), workflowId);
+                }
+                queues.setUnackTimeout(WorkflowExecutor.deciderQueue, workflowId, result.getRight() * 1000);
+                if (workflowType[0] != null) {
+                    workflowTypes.put(workflowId, workflowType[0]);
+                }
+            } else {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Marking workflow as completed {}", workflowId);
+                }
+                queues.remove(WorkflowExecutor.deciderQueue, workflowId);
+                workflowTypes.invalidate(workflowId);
+            }
+
+        } catch (ApplicationException e) {
+            if (e.getCode().equals(Code.NOT_FOUND)) {
+                logger.debug("Workflow NOT found for id: " + workflowId, e);
+                queues.remove(WorkflowExecutor.deciderQueue, workflowId);
+                workflowTypes.invalidate(workflowId);
+            }
+        } catch (Exception e) {
+            logger.debug("Error running sweep for " + workflowId, e);
+        } finally {
+            if (workflowType[0] != null) {
+                inFlightByType.get(workflowType[0]).decrementAndGet();
+                MetricService.getInstance().sweeperDecideTime(workflowType[0], System.currentTimeMillis() - start);
+            }
+            NDC.remove();
+        }
+    }
+
+}
@@ -18,6 +18,9 @@
  */
 package com.netflix.conductor.core.execution.tasks;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.Task.Status;
 import com.netflix.conductor.common.run.Workflow;
@@ -31,6 +34,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Viren
@@ -40,6 +44,14 @@ public class Join extends WorkflowSystemTask {
 	private static Logger logger = LoggerFactory.getLogger(Join.class);
 	private ParametersUtils pu = new ParametersUtils();
 
+	// Position of the first joinOn task not completed yet by the join task id, so every decide continues
+	// where the previous one stopped rather than scanning the completed branches again. The position is only
+	// trusted while the join task has not been updated since (e.g. by retry); otherwise the scan starts over
+	private final Cache<String, Progress> progress = CacheBuilder.newBuilder()
+			.maximumSize(10_000)
+			.expireAfterAccess(1, TimeUnit.HOURS)
+			.build();
+
 	public Join() {
 		super("JOIN");
 	}
@@ -52,8 +64,11 @@ public class Join extends WorkflowSystemTask {
 		boolean hasFailures = false;
 		String failureReason = "";
 		List<String> joinOn = (List<String>) task.getInputData().get("joinOn");
-		for (String joinOnRef : joinOn) {
-			Task forkedTask = workflow.getTaskByRefName(joinOnRef);
+
+		Progress known = task.getTaskId() == null ? null : progress.getIfPresent(task.getTaskId());
+		int position = known != null && known.matches(task, joinOn) ? known.position : 0;
+		for (; position < joinOn.size(); position++) {
+			Task forkedTask = workflow.getTaskByRefName(joinOn.get(position));
 			if (forkedTask == null) {
 				//Task is not even scheduled yet
 				allDone = false;
@@ -63,14 +78,24 @@ public class Join extends WorkflowSystemTask {
 			hasFailures = !taskStatus.isSuccessful();
 			if (hasFailures) {
 				failureReason += forkedTask.getReasonForIncompletion() + " ";
+				break;
 			}
-			task.getOutputData().put(joinOnRef, forkedTask.getOutputData());
 			allDone = taskStatus.isTerminal();
-			if (!allDone || hasFailures) {
+			if (!allDone) {
 				break;
 			}
 		}
 		if (allDone || hasFailures) {
+			if (task.getTaskId() != null) {
+				progress.invalidate(task.getTaskId());
+			}
+
+			// The outputs are copied once, up to the failed task if any
+			int last = Math.min(position, joinOn.size() - 1);
+			for (int i = 0; i <= last; i++) {
+				Task forkedTask = workflow.getTaskByRefName(joinOn.get(i));
+				task.getOutputData().put(joinOn.get(i), forkedTask.getOutputData());
+			}
 			if (hasFailures) {
 				task.setReasonForIncompletion(failureReason);
 				task.setStatus(Status.FAILED);
@@ -79,11 +104,16 @@ public class Join extends WorkflowSystemTask {
 			}
 			return true;
 		}
+		if (task.getTaskId() != null) {
+			progress.put(task.getTaskId(), new Progress(position, task, joinOn));
+		}
+
 		// Otherwise execute conditional join
 		List<String> joinConditions = (List<String>) task.getInputData().get("joinOnConditions");
 		if (CollectionUtils.isNotEmpty(joinConditions)) {
 			Map<String, Object> inputParameters = (Map<String, Object>) task.getInputData().get("inputParameters");
-			Map<String, Object> payload = pu.getTaskInputV2(inputParameters, workflow, null, null);
+			Map<String, Object> input = pu.getTaskInputV2(inputParameters, workflow, null, null);
+			JsonNode payload = ScriptEvaluator.toJsonNode(input);
 			boolean allSuccess = false;
 			for (String condition : joinConditions) {
 				String evaluated = ScriptEvaluator.evalJq(condition, payload);
@@ -115,4 +145,19 @@ public class Join extends WorkflowSystemTask {
 		return false;
 	}
 
+	private static class Progress {
+		private final int position;
+		private final long updateTime;
+		private final int joinOnSize;
+
+		Progress(int position, Task task, List<String> joinOn) {
+			this.position = position;
+			this.updateTime = task.getUpdateTime();
+			this.joinOnSize = joinOn.size();
+		}
+
+		boolean matches(Task task, List<String> joinOn) {
+			return updateTime == task.getUpdateTime() && joinOnSize == joinOn.size();
+		}
+	}
 }
@@ -66,11 +66,12 @@ public class Lambda extends WorkflowSystemTask {
         try {
             scriptExpression = (String) taskInput.get(QUERY_EXPRESSION_PARAMETER);
             if (StringUtils.isNotBlank(scriptExpression)) {
-                String scriptExpressionBuilder = "function scriptFun(){" +
+                // The function is not declared in the global, which is reused by the evaluations on the thread
+                String scriptExpressionBuilder = "(function(){" +
                         scriptExpression +
-                        "} scriptFun();";
+                        "\n})();";
 
-                logger.info("scriptExpressionBuilder: {}" , scriptExpressionBuilder);
+                logger.debug("scriptExpressionBuilder: {}" , scriptExpressionBuilder);
                 Object returnValue = ScriptEvaluator.eval(scriptExpressionBuilder, taskInput);
                 taskOutput.put("result", returnValue);
                 task.setStatus(Task.Status.COMPLETED);
@@ -0,0 +1,32 @@
+package com.netflix.conductor.core.utils;
+
+import com.google.common.util.concurrent.Striped;
+import com.netflix.conductor.core.config.Configuration;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Mutual exclusion within the JVM. The locks are striped, so different paths might share the same lock.
+ * The lock must be released by the thread which acquired it.
+ */
+@Singleton
+public class LocalLockProvider implements LockProvider {
+	private final Striped<Lock> locks;
+
+	@Inject
+	public LocalLockProvider(Configuration config) {
+		this.locks = Striped.lock(config.getIntProperty("workflow.lock.stripes", 1024));
+	}
+
+	@Override
+	public AutoCloseable lock(String path, long timeOut, TimeUnit unit) throws Exception {
+		Lock lock = locks.get(path);
+		if (!lock.tryLock(timeOut, unit)) {
+			throw new LockException("Unable to acquire the lock for " + path);
+		}
+		return lock::unlock;
+	}
+}
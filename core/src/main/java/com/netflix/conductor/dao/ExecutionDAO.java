@@ -20,6 +20,7 @@ package com.netflix.conductor.dao;
 
 import com.netflix.conductor.common.metadata.events.EventExecution;
 import com.netflix.conductor.common.metadata.events.EventPublished;
+import com.netflix.conductor.common.metadata.events.StatusEvent;
 import com.netflix.conductor.common.metadata.tasks.PollData;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
@@ -28,8 +29,10 @@ import com.netflix.conductor.common.run.*;
 import com.netflix.conductor.core.events.queue.Message;
 
 import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 /**
  * @author Viren
@@ -94,6 +97,22 @@ public interface ExecutionDAO {
         return false;
     }
 
+    /**
+     * Bulk version of {@link #exceedsInProgressLimit(Task)} and {@link #exceedsRateLimitPerFrequency(Task)}.
+     * Tasks which are within the limits are accounted for in the rate limit as started.
+     * @param tasks The tasks to be executed
+     * @return the tasks which breach either of the limits
+     */
+    default List<Task> exceedsLimits(List<Task> tasks) {
+        List<Task> limited = new LinkedList<>();
+        for (Task task : tasks) {
+            if (exceedsInProgressLimit(task) || exceedsRateLimitPerFrequency(task)) {
+                limited.add(task);
+            }
+        }
+        return limited;
+    }
+
     /**
      *
      * @param tasks Multiple tasks to be updated
@@ -360,6 +379,45 @@ public interface ExecutionDAO {
     default void addEventPublished(EventPublished ep) {
     }
 
+    /**
+     * Adds the status event to the outbox. Joins the unit of work of the caller, so the event is only
+     * stored along with the status change it describes.
+     *
+     * @param event The status event
+     */
+    default void addStatusEvent(StatusEvent event) {
+        throw new IllegalStateException("Not implemented");
+    }
+
+    /**
+     * Leases the oldest outbox events which are due. Only the head event of a workflow is returned,
+     * the next one becomes available once the head is removed.
+     *
+     * @param count   Max number of the events
+     * @param leaseMs For how long the events are not returned to the other callers
+     * @return The leased events
+     */
+    default List<StatusEvent> leaseStatusEvents(int count, long leaseMs) {
+        throw new IllegalStateException("Not implemented");
+    }
+
+    /**
+     * @param event The published event to remove from the outbox
+     */
+    default void removeStatusEvent(StatusEvent event) {
+        throw new IllegalStateException("Not implemented");
+    }
+
+    /**
+     * Counts the failed attempt and makes the event due again after the delay
+     *
+     * @param event   The event failed to publish
+     * @param delayMs Delay before the next attempt
+     */
+    default void retryStatusEvent(StatusEvent event, long delayMs) {
+        throw new IllegalStateException("Not implemented");
+    }
+
     default void resetStartTime(Task task, boolean updateOutput) {
     }
 
@@ -375,6 +433,17 @@ public interface ExecutionDAO {
         throw new IllegalStateException("Not implemented");
     }
 
+    /**
+     * Runs the work as a single unit, so all the changes it makes via this (and the other DAOs sharing
+     * the storage) are persisted together or not at all. Nested calls join the outer unit.
+     *
+     * @param work The work to run
+     * @return The result of the work
+     */
+    default <R> R unitOfWork(Callable<R> work) throws Exception {
+        return work.call();
+    }
+
     List<WorkflowErrorRegistry> findSubWorkflows(List<String> parent_workflow_ids);
 
     List<TaskDetails> searchTaskDetails(String jobId, String workflowId, String workflowType, String taskName, Boolean includeOutput);
@@ -0,0 +1,253 @@
+package com.netflix.conductor.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.common.metadata.workflow.RerunWorkflowRequest;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.BulkWorkflowSummary;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.execution.WorkflowExecutor;
+import com.netflix.conductor.core.utils.IDGenerator;
+import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.MetadataDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the bulk terminate/cancel/rerun requests in the background.
+ * <p>
+ * The ids are processed in parallel by a bounded pool shared by all the jobs. The access token is decoded once
+ * per request by the caller, and the auth rules are evaluated once per workflow definition within the job.
+ * The progress is kept in memory while the job runs and for the retention period after it finishes,
+ * so it has to be polled on the same node.
+ */
+@Singleton
+public class BulkWorkflowService {
+	private static final Logger logger = LoggerFactory.getLogger(BulkWorkflowService.class);
+	private final WorkflowExecutor executor;
+	private final ExecutionDAO edao;
+	private final MetadataDAO metadata;
+	private final ExecutorService pool;
+	private final Map<String, Job> running = new ConcurrentHashMap<>();
+	private final Cache<String, Job> finished;
+
+	@Inject
+	public BulkWorkflowService(WorkflowExecutor executor, ExecutionDAO edao, MetadataDAO metadata, Configuration config) {
+		this.executor = executor;
+		this.edao = edao;
+		this.metadata = metadata;
+
+		int threadCount = config.getIntProperty("workflow.bulk.thread.count", 10);
+		int retention = config.getIntProperty("workflow.bulk.job.retention.minutes", 60);
+		this.pool = Executors.newFixedThreadPool(threadCount,
+			new ThreadFactoryBuilder().setNameFormat("workflow-bulk-%d").build());
+		this.finished = CacheBuilder.newBuilder().expireAfterWrite(retention, TimeUnit.MINUTES).build();
+		logger.debug("Bulk workflow service initialized with " + threadCount + " threads");
+	}
+
+	/**
+	 * @param decoded Access token decoded by {@link WorkflowExecutor#decodeAuthorization}, null to skip the auth rules
+	 */
+	public BulkWorkflowSummary terminate(List<String> workflowIds, String reason, Map<String, Object> decoded, String userInvoked) {
+		return submit("terminate", workflowIds, decoded, userInvoked,
+			workflowId -> executor.terminateWorkflow(workflowId, reason));
+	}
+
+	public BulkWorkflowSummary cancel(List<String> workflowIds, String reason, Map<String, Object> decoded, String userInvoked) {
+		return submit("cancel", workflowIds, decoded, userInvoked,
+			workflowId -> executor.cancelWorkflow(workflowId, reason));
+	}
+
+	public BulkWorkflowSummary rerun(List<String> workflowIds, Map<String, Object> decoded, String userInvoked) {
+		return submit("rerun", workflowIds, decoded, userInvoked, workflowId -> {
+			RerunWorkflowRequest request = new RerunWorkflowRequest();
+			request.setReRunFromWorkflowId(workflowId);
+			executor.rerun(request);
+		});
+	}
+
+	public BulkWorkflowSummary cancelByJobId(List<String> jobIds, String workflowType, String reason,
+											 Map<String, Object> decoded, String userInvoked) {
+		Job job = start("cancelByJobId", jobIds, userInvoked);
+		for (String jobId : jobIds) {
+			pool.execute(() -> job.run(jobId, () -> {
+				if (jobId == null) {
+					throw new ApplicationException(Code.INVALID_INPUT, "Job Id is a required parameter.");
+				}
+				List<Workflow> mainWorkflows = edao.searchMainWorkflowByJobId(jobId, workflowType, Workflow.WorkflowStatus.RUNNING.name());
+				if (decoded != null) {
+					for (Workflow workflow : mainWorkflows) {
+						job.authorize(workflow, decoded);
+					}
+				}
+				for (Workflow workflow : mainWorkflows) {
+					executor.cancelWorkflow(workflow.getWorkflowId(), reason);
+				}
+				return !mainWorkflows.isEmpty();
+			}));
+		}
+		return job.summary();
+	}
+
+	/**
+	 * @return The job progress or null if the job is unknown or expired
+	 */
+	public BulkWorkflowSummary getJob(String jobId) {
+		Job job = running.get(jobId);
+		if (job == null) {
+			job = finished.getIfPresent(jobId);
+		}
+		return job == null ? null : job.summary();
+	}
+
+	public void shutdown() {
+		try {
+			logger.info("Closing bulk workflow pool");
+			pool.shutdown();
+			pool.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			logger.error("failed to shutdown bulk workflow pool");
+		}
+	}
+
+	private BulkWorkflowSummary submit(String operation, List<String> workflowIds, Map<String, Object> decoded,
+									   String userInvoked, WorkflowAction action) {
+		Job job = start(operation, workflowIds, userInvoked);
+		for (String workflowId : workflowIds) {
+			pool.execute(() -> job.run(workflowId, () -> {
+				if (decoded != null) {
+					Workflow workflow = edao.getWorkflow(workflowId, false);
+					if (workflow == null) {
+						throw new ApplicationException(Code.NOT_FOUND, "No such workflow found for workflowId=" + workflowId);
+					}
+					job.authorize(workflow, decoded);
+				}
+				action.apply(workflowId);
+				return true;
+			}));
+		}
+		return job.summary();
+	}
+
+	private Job start(String operation, List<String> ids, String userInvoked) {
+		if (ids == null || ids.isEmpty()) {
+			throw new ApplicationException(Code.INVALID_INPUT, "No ids provided");
+		}
+		Job job = new Job(IDGenerator.generate(), operation, ids.size());
+		running.put(job.id, job);
+		logger.info("Bulk " + operation + " job " + job.id + " submitted for " + ids.size() + " ids,userInvoked=" + userInvoked);
+		return job;
+	}
+
+	@FunctionalInterface
+	private interface WorkflowAction {
+		void apply(String workflowId) throws Exception;
+	}
+
+	@FunctionalInterface
+	private interface Unit {
+		/**
+		 * @return false if there was nothing to do for the id
+		 */
+		boolean run() throws Exception;
+	}
+
+	private class Job {
+		private final String id;
+		private final String operation;
+		private final int total;
+		private final long startTime = System.currentTimeMillis();
+		private volatile long endTime;
+		private final AtomicInteger pending;
+		private final Collection<String> completed = new ConcurrentLinkedQueue<>();
+		private final Collection<String> skipped = new ConcurrentLinkedQueue<>();
+		private final Map<String, String> failed = new ConcurrentHashMap<>();
+		// Auth rules outcome by workflow definition, empty for the passed ones
+		private final Map<String, String> authorized = new ConcurrentHashMap<>();
+
+		Job(String id, String operation, int total) {
+			this.id = id;
+			this.operation = operation;
+			this.total = total;
+			this.pending = new AtomicInteger(total);
+		}
+
+		void run(String id, Unit unit) {
+			try {
+				if (unit.run()) {
+					completed.add(id);
+				} else {
+					skipped.add(id);
+				}
+			} catch (ApplicationException e) {
+				failed.put(String.valueOf(id), e.getMessage());
+			} catch (Exception e) {
+				logger.error("Bulk " + operation + " job " + this.id + " failed for " + id + " with " + e.getMessage(), e);
+				failed.put(String.valueOf(id), e.getMessage() == null ? e.getClass().getName() : e.getMessage());
+			} finally {
+				if (pending.decrementAndGet() == 0) {
+					endTime = System.currentTimeMillis();
+					// The retention starts once the job is finished, never while it is still running
+					finished.put(this.id, this);
+					running.remove(this.id);
+					logger.info("Bulk " + operation + " job " + this.id + " finished. completed=" + completed.size()
+						+ ",skipped=" + skipped.size() + ",failed=" + failed.size());
+				}
+			}
+		}
+
+		void authorize(Workflow workflow, Map<String, Object> decoded) {
+			String key = workflow.getWorkflowType() + ":" + workflow.getVersion();
+			String error = authorized.computeIfAbsent(key, k -> {
+				WorkflowDef workflowDef = metadata.get(workflow.getWorkflowType(), workflow.getVersion());
+				if (workflowDef == null) {
+					return null;
+				}
+				try {
+					executor.validateAuth(workflowDef, decoded);
+					return "";
+				} catch (ApplicationException e) {
+					return e.getMessage();
+				}
+			});
+			if (error == null) {
+				throw new ApplicationException(Code.NOT_FOUND, "No such workflow definition found by name=" + workflow.getWorkflowType() + ", version=" + workflow.getVersion());
+			}
+			if (!error.isEmpty()) {
+				throw new ApplicationException(Code.UNAUTHORIZED, error);
+			}
+		}
+
+		BulkWorkflowSummary summary() {
+			BulkWorkflowSummary summary = new BulkWorkflowSummary();
+			summary.setJobId(id);
+			summary.setOperation(operation);
+			summary.setStatus(pending.get() == 0 ? BulkWorkflowSummary.Status.COMPLETED : BulkWorkflowSummary.Status.RUNNING);
+			summary.setTotal(total);
+			summary.setStartTime(startTime);
+			summary.setEndTime(endTime);
+			summary.setCompleted(new ArrayList<>(completed));
+			summary.setSkipped(new ArrayList<>(skipped));
+			summary.setFailed(new HashMap<>(failed));
+			return summary;
+		}
+	}
+}
@@ -75,6 +75,7 @@ public class ExecutionService {
 
 	private int taskRequeueTimeout;
 	private TaskStatusListener taskStatusListener;
+	private boolean statusEventsOutbox;
 
 	private Configuration config;
 
@@ -89,6 +90,7 @@ public class ExecutionService {
 		this.config = config;
 		this.taskRequeueTimeout = config.getIntProperty("task.requeue.timeout", 60_000);
 		this.taskStatusListener = taskStatusListener;
+		this.statusEventsOutbox = Boolean.parseBoolean(config.getProperty("workflow.status.events.outbox.enabled", "false"));
 		reloadConfig();
 	}
 
@@ -122,31 +124,45 @@ public class ExecutionService {
 			edao.updateLastPoll(taskType, domain, workerId);
 			MetricService.getInstance().taskPoll(taskType, workerId, taskIds.size());
 		}
-		List<Task> tasks = new LinkedList<>();
+		if (taskIds.isEmpty()) {
+			return new LinkedList<>();
+		}
+
+		// One fetch for the whole batch, kept in the popped order
+		Map<String, Task> found = edao.getTasks(taskIds).stream()
+			.collect(Collectors.toMap(Task::getTaskId, task -> task, (first, second) -> first));
+		List<Task> candidates = new LinkedList<>();
+		List<Task> scheduled = new LinkedList<>();
 		for (String taskId : taskIds) {
-			Task task = getTask(taskId);
+			Task task = found.get(taskId);
 			if (task == null) {
 				queue.remove(queueName, taskId); // We should remove the entry if no task found
 				continue;
 			}
-
+			candidates.add(task);
 			if (task.getStatus().equals(Status.SCHEDULED)) {
+				scheduled.add(task);
+			}
+		}
+
+		// The limits are evaluated once per task definition for the batch
+		Set<String> limited = new HashSet<>();
+		if (!scheduled.isEmpty()) {
+			for (Task task : edao.exceedsLimits(scheduled)) {
 				String propName = "workflow.system.task." + task.getTaskDefName().toLowerCase() + ".unpop.offset";
 				int unpopOffset = config.getIntProperty(propName, 30);
 
-				if (edao.exceedsInProgressLimit(task)) {
-					MetricService.getInstance().taskRateLimited(task.getTaskType(), task.getReferenceTaskName(), task.getTaskDefName());
-					logger.debug("Concurrent Execution limited for {}:{}:{}", task.getReferenceTaskName(), task.getTaskDefName(), taskId);
-					queue.unpop(queueName, task.getTaskId(), unpopOffset * 1000L);
-					continue;
-				}
+				MetricService.getInstance().taskRateLimited(task.getTaskType(), task.getReferenceTaskName(), task.getTaskDefName());
+				logger.debug("Execution limited for {}:{}:{}", task.getReferenceTaskName(), task.getTaskDefName(), task.getTaskId());
+				queue.unpop(queueName, task.getTaskId(), unpopOffset * 1000L);
+				limited.add(task.getTaskId());
+			}
+		}
 
-				if (edao.exceedsRateLimitPerFrequency(task)) {
-					MetricService.getInstance().taskRateLimited(task.getTaskType(), task.getReferenceTaskName(), task.getTaskDefName());
-					logger.debug("RateLimit Execution limited for {}:{}:{}", task.getReferenceTaskName(), task.getTaskDefName(), taskId);
-					queue.unpop(queueName, task.getTaskId(), unpopOffset * 1000L);
-					continue;
-				}
+		List<Task> tasks = new LinkedList<>();
+		for (Task task : candidates) {
+			if (limited.contains(task.getTaskId())) {
+				continue;
 			}
 
 			task.setStarted(true);
@@ -163,10 +179,22 @@ public class ExecutionService {
 				task.getTaskDefName(),
 				task.getQueueWaitTime());
 
-			edao.updateTask(task);
-			taskStatusListener.onTaskStarted(task);
 			tasks.add(task);
 		}
+
+		if (!tasks.isEmpty()) {
+			if (statusEventsOutbox) {
+				// The outbox stores the start events along with the tasks
+				edao.unitOfWork(() -> {
+					edao.updateTasks(tasks);
+					tasks.forEach(taskStatusListener::onTaskStarted);
+					return null;
+				});
+			} else {
+				edao.updateTasks(tasks);
+				tasks.forEach(taskStatusListener::onTaskStarted);
+			}
+		}
 		return tasks;
 	}
 
@@ -93,15 +93,17 @@ public class MetricService {
 		statsd.recordGaugeValue(aspect, count, toArray(tagsGauge));
 	}
 
-	public void serviceDiscovery(String serviceName, Long time) {
+	public void serviceDiscovery(String serviceName, Long time, boolean cached) {
 		Set<String> tagsCounter = new HashSet<>();
 		tagsCounter.add("metric:deluxe.conductor.service.discovery");
 		tagsCounter.add("service:" + serviceName);
+		tagsCounter.add("cached:" + cached);
 		statsd.incrementCounter(aspect, toArray(tagsCounter));
 
 		Set<String> tagsTimer = new HashSet<>();
 		tagsTimer.add("metric:deluxe.conductor.service.discovery.time");
 		tagsTimer.add("service:" + serviceName);
+		tagsTimer.add("cached:" + cached);
 		statsd.recordExecutionTime(aspect, time, toArray(tagsTimer));
 	}
 
@@ -264,6 +266,35 @@ public class MetricService {
 		statsd.incrementCounter(aspect, toArray(tags));
 	}
 
+	public void eventHandlerRouted(String handler, String subject, long duration) {
+		Set<String> tagsCounter = new HashSet<>();
+		tagsCounter.add("metric:deluxe.conductor.event.handler.routed");
+		tagsCounter.add("handler:" + handler);
+		tagsCounter.add("subject:" + subject);
+		statsd.incrementCounter(aspect, toArray(tagsCounter));
+
+		Set<String> tagsTime = new HashSet<>();
+		tagsTime.add("metric:deluxe.conductor.event.handler.routed.time");
+		tagsTime.add("handler:" + handler);
+		tagsTime.add("subject:" + subject);
+		statsd.recordDistributionValue(aspect, duration, toArray(tagsTime));
+	}
+
+	public void eventInFlight(String subject, int count) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.event.inflight.gauge");
+		tags.add("subject:" + subject);
+		statsd.recordGaugeValue(aspect, count, toArray(tags));
+	}
+
+	public void eventAcked(String subject, boolean ack, long duration) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.event.ack.time");
+		tags.add("subject:" + subject);
+		tags.add("ack:" + ack);
+		statsd.recordDistributionValue(aspect, duration, toArray(tags));
+	}
+
 	public void eventTagsHit(String handler, String subject) {
 		Set<String> tags = new HashSet<>();
 		tags.add("metric:deluxe.conductor.event.tags.hit");
@@ -280,6 +311,117 @@ public class MetricService {
 		statsd.incrementCounter(aspect, toArray(tags));
 	}
 
+	public void workflowDefCacheHit(String name) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.workflow.def.cache.hit");
+		tags.add("workflow:" + name);
+		statsd.incrementCounter(aspect, toArray(tags));
+	}
+
+	public void workflowDefCacheMiss(String name) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.workflow.def.cache.miss");
+		tags.add("workflow:" + name);
+		statsd.incrementCounter(aspect, toArray(tags));
+	}
+
+	public void decideIterations(String name, int iterations) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.workflow.decide.iterations");
+		tags.add("workflow:" + name);
+		statsd.recordDistributionValue(aspect, iterations, toArray(tags));
+	}
+
+	public void decideIterationsExceeded(String name) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.workflow.decide.iterations.exceeded");
+		tags.add("workflow:" + name);
+		statsd.incrementCounter(aspect, toArray(tags));
+	}
+
+	public void sweeperGauge(long queued, long inFlight) {
+		Set<String> tagsQueued = new HashSet<>();
+		tagsQueued.add("metric:deluxe.conductor.workflow.sweeper.queued");
+		statsd.recordGaugeValue(aspect, queued, toArray(tagsQueued));
+
+		Set<String> tagsInFlight = new HashSet<>();
+		tagsInFlight.add("metric:deluxe.conductor.workflow.sweeper.in_flight");
+		statsd.recordGaugeValue(aspect, inFlight, toArray(tagsInFlight));
+	}
+
+	public void sweeperDecideTime(String name, long duration) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.workflow.sweeper.decide.time");
+		tags.add("workflow:" + name);
+		statsd.recordDistributionValue(aspect, duration, toArray(tags));
+	}
+
+	public void sweeperDeferred(String name) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.workflow.sweeper.deferred");
+		tags.add("workflow:" + name);
+		statsd.incrementCounter(aspect, toArray(tags));
+	}
+
+	public void scriptCompile(long duration) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.script.compile.time");
+		statsd.recordExecutionTime(aspect, duration, toArray(tags));
+	}
+
+	public void scriptEval(long duration, boolean cached) {
+		Set<String> tagsCounter = new HashSet<>();
+		tagsCounter.add("metric:deluxe.conductor.script.eval");
+		tagsCounter.add("cached:" + cached);
+		statsd.incrementCounter(aspect, toArray(tagsCounter));
+
+		Set<String> tagsTimer = new HashSet<>();
+		tagsTimer.add("metric:deluxe.conductor.script.eval.time");
+		tagsTimer.add("cached:" + cached);
+		statsd.recordExecutionTime(aspect, duration, toArray(tagsTimer));
+	}
+
+	public void auditFlush(int rows, long lag, long duration) {
+		Set<String> tagsRows = new HashSet<>();
+		tagsRows.add("metric:deluxe.conductor.audit.flush.rows");
+		statsd.recordDistributionValue(aspect, rows, toArray(tagsRows));
+
+		Set<String> tagsLag = new HashSet<>();
+		tagsLag.add("metric:deluxe.conductor.audit.flush.lag");
+		statsd.recordDistributionValue(aspect, lag, toArray(tagsLag));
+
+		Set<String> tagsTime = new HashSet<>();
+		tagsTime.add("metric:deluxe.conductor.audit.flush.time");
+		statsd.recordExecutionTime(aspect, duration, toArray(tagsTime));
+	}
+
+	public void auditDropped(String table) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.audit.dropped");
+		tags.add("table:" + table);
+		statsd.incrementCounter(aspect, toArray(tags));
+	}
+
+	public void statusEventPublished(String type, long lag) {
+		Set<String> tagsCounter = new HashSet<>();
+		tagsCounter.add("metric:deluxe.conductor.status.event.published");
+		tagsCounter.add("type:" + type);
+		statsd.incrementCounter(aspect, toArray(tagsCounter));
+
+		Set<String> tagsLag = new HashSet<>();
+		tagsLag.add("metric:deluxe.conductor.status.event.lag");
+		tagsLag.add("type:" + type);
+		statsd.recordExecutionTime(aspect, lag, toArray(tagsLag));
+	}
+
+	public void statusEventFailed(String type, boolean dropped) {
+		Set<String> tags = new HashSet<>();
+		tags.add("metric:deluxe.conductor.status.event.failed");
+		tags.add("type:" + type);
+		tags.add("dropped:" + dropped);
+		statsd.incrementCounter(aspect, toArray(tags));
+	}
+
 	public void workflowStart(String name) {
 		Set<String> tags = new HashSet<>();
 		tags.add("metric:deluxe.conductor.workflow.start");
@@ -408,6 +550,23 @@ public class MetricService {
 		statsd.recordGaugeValue(aspect, count, toArray(tagsGauge));
 	}
 
+	public void httpPoolGauge(String pool, long leased, long pending, long available) {
+		Set<String> tagsLeased = new HashSet<>();
+		tagsLeased.add("metric:deluxe.conductor.http.pool.leased");
+		tagsLeased.add("pool:" + pool);
+		statsd.recordGaugeValue(aspect, leased, toArray(tagsLeased));
+
+		Set<String> tagsPending = new HashSet<>();
+		tagsPending.add("metric:deluxe.conductor.http.pool.pending");
+		tagsPending.add("pool:" + pool);
+		statsd.recordGaugeValue(aspect, pending, toArray(tagsPending));
+
+		Set<String> tagsAvailable = new HashSet<>();
+		tagsAvailable.add("metric:deluxe.conductor.http.pool.available");
+		tagsAvailable.add("pool:" + pool);
+		statsd.recordGaugeValue(aspect, available, toArray(tagsAvailable));
+	}
+
 	public void httpRunningGauge(String refName, String defName, String serviceName, Long count) {
 		Set<String> tagsGauge = new HashSet<>();
 		tagsGauge.add("metric:deluxe.conductor.http.running.gauge");
@@ -23,6 +23,7 @@ import java.io.PrintWriter;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
@@ -30,6 +31,7 @@ import static org.mockito.Mockito.when;
 
 public class TestAuthManager {
 	private static Server server;
+	private static AtomicInteger issued = new AtomicInteger();
 	private Configuration config = mock(Configuration.class);
 	private Workflow workflow = mock(Workflow.class);
 	private ObjectMapper om = new ObjectMapper();
@@ -77,6 +79,21 @@ public class TestAuthManager {
 		assertEquals("bar", refreshMap.get("refresh"));
 	}
 
+	@Test
+	public void cached() throws Exception {
+		when(config.getProperty("conductor.auth.url", null)).thenReturn("http://localhost:7010/auth/expiring");
+		when(config.getProperty("conductor.auth.token.cache.enabled", "true")).thenReturn("true");
+		when(config.getIntProperty("conductor.auth.token.refresh.seconds", 60)).thenReturn(60);
+
+		AuthManager manager = new AuthManager(config);
+		int before = issued.get();
+		AuthResponse first = manager.authorize(workflow);
+		AuthResponse second = manager.authorize(workflow);
+		assertNotNull(first.getAccessToken());
+		assertEquals(first.getAccessToken(), second.getAccessToken());
+		assertEquals(before + 1, issued.get());
+	}
+
 	@Test
 	public void error() {
 		when(config.getProperty("conductor.auth.url", null)).thenReturn("http://localhost:7010/auth/error");
@@ -181,6 +198,22 @@ public class TestAuthManager {
 					auth.setRefreshToken(refreshToken);
 					String data = om.writeValueAsString(auth);
 
+					response.addHeader("Content-Type", "application/json; charset=utf-8");
+					response.addHeader("Content-Length", "" + data.length());
+					PrintWriter writer = response.getWriter();
+					writer.print(data);
+					writer.flush();
+					writer.close();
+				} else if (request.getRequestURI().equals("/auth/expiring")) {
+					String accessToken = JWT.create()
+							.withClaim("exp", new Date(System.currentTimeMillis() + 3600_000))
+							.withClaim("seq", issued.incrementAndGet())
+							.sign(Algorithm.none());
+
+					AuthResponse auth = new AuthResponse();
+					auth.setAccessToken(accessToken);
+					String data = om.writeValueAsString(auth);
+
 					response.addHeader("Content-Type", "application/json; charset=utf-8");
 					response.addHeader("Content-Length", "" + data.length());
 					PrintWriter writer = response.getWriter();
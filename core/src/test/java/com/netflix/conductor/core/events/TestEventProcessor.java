@@ -21,6 +21,7 @@ package com.netflix.conductor.core.events;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Injector;
+import com.netflix.conductor.common.metadata.events.EventExecution;
 import com.netflix.conductor.common.metadata.events.EventHandler;
 import com.netflix.conductor.common.metadata.events.EventHandler.Action;
 import com.netflix.conductor.common.metadata.events.EventHandler.Action.Type;
@@ -29,6 +30,7 @@ import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.core.events.EventQueues.QueueType;
 import com.netflix.conductor.core.events.queue.Message;
 import com.netflix.conductor.core.events.queue.ObservableQueue;
+import com.netflix.conductor.core.events.queue.OnMessageHandler;
 import com.netflix.conductor.core.execution.TestConfiguration;
 import com.netflix.conductor.core.execution.WorkflowExecutor;
 import com.netflix.conductor.service.ExecutionService;
@@ -40,12 +42,20 @@ import org.mockito.stubbing.Answer;
 import rx.Observable;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -292,4 +302,137 @@ public class TestEventProcessor {
 		Uninterruptibles.sleepUninterruptibly(1, TimeUnit.SECONDS);
 		assertTrue(started.get());
 	}
+
+	@Test
+	public void testMessagesProcessedOneAtATime() throws Exception {
+		String queueURI = "arn:account090:sqs_inflight";
+		EventHandler eh = handler("sqs:" + queueURI);
+		eh.setPrefetchSize(10);
+
+		ObservableQueue queue = mockQueue(queueURI, 10);
+		OnMessageHandler[] onMessage = registerQueue(QueueType.sqs, queueURI, queue);
+
+		ExecutionService es = mock(ExecutionService.class);
+		when(es.addEventExecution(any())).thenReturn(true);
+
+		// The first action waits, so the first message stays in flight
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> executed = new CopyOnWriteArrayList<>();
+		ActionProcessor ap = mock(ActionProcessor.class);
+		when(ap.execute(any(), any(), any())).thenAnswer(invocation -> {
+			EventExecution ee = (EventExecution) invocation.getArguments()[2];
+			executed.add(ee.getMessageId());
+			if (executed.size() == 1) {
+				release.await(5, TimeUnit.SECONDS);
+			}
+			return new HashMap<>();
+		});
+
+		EventProcessor ep = new EventProcessor(es, metadata(eh), ap, new DefaultConfiguration(), new ObjectMapper());
+		try {
+			onMessage[0].apply(queue, new Message("m1", "{}", "r1"));
+
+			// The delivering thread is held back while the first message is in flight
+			Thread second = new Thread(() -> onMessage[0].apply(queue, new Message("m2", "{}", "r2")));
+			second.start();
+			second.join(500);
+			assertTrue(second.isAlive());
+			assertEquals(Collections.singletonList("m1"), executed);
+			verify(queue, never()).ack(any());
+
+			// Acked on the action completion, which lets the second message in
+			release.countDown();
+			second.join(5000);
+			assertFalse(second.isAlive());
+			verify(queue, timeout(5000).times(2)).ack(any());
+			assertEquals(Arrays.asList("m1", "m2"), executed);
+		} finally {
+			ep.shutdown();
+		}
+	}
+
+	@Test
+	public void testUnackReleasesInFlight() throws Exception {
+		String queueURI = "arn:account090:sqs_unack";
+		EventHandler eh = handler("sqs:" + queueURI);
+		eh.setRetryEnabled(true);
+		eh.setTags(".id");
+
+		ObservableQueue queue = mockQueue(queueURI, 1);
+		OnMessageHandler[] onMessage = registerQueue(QueueType.sqs, queueURI, queue);
+
+		ExecutionService es = mock(ExecutionService.class);
+		when(es.addEventExecution(any())).thenReturn(true);
+		when(es.anyRunningWorkflowsByTags(any())).thenReturn(true);
+
+		// The first action fails, the second one succeeds
+		ActionProcessor ap = mock(ActionProcessor.class);
+		when(ap.execute(any(), any(), any()))
+			.thenReturn(Collections.singletonMap("conductor.event.success", false))
+			.thenReturn(Collections.singletonMap("conductor.event.success", true));
+
+		EventProcessor ep = new EventProcessor(es, metadata(eh), ap, new DefaultConfiguration(), new ObjectMapper());
+		try {
+			Message first = new Message("m1", "{\"id\":\"job1\"}", "r1");
+			onMessage[0].apply(queue, first);
+			verify(queue, timeout(5000)).unack(Collections.singletonList(first));
+
+			// The permit is back, otherwise the delivery would block
+			Message second = new Message("m2", "{\"id\":\"job1\"}", "r2");
+			Thread delivery = new Thread(() -> onMessage[0].apply(queue, second));
+			delivery.start();
+			delivery.join(5000);
+			assertFalse(delivery.isAlive());
+			verify(queue, timeout(5000)).ack(Collections.singletonList(second));
+			verify(queue, never()).ack(Collections.singletonList(first));
+		} finally {
+			ep.shutdown();
+		}
+	}
+
+	private EventHandler handler(String event) {
+		EventHandler eh = new EventHandler();
+		eh.setName(UUID.randomUUID().toString());
+		eh.setActive(true);
+		eh.setEvent(event);
+		Action action = new Action();
+		action.setAction(Type.start_workflow);
+		action.setStart_workflow(new StartWorkflow());
+		action.getStart_workflow().setName("workflow_x");
+		eh.getActions().add(action);
+		return eh;
+	}
+
+	private MetadataService metadata(EventHandler eh) {
+		MetadataService ms = mock(MetadataService.class);
+		when(ms.getEventHandlers()).thenReturn(Collections.singletonList(eh));
+		return ms;
+	}
+
+	private ObservableQueue mockQueue(String queueURI, int prefetchSize) {
+		ObservableQueue queue = mock(ObservableQueue.class);
+		when(queue.getURI()).thenReturn(queueURI);
+		when(queue.getName()).thenReturn(queueURI);
+		when(queue.getType()).thenReturn("sqs");
+		when(queue.getPrefetchSize()).thenReturn(prefetchSize);
+		return queue;
+	}
+
+	private OnMessageHandler[] registerQueue(QueueType type, String queueURI, ObservableQueue queue) {
+		OnMessageHandler[] onMessage = new OnMessageHandler[1];
+		EventQueueProvider provider = mock(EventQueueProvider.class);
+		when(provider.getQueue(eq(queueURI), anyBoolean(), anyInt(), any())).thenAnswer(invocation -> {
+			onMessage[0] = (OnMessageHandler) invocation.getArguments()[3];
+			return queue;
+		});
+		EventQueues.registerProvider(type, provider);
+		return onMessage;
+	}
+
+	private static class DefaultConfiguration extends TestConfiguration {
+		@Override
+		public int getIntProperty(String name, int def) {
+			return def;
+		}
+	}
 }
@@ -20,11 +20,22 @@ package com.netflix.conductor.core.events;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.script.CompiledScript;
 
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
+import net.thisptr.jackson.jq.JsonQuery;
+
 /**
  * @author Viren
  *
@@ -60,4 +71,53 @@ public class TestScriptEval {
 		assertTrue(ScriptEvaluator.evalBool("$.defaults.workflowStatus != undefined && $.defaults.workflowStatus == 'TERMINATED'", payload));
 
 	}
+
+	@Test
+	public void testConcurrentEval() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				int value = i;
+				results.add(executor.submit(() -> {
+					Map<String, Object> payload = new HashMap<>();
+					payload.put("value", value);
+					Object result = ScriptEvaluator.eval("$.value * 2", payload);
+					return ((Number) result).intValue() == value * 2;
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCompiled() throws Exception {
+		Map<String, Object> app = new HashMap<>();
+		app.put("name", "conductor");
+		Map<String, Object> payload = new HashMap<>();
+		payload.put("app", app);
+
+		CompiledScript script = ScriptEvaluator.compileScript("$.app.name == 'conductor'");
+		assertSame(script, ScriptEvaluator.compileScript("$.app.name == 'conductor'"));
+		assertTrue(ScriptEvaluator.evalBool(script, payload));
+		app.put("name", "other");
+		assertFalse(ScriptEvaluator.evalBool(script, payload));
+
+		JsonQuery query = ScriptEvaluator.compileJq(".app.name");
+		List<JsonNode> nodes = ScriptEvaluator.evalJqAsNodes(query, ScriptEvaluator.toJsonNode(payload));
+		assertEquals(1, nodes.size());
+		assertEquals("other", nodes.get(0).asText());
+	}
+
+	@Test
+	public void testGlobalsNotShared() throws Exception {
+		Map<String, Object> payload = new HashMap<>();
+		assertEquals(1, ((Number) ScriptEvaluator.eval("var leaked = 1; leaked", payload)).intValue());
+		ScriptEvaluator.eval("implicit = 2", payload);
+		assertFalse(ScriptEvaluator.evalBool("typeof leaked != 'undefined' || typeof implicit != 'undefined'", payload));
+	}
 }
@@ -29,6 +29,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -346,6 +347,61 @@ public class TestDeciderOutcomes {
 		outcome.tasksToBeUpdated.stream().map(task -> task.getStatus() + ":" + task.getTaskType() + ":").forEach(System.out::println);
 	}
 	
+	@Test
+	public void testDynamicForkSharedInput() throws Exception {
+		WorkflowDef def = new WorkflowDef();
+		def.setName("test");
+
+		WorkflowTask task1 = new WorkflowTask();
+		task1.setName("fork0");
+		task1.setWorkflowTaskType(Type.FORK_JOIN_DYNAMIC);
+		task1.setTaskReferenceName("fork0");
+		task1.setDynamicForkTasksInputParamName("forkedInputs");
+		task1.setDynamicForkTasksParam("forks");
+		task1.getInputParameters().put("forks", "${workflow.input.forks}");
+		task1.getInputParameters().put("forkedInputs", "${workflow.input.forkedInputs}");
+
+		WorkflowTask task2 = new WorkflowTask();
+		task2.setName("join0");
+		task2.setType("JOIN");
+		task2.setTaskReferenceName("join0");
+
+		def.getTasks().add(task1);
+		def.getTasks().add(task2);
+		def.setSchemaVersion(2);
+
+		Workflow workflow = new Workflow();
+		List<WorkflowTask> forks = new LinkedList<>();
+		Map<String, Map<String, Object>> forkedInputs = new HashMap<>();
+		for (int i = 0; i < 3; i++) {
+			WorkflowTask wft = new WorkflowTask();
+			wft.setName("f");
+			wft.setTaskReferenceName("f" + i);
+			wft.setWorkflowTaskType(Type.SIMPLE);
+			wft.getInputParameters().put("id", "${CPEWF_TASK_ID}");
+			wft.getInputParameters().put("value", "${workflow.input.value}");
+			forks.add(wft);
+
+			forkedInputs.put(wft.getTaskReferenceName(), Collections.singletonMap("index", i));
+		}
+		workflow.getInput().put("forks", forks);
+		workflow.getInput().put("forkedInputs", forkedInputs);
+		workflow.getInput().put("value", "v");
+		workflow.setStartTime(System.currentTimeMillis());
+
+		DeciderOutcome outcome = ds.decide(workflow, def);
+		assertEquals(5, outcome.tasksToBeScheduled.size());
+		for (int i = 1; i < 4; i++) {
+			Task task = outcome.tasksToBeScheduled.get(i);
+			assertEquals("f" + (i - 1), task.getReferenceTaskName());
+			assertEquals(Task.Status.SCHEDULED, task.getStatus());
+			assertEquals(task.getTaskId(), task.getInputData().get("id"));
+			assertEquals("v", task.getInputData().get("value"));
+			assertEquals(i - 1, task.getInputData().get("index"));
+		}
+		assertEquals(Arrays.asList("f0", "f1", "f2"), outcome.tasksToBeScheduled.get(4).getInputData().get("joinOn"));
+	}
+
 	@Test
 	public void testDecisionCases() {
 		WorkflowDef def = new WorkflowDef();
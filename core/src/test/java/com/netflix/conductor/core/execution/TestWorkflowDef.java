@@ -20,6 +20,7 @@ package com.netflix.conductor.core.execution;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -88,6 +89,45 @@ public class TestWorkflowDef {
 		assertEquals("case_31_task_2", next.getTaskReferenceName());
 	}
 	
+	@Test
+	public void testCompiled(){
+		WorkflowDef def = new WorkflowDef();
+		def.setName("Test Workflow");
+		def.getTasks().add(create("simple_task_1"));
+
+		WorkflowTask fork = create("fork_task");
+		fork.setType(Type.FORK_JOIN.name());
+		fork.getForkTasks().add(Arrays.asList(create("fork_1_task_1"), create("fork_1_task_2")));
+		fork.getForkTasks().add(Arrays.asList(deciderTask("decision_task_1", toMap("Case1", "case_1_task_1", "case_1_task_2"), Arrays.asList("def_task"))));
+		def.getTasks().add(fork);
+		WorkflowTask join = create("join_task");
+		join.setType(Type.JOIN.name());
+		def.getTasks().add(join);
+		def.getTasks().add(create("simple_task_2"));
+
+		List<String> refNames = new LinkedList<>();
+		def.all().forEach(task -> refNames.add(task.getTaskReferenceName()));
+		refNames.add("unknown_task");
+
+		Map<String, WorkflowTask> walked = new HashMap<>();
+		refNames.forEach(refName -> walked.put(refName, def.getNextTask(refName)));
+
+		def.compile();
+		assertNotNull(def.graph());
+		for (String refName : refNames) {
+			assertEquals(refName, walked.get(refName), def.getNextTask(refName));
+		}
+		assertEquals("case_1_task_1", def.getTaskByRefName("case_1_task_1").getTaskReferenceName());
+		assertNull(def.getTaskByRefName("unknown_task"));
+		assertEquals(join, def.graph().getJoin("fork_task"));
+		assertEquals(fork, def.graph().getParent("fork_1_task_2"));
+		assertEquals("decision_task_1", def.graph().getParent("def_task").getTaskReferenceName());
+		assertNull(def.graph().getParent("simple_task_2"));
+
+		def.setTasks(new LinkedList<>());
+		assertNull(def.graph());
+	}
+
 	private WorkflowTask create(String name){
 		WorkflowTask task = new WorkflowTask();
 		task.setName(name);
@@ -24,14 +24,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.conductor.auth.AuthManager;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.Task.Status;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
 import com.netflix.conductor.common.metadata.workflow.WorkflowTask.Type;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.execution.appconfig.cache.AppConfig;
+import com.netflix.conductor.core.execution.appconfig.cache.PriorityConfig;
 import com.netflix.conductor.core.execution.tasks.Wait;
 import com.netflix.conductor.core.execution.tasks.WorkflowSystemTask;
 import com.netflix.conductor.core.utils.IDGenerator;
+import com.netflix.conductor.core.utils.LocalLockProvider;
+import com.netflix.conductor.core.utils.LockException;
+import com.netflix.conductor.core.utils.LockProvider;
 import com.netflix.conductor.dao.ErrorLookupDAO;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.MetadataDAO;
@@ -42,12 +48,17 @@ import org.mockito.stubbing.Answer;
 
 import javax.ws.rs.core.HttpHeaders;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -66,6 +77,9 @@ public class TestWorkflowExecutor {
 	ObjectMapper om = new ObjectMapper();
 	AuthManager auth = mock(AuthManager.class);
 	PropertiesLoader propertiesLoader = mock(PropertiesLoader.class);
+	AppConfig appConfig = mock(AppConfig.class);
+	PriorityConfig priorityConfig = mock(PriorityConfig.class);
+	LockProvider lockProvider = new LocalLockProvider(config);
 
 	@Test
 	public void test() throws Exception {
@@ -104,7 +118,7 @@ public class TestWorkflowExecutor {
 		workflow.setWorkflowId("1");
 		
 		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO, om, auth, config,
-				taskListener, workflowListener, propertiesLoader);
+				taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
 		List<Task> tasks = new LinkedList<>();
 		
 		WorkflowTask taskToSchedule = new WorkflowTask();
@@ -175,7 +189,7 @@ public class TestWorkflowExecutor {
 		input.put("constant", "value");
 
 		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO, om, auth, config,
-			taskListener, workflowListener, propertiesLoader);
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
 		executor.startWorkflow("validationSuccess", 1, null, input);
 	}
 
@@ -194,7 +208,7 @@ public class TestWorkflowExecutor {
 		when(metadata.get("validationFailure1", 1)).thenReturn(def);
 
 		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO, om, auth, config,
-			taskListener, workflowListener, propertiesLoader);
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
 		try {
 			executor.startWorkflow("validationFailure1", 1, null, new HashMap<>());
 		} catch (ApplicationException ex) {
@@ -218,7 +232,7 @@ public class TestWorkflowExecutor {
 		when(metadata.get("validationFailure2", 1)).thenReturn(def);
 
 		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO,  om, auth, config,
-			taskListener, workflowListener, propertiesLoader);
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
 		try {
 			executor.startWorkflow("validationFailure2", 1, null, new HashMap<>());
 		} catch (ApplicationException ex) {
@@ -255,7 +269,7 @@ public class TestWorkflowExecutor {
 		AuthManager manager = new AuthManager(cfg);
 
 		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO, om, manager, cfg,
-			taskListener, workflowListener, propertiesLoader);
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
 		executor.validateAuth(def, headers);
 	}
 
@@ -285,7 +299,7 @@ public class TestWorkflowExecutor {
 		AuthManager manager = new AuthManager(cfg);
 
 		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO,  om, manager, cfg,
-			taskListener, workflowListener, propertiesLoader);
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
 		executor.validateAuth(def, headers);
 	}
 
@@ -305,7 +319,7 @@ public class TestWorkflowExecutor {
 		when(cfg.getProperty("workflow.auth.validate", "false")).thenReturn("true");
 
 		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO,  om, auth, cfg,
-			taskListener, workflowListener, propertiesLoader);
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
 		try {
 			executor.validateAuth(def, headers);
 			fail("Should not be here");
@@ -331,7 +345,7 @@ public class TestWorkflowExecutor {
 		when(cfg.getProperty("workflow.auth.validate", "false")).thenReturn("true");
 
 		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao,  queue,errorLookupDAO,  om, auth, cfg,
-			taskListener, workflowListener, propertiesLoader);
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
 		try {
 			executor.validateAuth(def, headers);
 			fail("Should not be here");
@@ -358,7 +372,7 @@ public class TestWorkflowExecutor {
 		when(cfg.getProperty("workflow.auth.validate", "false")).thenReturn("true");
 
 		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO, om, auth, cfg,
-			taskListener, workflowListener, propertiesLoader);
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
 		try {
 			executor.validateAuth(def, headers);
 			fail("Should not be here");
@@ -366,4 +380,181 @@ public class TestWorkflowExecutor {
 			assertEquals("Invalid " + HttpHeaders.AUTHORIZATION + " header format", ex.getMessage());
 		}
 	}
+
+	@Test
+	public void decideContendedLocally() throws Exception {
+		// The first load waits, so the decide holds the lock
+		CountDownLatch loaded = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+		ExecutionDAO edao = unitOfWorkDAO();
+		when(edao.getWorkflow("wf", true)).thenAnswer(invocation -> {
+			if (loads.incrementAndGet() == 1) {
+				loaded.countDown();
+				release.await(5, TimeUnit.SECONDS);
+			}
+			return null;
+		});
+
+		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO, om, auth, new LockConfiguration(),
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
+		Thread holder = new Thread(() -> {
+			try {
+				executor.decide("wf");
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		holder.start();
+		assertTrue(loaded.await(5, TimeUnit.SECONDS));
+
+		// Gives up on the lock and asks for another decide
+		assertFalse(executor.decide("wf").getLeft());
+		verify(queue).wakeup(eq(WorkflowExecutor.deciderQueue), eq("wf"), anyInt());
+
+		// The holder decides once more, as it loaded the workflow before the change
+		release.countDown();
+		holder.join(5000);
+		assertFalse(holder.isAlive());
+		assertEquals(2, loads.get());
+
+		// Nothing left for the next decide
+		executor.decide("wf");
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	public void decideContendedElsewhere() throws Exception {
+		ExecutionDAO edao = unitOfWorkDAO();
+		LockProvider lockProvider = mock(LockProvider.class);
+		when(lockProvider.lock(eq("wf"), anyLong(), any())).thenThrow(new LockException("locked"));
+
+		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO, om, auth, new LockConfiguration(),
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
+		assertFalse(executor.decide("wf").getLeft());
+		verify(queue).wakeup(eq(WorkflowExecutor.deciderQueue), eq("wf"), anyInt());
+
+		// The holder is on another node, so nothing is recorded for a decide here
+		reset(lockProvider);
+		when(lockProvider.lock(eq("wf"), anyLong(), any())).thenReturn(() -> {});
+		executor.decide("wf");
+		verify(edao, times(1)).getWorkflow("wf", true);
+	}
+
+	@Test
+	public void updateTaskStoresStatusEventTogether() throws Exception {
+		Journal journal = new Journal();
+		ExecutionDAO edao = updateTaskDAO(journal);
+		doAnswer(invocation -> journal.write("event:" + ((Task) invocation.getArguments()[0]).getTaskId()))
+			.when(taskListener).onTaskFinished(any());
+
+		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO, om, auth, new OutboxConfiguration(),
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
+		executor.updateTask(completed());
+
+		assertEquals(Arrays.asList("task:t1", "event:t1"), journal.committed);
+	}
+
+	@Test
+	public void updateTaskRollsBackWithStatusEvent() throws Exception {
+		Journal journal = new Journal();
+		ExecutionDAO edao = updateTaskDAO(journal);
+		doThrow(new RuntimeException("status event insert failed")).when(taskListener).onTaskFinished(any());
+
+		WorkflowExecutor executor = new WorkflowExecutor(metadata, edao, queue, errorLookupDAO, om, auth, new OutboxConfiguration(),
+			taskListener, workflowListener, propertiesLoader, appConfig, priorityConfig, lockProvider);
+		try {
+			executor.updateTask(completed());
+			fail("Expected an exception");
+		} catch (RuntimeException e) {
+			assertEquals("status event insert failed", e.getMessage());
+		}
+
+		// The task update went away with the event
+		verify(edao).updateTask(any());
+		assertTrue(journal.committed.isEmpty());
+		verify(queue, never()).wakeup(any(), any(), anyInt());
+	}
+
+	// Stores the task t1 of the running workflow wf, the writes made within a unit of work are kept only if it commits
+	private ExecutionDAO updateTaskDAO(Journal journal) throws Exception {
+		ExecutionDAO edao = mock(ExecutionDAO.class);
+		when(edao.unitOfWork(any())).thenAnswer(invocation -> journal.unit((Callable<?>) invocation.getArguments()[0]));
+		doAnswer(invocation -> journal.write("task:" + ((Task) invocation.getArguments()[0]).getTaskId()))
+			.when(edao).updateTask(any());
+
+		Workflow workflow = new Workflow();
+		workflow.setWorkflowId("wf");
+		workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+		when(edao.getWorkflow("wf", false)).thenReturn(workflow);
+
+		Task task = new Task();
+		task.setTaskId("t1");
+		task.setTaskType("TEST");
+		task.setWorkflowInstanceId("wf");
+		task.setStatus(Status.IN_PROGRESS);
+		when(edao.getTask("t1")).thenReturn(task);
+		return edao;
+	}
+
+	private static TaskResult completed() {
+		TaskResult result = new TaskResult();
+		result.setWorkflowInstanceId("wf");
+		result.setTaskId("t1");
+		result.setStatus(TaskResult.Status.COMPLETED);
+		return result;
+	}
+
+	private ExecutionDAO unitOfWorkDAO() throws Exception {
+		ExecutionDAO edao = mock(ExecutionDAO.class);
+		when(edao.unitOfWork(any())).thenAnswer(invocation -> ((Callable<?>) invocation.getArguments()[0]).call());
+		return edao;
+	}
+
+	private static class Journal {
+		final List<String> committed = new ArrayList<>();
+		private List<String> pending;
+
+		Object write(String entry) {
+			if (pending == null) {
+				committed.add(entry);
+			} else {
+				pending.add(entry);
+			}
+			return null;
+		}
+
+		Object unit(Callable<?> work) throws Exception {
+			pending = new ArrayList<>();
+			try {
+				Object result = work.call();
+				committed.addAll(pending);
+				return result;
+			} finally {
+				pending = null;
+			}
+		}
+	}
+
+	private static class OutboxConfiguration extends TestConfiguration {
+		@Override
+		public String getProperty(String name, String def) {
+			if ("workflow.status.events.outbox.enabled".equals(name) || "workflow.lazy.decider".equals(name)) {
+				return "true";
+			}
+			return def;
+		}
+
+		@Override
+		public int getIntProperty(String name, int def) {
+			return def;
+		}
+	}
+
+	private static class LockConfiguration extends TestConfiguration {
+		@Override
+		public int getIntProperty(String name, int def) {
+			return "workflow.decider.lock.timeout.ms".equals(name) ? 100 : def;
+		}
+	}
 }
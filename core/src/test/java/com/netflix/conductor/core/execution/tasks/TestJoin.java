@@ -0,0 +1,97 @@
+package com.netflix.conductor.core.execution.tasks;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.Task.Status;
+import com.netflix.conductor.common.run.Workflow;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestJoin {
+
+	@Test
+	public void testCompleted() throws Exception {
+		Workflow workflow = new Workflow();
+		Task t1 = forked(workflow, "t1", Status.COMPLETED);
+		Task t2 = forked(workflow, "t2", Status.IN_PROGRESS);
+		Task t3 = forked(workflow, "t3", Status.IN_PROGRESS);
+		Task join = join(workflow, "t1", "t2", "t3");
+
+		Join task = new Join();
+		assertFalse(task.execute(workflow, join, null));
+		assertTrue(join.getOutputData().isEmpty());
+
+		t3.setStatus(Status.COMPLETED);
+		assertFalse(task.execute(workflow, join, null));
+
+		t2.setStatus(Status.COMPLETED);
+		assertTrue(task.execute(workflow, join, null));
+		assertEquals(Status.COMPLETED, join.getStatus());
+		assertEquals(3, join.getOutputData().size());
+		assertEquals(t1.getOutputData(), join.getOutputData().get("t1"));
+		assertEquals(t3.getOutputData(), join.getOutputData().get("t3"));
+	}
+
+	@Test
+	public void testFailed() throws Exception {
+		Workflow workflow = new Workflow();
+		forked(workflow, "t1", Status.COMPLETED);
+		Task t2 = forked(workflow, "t2", Status.IN_PROGRESS);
+		forked(workflow, "t3", Status.IN_PROGRESS);
+		Task join = join(workflow, "t1", "t2", "t3");
+
+		Join task = new Join();
+		assertFalse(task.execute(workflow, join, null));
+
+		t2.setStatus(Status.FAILED);
+		t2.setReasonForIncompletion("boom");
+		assertTrue(task.execute(workflow, join, null));
+		assertEquals(Status.FAILED, join.getStatus());
+		assertEquals("boom ", join.getReasonForIncompletion());
+		assertEquals(2, join.getOutputData().size());
+	}
+
+	@Test
+	public void testUpdatedJoin() throws Exception {
+		Workflow workflow = new Workflow();
+		Task t1 = forked(workflow, "t1", Status.COMPLETED);
+		forked(workflow, "t2", Status.IN_PROGRESS);
+		Task join = join(workflow, "t1", "t2");
+
+		Join task = new Join();
+		assertFalse(task.execute(workflow, join, null));
+
+		// The join has been changed since, e.g. by retry, so the completed branches are checked again
+		t1.setStatus(Status.IN_PROGRESS);
+		join.setUpdateTime(join.getUpdateTime() + 1);
+		workflow.getTaskByRefName("t2").setStatus(Status.COMPLETED);
+		assertFalse(task.execute(workflow, join, null));
+	}
+
+	private Task forked(Workflow workflow, String refName, Status status) {
+		Task task = new Task();
+		task.setTaskId(UUID.randomUUID().toString());
+		task.setReferenceTaskName(refName);
+		task.setStatus(status);
+		task.setOutputData(Collections.singletonMap("ref", refName));
+		workflow.getTasks().add(task);
+		return task;
+	}
+
+	private Task join(Workflow workflow, String... joinOn) {
+		Task task = new Task();
+		task.setTaskId(UUID.randomUUID().toString());
+		task.setReferenceTaskName("join");
+		task.setTaskType("JOIN");
+		task.setStatus(Status.IN_PROGRESS);
+		task.getInputData().put("joinOn", Arrays.asList(joinOn));
+		workflow.getTasks().add(task);
+		return task;
+	}
+}
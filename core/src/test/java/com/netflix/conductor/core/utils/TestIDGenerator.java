@@ -0,0 +1,49 @@
+package com.netflix.conductor.core.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestIDGenerator {
+
+	@After
+	public void reset() {
+		IDGenerator.setTimeOrdered(false);
+	}
+
+	@Test
+	public void testRandom() {
+		UUID uuid = UUID.fromString(IDGenerator.generate());
+		assertEquals(4, uuid.version());
+	}
+
+	@Test
+	public void testTimeOrdered() {
+		IDGenerator.setTimeOrdered(true);
+		long start = System.currentTimeMillis();
+
+		String previous = IDGenerator.generate();
+		Set<String> ids = new HashSet<>();
+		ids.add(previous);
+		for (int i = 0; i < 100_000; i++) {
+			String id = IDGenerator.generate();
+			// The string form sorts the same way as the generation order
+			assertTrue(previous + " < " + id, previous.compareTo(id) < 0);
+			ids.add(id);
+			previous = id;
+		}
+		assertEquals(100_001, ids.size());
+
+		UUID uuid = UUID.fromString(previous);
+		assertEquals(7, uuid.version());
+		assertEquals(2, uuid.variant());
+		assertEquals(previous, uuid.toString());
+		assertTrue(uuid.getMostSignificantBits() >>> 16 >= start);
+	}
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2017 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.service;
+
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.BulkWorkflowSummary;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.execution.TestConfiguration;
+import com.netflix.conductor.core.execution.WorkflowExecutor;
+import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.MetadataDAO;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TestBulkWorkflowService {
+
+	private WorkflowExecutor executor = mock(WorkflowExecutor.class);
+
+	private ExecutionDAO edao = mock(ExecutionDAO.class);
+
+	private MetadataDAO metadata = mock(MetadataDAO.class);
+
+	private BulkWorkflowService bulk;
+
+	@After
+	public void shutdown() {
+		if (bulk != null) {
+			bulk.shutdown();
+		}
+	}
+
+	@Test
+	public void testTerminate() throws Exception {
+		doThrow(new ApplicationException(Code.CONFLICT, "Workflow is already completed")).when(executor).terminateWorkflow(eq("w2"), anyString());
+		doThrow(new RuntimeException()).when(executor).terminateWorkflow(eq("w3"), anyString());
+		bulk = new BulkWorkflowService(executor, edao, metadata, new TestConfiguration());
+
+		BulkWorkflowSummary summary = bulk.terminate(Arrays.asList("w1", "w2", "w3"), "reason", null, "user");
+		assertNotNull(summary.getJobId());
+		assertEquals("terminate", summary.getOperation());
+		assertEquals(3, summary.getTotal());
+
+		summary = await(summary.getJobId());
+		assertEquals(Collections.singletonList("w1"), summary.getCompleted());
+		assertTrue(summary.getSkipped().isEmpty());
+		assertEquals("Workflow is already completed", summary.getFailed().get("w2"));
+		assertEquals(RuntimeException.class.getName(), summary.getFailed().get("w3"));
+		assertTrue(summary.getEndTime() >= summary.getStartTime());
+		verify(executor, times(3)).terminateWorkflow(anyString(), eq("reason"));
+		verify(edao, never()).getWorkflow(anyString(), anyBoolean());
+	}
+
+	@Test
+	public void testCancelByJobId() throws Exception {
+		Workflow workflow = new Workflow();
+		workflow.setWorkflowId("w1");
+		when(edao.searchMainWorkflowByJobId("j1", "type", "RUNNING")).thenReturn(Collections.singletonList(workflow));
+		when(edao.searchMainWorkflowByJobId("j2", "type", "RUNNING")).thenReturn(Collections.emptyList());
+		bulk = new BulkWorkflowService(executor, edao, metadata, new TestConfiguration());
+
+		BulkWorkflowSummary summary = bulk.cancelByJobId(Arrays.asList("j1", "j2"), "type", "reason", null, "user");
+		summary = await(summary.getJobId());
+		assertEquals(Collections.singletonList("j1"), summary.getCompleted());
+		assertEquals(Collections.singletonList("j2"), summary.getSkipped());
+		assertTrue(summary.getFailed().isEmpty());
+		verify(executor).cancelWorkflow("w1", "reason");
+	}
+
+	@Test
+	public void testAuthorizedOncePerDefinition() throws Exception {
+		Map<String, Object> decoded = new HashMap<>();
+		for (String workflowId : Arrays.asList("w1", "w2", "w3")) {
+			Workflow workflow = new Workflow();
+			workflow.setWorkflowId(workflowId);
+			workflow.setWorkflowType("type");
+			workflow.setVersion(1);
+			when(edao.getWorkflow(workflowId, false)).thenReturn(workflow);
+		}
+		WorkflowDef def = new WorkflowDef();
+		when(metadata.get("type", 1)).thenReturn(def);
+		doThrow(new ApplicationException(Code.UNAUTHORIZED, "Not allowed")).when(executor).validateAuth(def, decoded);
+		bulk = new BulkWorkflowService(executor, edao, metadata, new TestConfiguration());
+
+		BulkWorkflowSummary summary = bulk.cancel(Arrays.asList("w1", "w2", "w3", "w4"), "reason", decoded, "user");
+		summary = await(summary.getJobId());
+		assertTrue(summary.getCompleted().isEmpty());
+		assertEquals(4, summary.getFailed().size());
+		assertEquals("Not allowed", summary.getFailed().get("w1"));
+		assertEquals("No such workflow found for workflowId=w4", summary.getFailed().get("w4"));
+		verify(metadata, times(1)).get("type", 1);
+		verify(executor, times(1)).validateAuth(def, decoded);
+		verify(executor, never()).cancelWorkflow(anyString(), anyString());
+	}
+
+	@Test
+	public void testRunningJobNotExpired() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			release.await();
+			return null;
+		}).when(executor).rerun(any());
+		// Nothing is retained once finished, yet the running job must still be reported
+		bulk = new BulkWorkflowService(executor, edao, metadata, new RetentionConfiguration(0));
+
+		String jobId = bulk.rerun(Collections.singletonList("w1"), null, "user").getJobId();
+		Thread.sleep(100);
+		BulkWorkflowSummary summary = bulk.getJob(jobId);
+		assertNotNull(summary);
+		assertEquals(BulkWorkflowSummary.Status.RUNNING, summary.getStatus());
+		assertTrue(summary.getCompleted().isEmpty());
+
+		release.countDown();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (bulk.getJob(jobId) != null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertNull(bulk.getJob(jobId));
+	}
+
+	@Test
+	public void testNoIds() {
+		bulk = new BulkWorkflowService(executor, edao, metadata, new TestConfiguration());
+		try {
+			bulk.terminate(Collections.emptyList(), "reason", null, "user");
+			fail("Expected an exception");
+		} catch (ApplicationException e) {
+			assertEquals(Code.INVALID_INPUT, e.getCode());
+		}
+		assertNull(bulk.getJob("unknown"));
+	}
+
+	private BulkWorkflowSummary await(String jobId) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+		BulkWorkflowSummary summary = bulk.getJob(jobId);
+		while (summary.getStatus() != BulkWorkflowSummary.Status.COMPLETED && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			summary = bulk.getJob(jobId);
+		}
+		assertEquals(BulkWorkflowSummary.Status.COMPLETED, summary.getStatus());
+		return summary;
+	}
+
+	private static class RetentionConfiguration extends TestConfiguration {
+		private final int retention;
+
+		RetentionConfiguration(int retention) {
+			this.retention = retention;
+		}
+
+		@Override
+		public int getIntProperty(String name, int def) {
+			return "workflow.bulk.job.retention.minutes".equals(name) ? retention : def;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2017 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.service;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.core.execution.TaskStatusListener;
+import com.netflix.conductor.core.execution.TestConfiguration;
+import com.netflix.conductor.core.execution.WorkflowExecutor;
+import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.IndexDAO;
+import com.netflix.conductor.dao.MetadataDAO;
+import com.netflix.conductor.dao.QueueDAO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.*;
+
+public class TestExecutionService {
+
+	private ExecutionDAO edao = mock(ExecutionDAO.class);
+
+	private QueueDAO queue = mock(QueueDAO.class);
+
+	private TaskStatusListener taskListener = mock(TaskStatusListener.class);
+
+	// Writes made within a unit of work are kept only if it commits
+	private List<String> committed = new ArrayList<>();
+
+	private List<String> pending;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void init() throws Exception {
+		when(edao.unitOfWork(any())).thenAnswer(invocation -> {
+			pending = new ArrayList<>();
+			try {
+				Object result = ((Callable<?>) invocation.getArguments()[0]).call();
+				committed.addAll(pending);
+				return result;
+			} finally {
+				pending = null;
+			}
+		});
+		doAnswer(invocation -> {
+			((List<Task>) invocation.getArguments()[0]).forEach(task -> write("task:" + task.getTaskId()));
+			return null;
+		}).when(edao).updateTasks(anyListOf(Task.class));
+
+		Task task = new Task();
+		task.setTaskId("t1");
+		task.setTaskType("TEST");
+		task.setStatus(Task.Status.SCHEDULED);
+		when(queue.pop("TEST", 1, 100)).thenReturn(Collections.singletonList("t1"));
+		when(edao.getTasks(Collections.singletonList("t1"))).thenReturn(Collections.singletonList(task));
+	}
+
+	@Test
+	public void testPollStoresStatusEventTogether() throws Exception {
+		doAnswer(invocation -> write("event:" + ((Task) invocation.getArguments()[0]).getTaskId()))
+			.when(taskListener).onTaskStarted(any());
+
+		Task task = service().poll("TEST", "worker");
+		assertEquals("t1", task.getTaskId());
+		assertEquals(Task.Status.IN_PROGRESS, task.getStatus());
+		assertEquals(Arrays.asList("task:t1", "event:t1"), committed);
+	}
+
+	@Test
+	public void testPollRollsBackWithStatusEvent() throws Exception {
+		doThrow(new RuntimeException("status event insert failed")).when(taskListener).onTaskStarted(any());
+
+		try {
+			service().poll("TEST", "worker");
+			fail("Expected an exception");
+		} catch (RuntimeException e) {
+			assertEquals("status event insert failed", e.getMessage());
+		}
+
+		// The task update went away with the event
+		verify(edao).updateTasks(anyListOf(Task.class));
+		assertTrue(committed.isEmpty());
+	}
+
+	private ExecutionService service() {
+		return new ExecutionService(mock(WorkflowExecutor.class), edao, queue, mock(MetadataDAO.class),
+			mock(IndexDAO.class), new OutboxConfiguration(), taskListener);
+	}
+
+	private Object write(String entry) {
+		if (pending == null) {
+			committed.add(entry);
+		} else {
+			pending.add(entry);
+		}
+		return null;
+	}
+
+	private static class OutboxConfiguration extends TestConfiguration {
+		@Override
+		public String getProperty(String name, String def) {
+			return "workflow.status.events.outbox.enabled".equals(name) ? "true" : def;
+		}
+
+		@Override
+		public int getIntProperty(String name, int def) {
+			return def;
+		}
+	}
+}
@@ -33,6 +33,7 @@ import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
 import com.netflix.conductor.core.execution.WorkflowExecutor;
 import com.netflix.conductor.core.utils.IDGenerator;
+import com.netflix.conductor.service.BulkWorkflowService;
 import com.netflix.conductor.service.ExecutionService;
 import com.netflix.conductor.service.MetadataService;
 import io.swagger.annotations.*;
@@ -75,6 +76,8 @@ public class WorkflowResource {
 
     private MetadataService metadata;
 
+    private BulkWorkflowService bulk;
+
     private boolean auth_referer_bypass;
 
     private int maxSearchSize;
@@ -83,10 +86,11 @@ public class WorkflowResource {
 
     @Inject
     public WorkflowResource(WorkflowExecutor executor, ExecutionService service,
-                            MetadataService metadata, Configuration config) {
+                            MetadataService metadata, BulkWorkflowService bulk, Configuration config) {
         this.executor = executor;
         this.service = service;
         this.metadata = metadata;
+        this.bulk = bulk;
         this.maxSearchSize = config.getIntProperty("workflow.max.search.size", 10_000);
         this.auth_referer_bypass = Boolean.parseBoolean(config.getProperty("workflow.auth.referer.bypass", "false"));
     }
@@ -882,6 +886,92 @@ public class WorkflowResource {
         return builder.build();
     }
 
+    @POST
+    @Path("/bulk/terminate")
+    @ApiOperation("Terminate multiple workflows execution in the background. Returns the job to poll for the progress")
+    @ApiResponses(value = {
+            @ApiResponse(code = 400, message = "INVALID_INPUT", response = Error.class),
+            @ApiResponse(code = 500, message = "INTERNAL_ERROR", response = Error.class),
+            @ApiResponse(code = 401, message = "UNAUTHORIZED", response = Error.class),
+            @ApiResponse(code = 202, message = "ACCEPTED", response = BulkWorkflowSummary.class)})
+    @ApiImplicitParams({@ApiImplicitParam(name = "Authorization", dataType = "string", paramType = "header"),
+            @ApiImplicitParam(name = "Platform-Trace-Id", dataType = "string", paramType = "header")})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response bulkTerminate(@Context HttpHeaders headers, List<String> workflowIds, @QueryParam("reason") String reason) {
+        Map<String, Object> decoded = bulkAuth(headers);
+        BulkWorkflowSummary summary = bulk.terminate(workflowIds, StringUtils.defaultIfEmpty(reason, "Terminated from api"),
+                decoded, executor.decodeAuthorizationUser(headers));
+        return Response.status(Response.Status.ACCEPTED).entity(summary).build();
+    }
+
+    @POST
+    @Path("/bulk/cancel")
+    @ApiOperation("Cancel multiple workflows execution in the background. Returns the job to poll for the progress")
+    @ApiResponses(value = {
+            @ApiResponse(code = 400, message = "INVALID_INPUT", response = Error.class),
+            @ApiResponse(code = 500, message = "INTERNAL_ERROR", response = Error.class),
+            @ApiResponse(code = 401, message = "UNAUTHORIZED", response = Error.class),
+            @ApiResponse(code = 202, message = "ACCEPTED", response = BulkWorkflowSummary.class)})
+    @ApiImplicitParams({@ApiImplicitParam(name = "Authorization", dataType = "string", paramType = "header"),
+            @ApiImplicitParam(name = "Platform-Trace-Id", dataType = "string", paramType = "header")})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response bulkCancel(@Context HttpHeaders headers, List<String> workflowIds, @QueryParam("reason") String reason) {
+        Map<String, Object> decoded = bulkAuth(headers);
+        BulkWorkflowSummary summary = bulk.cancel(workflowIds, StringUtils.defaultIfEmpty(reason, "Cancelled from api"),
+                decoded, executor.decodeAuthorizationUser(headers));
+        return Response.status(Response.Status.ACCEPTED).entity(summary).build();
+    }
+
+    @POST
+    @Path("/bulk/cancelByJobId")
+    @ApiOperation(value = "Cancel multiple workflows execution by Job Id in the background. Returns the job to poll for the progress", hidden = true)
+    @ApiResponses(value = {
+            @ApiResponse(code = 400, message = "INVALID_INPUT", response = Error.class),
+            @ApiResponse(code = 500, message = "INTERNAL_ERROR", response = Error.class),
+            @ApiResponse(code = 401, message = "UNAUTHORIZED", response = Error.class),
+            @ApiResponse(code = 202, message = "ACCEPTED", response = BulkWorkflowSummary.class)})
+    @ApiImplicitParams({@ApiImplicitParam(name = "Authorization", dataType = "string", paramType = "header"),
+            @ApiImplicitParam(name = "Platform-Trace-Id", dataType = "string", paramType = "header")})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response bulkCancelByJobId(@Context HttpHeaders headers, List<String> jobIds, @QueryParam("workflowType") String workflowType, @QueryParam("reason") String reason) {
+        Map<String, Object> decoded = bulkAuth(headers);
+        BulkWorkflowSummary summary = bulk.cancelByJobId(jobIds, workflowType, StringUtils.defaultIfEmpty(reason, "Cancelled from api"),
+                decoded, executor.decodeAuthorizationUser(headers));
+        return Response.status(Response.Status.ACCEPTED).entity(summary).build();
+    }
+
+    @POST
+    @Path("/bulk/rerun")
+    @ApiOperation("Reruns multiple workflows from the beginning in the background. Returns the job to poll for the progress")
+    @ApiResponses(value = {
+            @ApiResponse(code = 400, message = "INVALID_INPUT", response = Error.class),
+            @ApiResponse(code = 500, message = "INTERNAL_ERROR", response = Error.class),
+            @ApiResponse(code = 401, message = "UNAUTHORIZED", response = Error.class),
+            @ApiResponse(code = 202, message = "ACCEPTED", response = BulkWorkflowSummary.class)})
+    @ApiImplicitParams({@ApiImplicitParam(name = "Authorization", dataType = "string", paramType = "header"),
+            @ApiImplicitParam(name = "Platform-Trace-Id", dataType = "string", paramType = "header")})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response bulkRerun(@Context HttpHeaders headers, List<String> workflowIds) {
+        Map<String, Object> decoded = bulkAuth(headers);
+        BulkWorkflowSummary summary = bulk.rerun(workflowIds, decoded, executor.decodeAuthorizationUser(headers));
+        return Response.status(Response.Status.ACCEPTED).entity(summary).build();
+    }
+
+    @GET
+    @Path("/bulk/{jobId}")
+    @ApiOperation("Gets the progress of the bulk operation")
+    @ApiResponses(value = {
+            @ApiResponse(code = 404, message = "NOT_FOUND", response = Error.class),
+            @ApiResponse(code = 200, message = "SUCCESS", response = BulkWorkflowSummary.class)})
+    @Consumes(MediaType.WILDCARD)
+    public BulkWorkflowSummary getBulkJob(@PathParam("jobId") String jobId) {
+        BulkWorkflowSummary summary = bulk.getJob(jobId);
+        if (summary == null) {
+            throw new ApplicationException(Code.NOT_FOUND, "No bulk job found with id " + jobId);
+        }
+        return summary;
+    }
+
     @POST
     @Path("/complete")
     @ApiOperation("Force complete multiple workflows execution")
@@ -1134,6 +1224,22 @@ public class WorkflowResource {
         return list;
     }
 
+    /**
+     * Checks the user roles and decodes the access token once for the whole bulk request
+     *
+     * @return decoded token for the workflow definition auth rules or null if the auth is bypassed
+     */
+    private Map<String, Object> bulkAuth(HttpHeaders headers) {
+        if (bypassAuth(headers)) {
+            return null;
+        }
+        String primarRole = executor.checkUserRoles(headers);
+        if (!primarRole.endsWith("admin")) {
+            throw new ApplicationException(Code.UNAUTHORIZED, "User does not have access privileges");
+        }
+        return executor.decodeAuthorization(headers);
+    }
+
     private boolean bypassAuth(HttpHeaders headers) {
         if (!auth_referer_bypass)
             return false;
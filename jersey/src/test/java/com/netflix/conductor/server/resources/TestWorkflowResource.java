@@ -0,0 +1,122 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.server.resources;
+
+import com.netflix.conductor.common.run.BulkWorkflowSummary;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.execution.WorkflowExecutor;
+import com.netflix.conductor.service.BulkWorkflowService;
+import com.netflix.conductor.service.ExecutionService;
+import com.netflix.conductor.service.MetadataService;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TestWorkflowResource {
+
+	private WorkflowExecutor executor = mock(WorkflowExecutor.class);
+
+	private BulkWorkflowService bulk = mock(BulkWorkflowService.class);
+
+	private HttpHeaders headers = mock(HttpHeaders.class);
+
+	private WorkflowResource resource;
+
+	@Before
+	public void init() {
+		resource = new WorkflowResource(executor, mock(ExecutionService.class), mock(MetadataService.class), bulk,
+			mock(Configuration.class));
+	}
+
+	@Test
+	public void testBulkTerminate() {
+		Map<String, Object> decoded = new HashMap<>();
+		List<String> workflowIds = Arrays.asList("w1", "w2");
+		BulkWorkflowSummary summary = new BulkWorkflowSummary();
+		summary.setJobId("job1");
+		when(executor.checkUserRoles(headers)).thenReturn("conductor-admin");
+		when(executor.decodeAuthorization(headers)).thenReturn(decoded);
+		when(executor.decodeAuthorizationUser(headers)).thenReturn("user");
+		when(bulk.terminate(workflowIds, "Terminated from api", decoded, "user")).thenReturn(summary);
+
+		Response response = resource.bulkTerminate(headers, workflowIds, null);
+		assertEquals(Response.Status.ACCEPTED.getStatusCode(), response.getStatus());
+		assertSame(summary, response.getEntity());
+	}
+
+	@Test
+	public void testBulkCancelWithReason() {
+		Map<String, Object> decoded = new HashMap<>();
+		List<String> workflowIds = Collections.singletonList("w1");
+		BulkWorkflowSummary summary = new BulkWorkflowSummary();
+		when(executor.checkUserRoles(headers)).thenReturn("conductor-admin");
+		when(executor.decodeAuthorization(headers)).thenReturn(decoded);
+		when(bulk.cancel(workflowIds, "reason", decoded, null)).thenReturn(summary);
+
+		Response response = resource.bulkCancel(headers, workflowIds, "reason");
+		assertEquals(Response.Status.ACCEPTED.getStatusCode(), response.getStatus());
+		assertSame(summary, response.getEntity());
+	}
+
+	@Test
+	public void testBulkRequiresAdmin() {
+		when(executor.checkUserRoles(headers)).thenReturn("conductor-user");
+		try {
+			resource.bulkRerun(headers, Collections.singletonList("w1"));
+			fail("Expected an exception");
+		} catch (ApplicationException e) {
+			assertEquals(Code.UNAUTHORIZED, e.getCode());
+		}
+		try {
+			resource.bulkCancelByJobId(headers, Collections.singletonList("j1"), "type", null);
+			fail("Expected an exception");
+		} catch (ApplicationException e) {
+			assertEquals(Code.UNAUTHORIZED, e.getCode());
+		}
+		verify(bulk, never()).rerun(anyListOf(String.class), anyMapOf(String.class, Object.class), anyString());
+		verify(bulk, never()).cancelByJobId(anyListOf(String.class), anyString(), anyString(), any(), anyString());
+	}
+
+	@Test
+	public void testGetBulkJob() {
+		BulkWorkflowSummary summary = new BulkWorkflowSummary();
+		when(bulk.getJob("job1")).thenReturn(summary);
+		assertSame(summary, resource.getBulkJob("job1"));
+
+		try {
+			resource.getBulkJob("job2");
+			fail("Expected an exception");
+		} catch (ApplicationException e) {
+			assertEquals(Code.NOT_FOUND, e.getCode());
+		}
+	}
+}
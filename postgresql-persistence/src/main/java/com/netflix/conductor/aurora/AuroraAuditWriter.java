@@ -0,0 +1,294 @@
+package com.netflix.conductor.aurora;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.aurora.sql.Query;
+import com.netflix.conductor.common.metadata.events.EventExecution;
+import com.netflix.conductor.common.metadata.events.EventPublished;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.service.MetricService;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind buffer for the audit tables: event_message, event_execution and event_published.
+ * <p>
+ * The rows are queued by the callers and written by a dedicated thread with a single transaction per batch,
+ * once the batch is full or the oldest row has waited for the flush interval. The values are taken at the
+ * time the row is queued, so the later changes of the same objects do not affect it.
+ * <p>
+ * The buffer is bounded. When full, the caller either waits for the writer to make room (overflow=sync)
+ * or the row is discarded (overflow=drop). The caller never writes the row itself, as it would overtake the
+ * rows still buffered, e.g. an execution update its own insert. If the batch fails, its rows are retried
+ * one by one, so a single bad row does not take the rest with it.
+ * <p>
+ * The statements and their binders are shared with the DAOs, which write the same rows directly when the
+ * buffer is disabled.
+ */
+@Singleton
+public class AuroraAuditWriter extends AuroraBaseDAO {
+	static final String INSERT_MESSAGE = "INSERT INTO event_message(queue_name, message_id, receipt, json_data) " +
+		"VALUES (?, ?, ?, ?)";
+	static final String INSERT_EXECUTION = "INSERT INTO event_execution" +
+		"(handler_name, event_name, message_id, execution_id, status, subject, received_on, accepted_on) " +
+		"VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+		"ON CONFLICT ON CONSTRAINT event_execution_fields DO NOTHING";
+	static final String UPDATE_EXECUTION = "UPDATE event_execution SET " +
+		"modified_on = now(), status = ?, started_on = ?, processed_on = ? " +
+		"WHERE handler_name = ? AND event_name = ? " +
+		"AND message_id = ? AND execution_id = ?";
+	static final String INSERT_PUBLISHED = "INSERT INTO event_published" +
+		"(json_data, message_id, subject, published_on) " +
+		"VALUES (?, ?, ?, ?)";
+	// Executions are inserted before they are updated, so the update of the same batch finds the row
+	private static final List<String> FLUSH_ORDER = Arrays.asList(INSERT_MESSAGE, INSERT_EXECUTION, UPDATE_EXECUTION, INSERT_PUBLISHED);
+
+	private final boolean enabled;
+	private final boolean dropOnOverflow;
+	private final int batchSize;
+	private final int flushMs;
+	private final int overflowWaitMs;
+	private final BlockingQueue<Row> buffer;
+	private ExecutorService flusher;
+	private volatile boolean running = true;
+
+	@Inject
+	public AuroraAuditWriter(DataSource dataSource, ObjectMapper mapper, Configuration config) {
+		super(dataSource, mapper);
+		this.enabled = Boolean.parseBoolean(config.getProperty("aurora.audit.writebehind.enabled", "false"));
+		this.dropOnOverflow = "drop".equalsIgnoreCase(config.getProperty("aurora.audit.writebehind.overflow", "sync"));
+		this.batchSize = config.getIntProperty("aurora.audit.writebehind.batch.size", 500);
+		this.flushMs = config.getIntProperty("aurora.audit.writebehind.flush.ms", 200);
+		this.overflowWaitMs = config.getIntProperty("aurora.audit.writebehind.overflow.wait.ms", 5000);
+		this.buffer = new LinkedBlockingQueue<>(config.getIntProperty("aurora.audit.writebehind.capacity", 10_000));
+		if (enabled) {
+			flusher = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("aurora-audit-writer").build());
+			flusher.submit(this::flushLoop);
+			logger.debug("Audit write-behind initialized with batch size " + batchSize + " and flush interval " + flushMs + "ms");
+		}
+	}
+
+	/**
+	 * @return true if the audit rows go through the buffer, otherwise the DAOs write them as usual
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void addMessage(String queue, Message msg) {
+		add(new Row("event_message", INSERT_MESSAGE, bindMessage(queue, msg)));
+	}
+
+	public void addEventExecution(EventExecution ee) {
+		add(new Row("event_execution", INSERT_EXECUTION, bindExecution(ee)));
+	}
+
+	public void updateEventExecution(EventExecution ee) {
+		add(new Row("event_execution", UPDATE_EXECUTION, bindExecutionUpdate(ee)));
+	}
+
+	public void addEventPublished(EventPublished ep) {
+		add(new Row("event_published", INSERT_PUBLISHED, bindPublished(ep)));
+	}
+
+	static Consumer<Query> bindMessage(String queue, Message msg) {
+		String messageId = msg.getId();
+		String receipt = msg.getReceipt();
+		String payload = msg.getPayload();
+		return q -> q.addParameter(queue)
+			.addParameter(messageId)
+			.addParameter(receipt)
+			.addParameter(payload);
+	}
+
+	static Consumer<Query> bindExecution(EventExecution ee) {
+		String name = ee.getName();
+		String event = ee.getEvent();
+		String messageId = ee.getMessageId();
+		String id = ee.getId();
+		String status = ee.getStatus().name();
+		String subject = ee.getSubject();
+		long received = ee.getReceived();
+		long accepted = ee.getAccepted();
+		return q -> q.addParameter(name)
+			.addParameter(event)
+			.addParameter(messageId)
+			.addParameter(id)
+			.addParameter(status)
+			.addParameter(subject)
+			.addTimestampParameter(received)
+			.addTimestampParameter(accepted);
+	}
+
+	static Consumer<Query> bindExecutionUpdate(EventExecution ee) {
+		String status = ee.getStatus().name();
+		long started = ee.getStarted();
+		long processed = ee.getProcessed();
+		String name = ee.getName();
+		String event = ee.getEvent();
+		String messageId = ee.getMessageId();
+		String id = ee.getId();
+		return q -> q.addParameter(status)
+			.addTimestampParameter(started)
+			.addTimestampParameter(processed)
+			.addParameter(name)
+			.addParameter(event)
+			.addParameter(messageId)
+			.addParameter(id);
+	}
+
+	static Consumer<Query> bindPublished(EventPublished ep) {
+		// Not changed once published, so serialized on flush
+		String id = ep.getId();
+		String subject = ep.getSubject();
+		long published = ep.getPublished();
+		return q -> q.addJsonParameter(ep)
+			.addParameter(id)
+			.addParameter(subject)
+			.addTimestampParameter(published);
+	}
+
+	public void shutdown() {
+		if (flusher == null) {
+			return;
+		}
+		running = false;
+		try {
+			logger.info("Closing audit writer, " + buffer.size() + " rows pending");
+			flusher.shutdown();
+			flusher.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			logger.debug("Closing audit writer failed " + e.getMessage(), e);
+		}
+	}
+
+	public boolean isTaskTerminated() {
+		return flusher == null || flusher.isTerminated();
+	}
+
+	private void add(Row row) {
+		if (buffer.offer(row)) {
+			return;
+		}
+		if (dropOnOverflow) {
+			logger.debug("Audit buffer is full, dropping the " + row.table + " row");
+			MetricService.getInstance().auditDropped(row.table);
+			return;
+		}
+		try {
+			if (buffer.offer(row, overflowWaitMs, TimeUnit.MILLISECONDS)) {
+				return;
+			}
+			logger.error("Audit buffer is still full after " + overflowWaitMs + "ms, dropping the " + row.table + " row");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.error("Interrupted while waiting for the audit buffer, dropping the " + row.table + " row");
+		}
+		MetricService.getInstance().auditDropped(row.table);
+	}
+
+	private void flushLoop() {
+		List<Row> rows = new ArrayList<>(batchSize);
+		while (running || !buffer.isEmpty()) {
+			try {
+				Row first = buffer.poll(flushMs, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				rows.add(first);
+
+				// Collect the batch until it is full or the first row has waited long enough
+				long deadline = first.queued + flushMs;
+				while (rows.size() < batchSize && running) {
+					buffer.drainTo(rows, batchSize - rows.size());
+					long wait = deadline - System.currentTimeMillis();
+					if (rows.size() >= batchSize || wait <= 0) {
+						break;
+					}
+					Row next = buffer.poll(wait, TimeUnit.MILLISECONDS);
+					if (next == null) {
+						break;
+					}
+					rows.add(next);
+				}
+				buffer.drainTo(rows, batchSize - rows.size());
+
+				flush(rows);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Exception e) {
+				logger.error("Audit flush loop failed with " + e.getMessage(), e);
+			} finally {
+				rows.clear();
+			}
+		}
+	}
+
+	private void flush(List<Row> rows) {
+		long start = System.currentTimeMillis();
+		long lag = start - rows.get(0).queued;
+
+		Map<String, List<Row>> bySql = new LinkedHashMap<>();
+		FLUSH_ORDER.forEach(sql -> bySql.put(sql, new ArrayList<>()));
+		rows.forEach(row -> bySql.get(row.sql).add(row));
+
+		try {
+			withTransaction(tx -> bySql.forEach((sql, batch) -> {
+				if (batch.isEmpty()) {
+					return;
+				}
+				execute(tx, sql, q -> {
+					for (Row row : batch) {
+						row.binder.accept(q);
+						q.addBatch();
+					}
+					q.executeBatch();
+				});
+			}));
+		} catch (Exception e) {
+			logger.error("Audit batch of " + rows.size() + " rows failed with " + e.getMessage() + ", writing them one by one", e);
+			bySql.values().forEach(batch -> batch.forEach(this::writeRow));
+		}
+		MetricService.getInstance().auditFlush(rows.size(), lag, System.currentTimeMillis() - start);
+	}
+
+	private void writeRow(Row row) {
+		try {
+			executeWithTransaction(row.sql, q -> {
+				row.binder.accept(q);
+				q.executeUpdate();
+			});
+		} catch (Exception e) {
+			logger.error("Audit write to " + row.table + " failed with " + e.getMessage(), e);
+			MetricService.getInstance().auditDropped(row.table);
+		}
+	}
+
+	private static class Row {
+		private final String table;
+		private final String sql;
+		private final Consumer<Query> binder;
+		private final long queued = System.currentTimeMillis();
+
+		Row(String table, String sql, Consumer<Query> binder) {
+			this.table = table;
+			this.sql = sql;
+			this.binder = binder;
+		}
+	}
+}
@@ -15,8 +15,10 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.function.Consumer;
 
 public abstract class AuroraBaseDAO {
@@ -30,6 +32,9 @@ public abstract class AuroraBaseDAO {
 
 	public final String DATASOURCE_SHUTDOWN_MSG = "Request cannot be fulfilled at this time, system shutdown in progress. Please retry request";
 
+	// Transaction shared by all the DAO calls made by the current thread within inUnitOfWork
+	private static final ThreadLocal<UnitOfWork> unitOfWork = new ThreadLocal<>();
+
 	protected final Logger logger = LoggerFactory.getLogger(getClass());
 	protected final DataSource dataSource;
 	private final ObjectMapper mapper;
@@ -51,7 +56,43 @@ public abstract class AuroraBaseDAO {
 		});
 	}
 
+	/**
+	 * Runs the function in the unit of work started by {@link #inUnitOfWork(Callable)} on the current thread,
+	 * or in a new transaction if there is none.
+	 */
 	<R> R getWithTransaction(TransactionalFunction<R> function) {
+		UnitOfWork unit = unitOfWork.get();
+		if (unit == null || unit.dataSource != dataSource) {
+			return getWithNewTransaction(function);
+		}
+
+		try {
+			return function.apply(unit.connection);
+		} catch (Throwable th) {
+			// The transaction is aborted in the database, so the whole unit must be rolled back
+			unit.failed = true;
+			logger.debug("Unit of work failed due to " + th.getMessage(), th);
+			throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, th.getMessage(), th);
+		}
+	}
+
+	/**
+	 * Runs the action once the unit of work of the current thread commits, or right away if there is none.
+	 * The action is dropped if the unit rolls back
+	 */
+	void afterCommit(Runnable action) {
+		UnitOfWork unit = unitOfWork.get();
+		if (unit == null || unit.dataSource != dataSource) {
+			action.run();
+		} else {
+			unit.afterCommit.add(action);
+		}
+	}
+
+	/**
+	 * Runs the function in its own transaction even if a unit of work is active on the current thread
+	 */
+	<R> R getWithNewTransaction(TransactionalFunction<R> function) {
 		if (isDatasourceClosed()) {
 			throw new ServerShutdownException(DATASOURCE_SHUTDOWN_MSG);
 		}
@@ -83,6 +124,53 @@ public abstract class AuroraBaseDAO {
 		}
 	}
 
+	/**
+	 * Runs the work with a single transaction bound to the current thread. All the DAO calls (on the same data source)
+	 * made by the work join that transaction, which is committed once the work completes and rolled back otherwise.
+	 * Nested calls join the outer unit of work.
+	 *
+	 * @param work The work to run
+	 * @return The result of the work
+	 */
+	protected <R> R inUnitOfWork(Callable<R> work) throws Exception {
+		if (unitOfWork.get() != null) {
+			return work.call();
+		}
+		if (isDatasourceClosed()) {
+			throw new ServerShutdownException(DATASOURCE_SHUTDOWN_MSG);
+		}
+
+		Instant start = Instant.now();
+		try (Connection tx = dataSource.getConnection()) {
+			tx.setAutoCommit(false);
+			UnitOfWork unit = new UnitOfWork(dataSource, tx);
+			unitOfWork.set(unit);
+			R result;
+			try {
+				result = work.call();
+				if (unit.failed) {
+					throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, "Unit of work failed");
+				}
+				tx.commit();
+			} catch (Throwable th) {
+				try {
+					tx.rollback();
+				} catch (SQLException ignore) {
+				}
+				logger.debug("Unit of work rollback issued due to " + th.getMessage(), th);
+				throw th;
+			} finally {
+				unitOfWork.remove();
+			}
+			// Outside of the unit, so the actions run in their own transactions if any
+			unit.afterCommit.forEach(Runnable::run);
+			return result;
+		} finally {
+			if (logger.isTraceEnabled())
+				logger.trace("unit of work took {}ms", Duration.between(start, Instant.now()).toMillis());
+		}
+	}
+
 	private LazyToString getCallingMethod() {
 		return new LazyToString(() -> Arrays.stream(Thread.currentThread().getStackTrace())
 			.filter(ste -> !EXCLUDED_STACKTRACE_CLASS.contains(ste.getClassName()))
@@ -141,4 +229,16 @@ public abstract class AuroraBaseDAO {
 			throw new ApplicationException(ApplicationException.Code.INTERNAL_ERROR, ex);
 		}
 	}
+
+	private static class UnitOfWork {
+		private final DataSource dataSource;
+		private final Connection connection;
+		private boolean failed;
+		private final List<Runnable> afterCommit = new ArrayList<>();
+
+		UnitOfWork(DataSource dataSource, Connection connection) {
+			this.dataSource = dataSource;
+			this.connection = connection;
+		}
+	}
 }
@@ -5,6 +5,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.netflix.conductor.common.metadata.events.EventExecution;
 import com.netflix.conductor.common.metadata.events.EventPublished;
+import com.netflix.conductor.common.metadata.events.StatusEvent;
 import com.netflix.conductor.common.metadata.tasks.PollData;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
@@ -25,6 +26,7 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -32,13 +34,18 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
     private final MetadataDAO metadata;
     private final IndexDAO indexer;
     private final ObjectMapper mapper;
+    private final AuroraAuditWriter auditWriter;
+    private final AuroraRateLimiter rateLimiter;
 
     @Inject
-    public AuroraExecutionDAO(DataSource dataSource, ObjectMapper mapper, MetadataDAO metadata, IndexDAO indexer) {
+    public AuroraExecutionDAO(DataSource dataSource, ObjectMapper mapper, MetadataDAO metadata, IndexDAO indexer,
+                              AuroraAuditWriter auditWriter, AuroraRateLimiter rateLimiter) {
         super(dataSource, mapper);
         this.metadata = metadata;
         this.indexer = indexer;
         this.mapper = mapper;
+        this.auditWriter = auditWriter;
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
@@ -99,15 +106,20 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
     public List<Task> createTasks(List<Task> tasks) {
         List<Task> created = Lists.newLinkedList();
 
+        for (Task task : tasks) {
+            Preconditions.checkNotNull(task, "task object cannot be null");
+            Preconditions.checkNotNull(task.getTaskId(), "Task id cannot be null");
+            Preconditions.checkNotNull(task.getWorkflowInstanceId(), "Workflow instance id cannot be null");
+            Preconditions.checkNotNull(task.getReferenceTaskName(), "Task reference name cannot be null");
+        }
+        if (tasks.isEmpty()) {
+            return created;
+        }
+
         withTransaction(tx -> {
+            Set<String> scheduled = addScheduledTasks(tx, tasks);
             for (Task task : tasks) {
-                Preconditions.checkNotNull(task, "task object cannot be null");
-                Preconditions.checkNotNull(task.getTaskId(), "Task id cannot be null");
-                Preconditions.checkNotNull(task.getWorkflowInstanceId(), "Workflow instance id cannot be null");
-                Preconditions.checkNotNull(task.getReferenceTaskName(), "Task reference name cannot be null");
-
-                boolean taskAdded = addScheduledTask(tx, task);
-                if (!taskAdded) {
+                if (!scheduled.contains(task.getTaskId())) {
                     String taskKey = task.getReferenceTaskName() + task.getRetryCount();
                     logger.debug("Task already scheduled, skipping the run " + task.getTaskId() +
                             ", ref=" + task.getReferenceTaskName() + ", key=" + taskKey);
@@ -117,16 +129,24 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
                 task.setScheduledTime(System.currentTimeMillis());
                 //The flag is boolean object, setting it to false so workflow executor can properly determine the state
                 task.setStarted(false);
-                addTaskInProgress(tx, task);
-                insertOrUpdateTask(tx, task, false);
 
                 created.add(task);
             }
+
+            if (!created.isEmpty()) {
+                addTasksInProgress(tx, created);
+                insertOrUpdateTasks(tx, created, false);
+            }
         });
 
         return created;
     }
 
+    @Override
+    public <R> R unitOfWork(Callable<R> work) throws Exception {
+        return inUnitOfWork(work);
+    }
+
     @Override
     public void updateTask(Task task) {
         withTransaction(tx -> insertOrUpdateTask(tx, task, true));
@@ -144,6 +164,10 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
             return false;
         }
 
+        if (rateLimiter.isEnabled()) {
+            return rateLimiter.acquirePermits(taskDef, 1) == 0;
+        }
+
         long current = getInProgressTaskCount(task.getTaskDefName());
         if (current >= limit) {
             logger.debug("Task execution count limited(case1). {}, limit {}, current {}", task.getTaskDefName(), limit, current);
@@ -159,51 +183,113 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
             return false;
         }
 
+        if (rateLimiter.isEnabled()) {
+            return rateLimiter.acquireTokens(taskDef, 1) == 0;
+        }
+        return getWithTransaction(tx -> acquireRateLimit(tx, taskDef, 1)) == 0;
+    }
+
+    @Override
+    public List<Task> exceedsLimits(List<Task> tasks) {
+        Map<String, List<Task>> tasksByDef = tasks.stream()
+                .collect(Collectors.groupingBy(Task::getTaskDefName, LinkedHashMap::new, Collectors.toList()));
+
+        List<Task> limited = new LinkedList<>();
+        if (rateLimiter.isEnabled()) {
+            tasksByDef.forEach((taskDefName, defTasks) -> {
+                TaskDef taskDef = metadata.getTaskDef(taskDefName);
+                if (taskDef == null) {
+                    return;
+                }
+
+                int permits = rateLimiter.acquirePermits(taskDef, defTasks.size());
+                int allowed = permits > 0 ? rateLimiter.acquireTokens(taskDef, permits) : 0;
+                rateLimiter.releasePermits(taskDef, permits - allowed);
+                limited.addAll(defTasks.subList(allowed, defTasks.size()));
+            });
+            return limited;
+        }
+
+        withTransaction(tx -> tasksByDef.forEach((taskDefName, defTasks) -> {
+            TaskDef taskDef = metadata.getTaskDef(taskDefName);
+            if (taskDef == null) {
+                return;
+            }
+
+            int allowed = defTasks.size();
+            int limit = taskDef.concurrencyLimit();
+            if (limit > 0) {
+                long current = getInProgressTaskCount(tx, taskDefName);
+                allowed = (int) Math.max(0, Math.min(allowed, limit - current));
+                if (allowed < defTasks.size()) {
+                    logger.debug("Task execution count limited(case1). {}, limit {}, current {}", taskDefName, limit, current);
+                }
+            }
+
+            if (allowed > 0) {
+                allowed = acquireRateLimit(tx, taskDef, allowed);
+            }
+            limited.addAll(defTasks.subList(allowed, defTasks.size()));
+        }));
+        return limited;
+    }
+
+    /**
+     * Takes up to the requested number of executions out of the rate limit bucket of the task definition
+     *
+     * @return the number of executions granted
+     */
+    private int acquireRateLimit(Connection tx, TaskDef taskDef, int requested) {
         Integer rateLimitPerFrequency = taskDef.getRateLimitPerFrequency();
         Integer rateLimitFrequencyInSeconds = taskDef.getRateLimitFrequencyInSeconds();
         if (rateLimitPerFrequency == null || rateLimitPerFrequency <= 0 ||
                 rateLimitFrequencyInSeconds == null || rateLimitFrequencyInSeconds <= 0) {
-            return false;
+            return requested;
         }
 
         logger.debug("Evaluating rate limiting for Task: {} with rateLimitPerFrequency: {} and rateLimitFrequencyInSeconds: {}",
-                task, rateLimitPerFrequency, rateLimitFrequencyInSeconds);
+                taskDef.getName(), rateLimitPerFrequency, rateLimitFrequencyInSeconds);
 
         long currentTimeEpochMillis = System.currentTimeMillis();
         long currentTimeEpochMinusRateLimitBucket = currentTimeEpochMillis - (rateLimitFrequencyInSeconds * 1000);
 
         // Delete the expired records first
         String SQL = "DELETE FROM task_rate_limit WHERE task_def_name = ? AND created_on < ?";
-        executeWithTransaction(SQL, q -> q
+        execute(tx, SQL, q -> q
                 .addParameter(taskDef.getName())
                 .addTimestampParameter(currentTimeEpochMinusRateLimitBucket)
                 .executeDelete());
 
         // Count how many left between currentTimeEpochMinusRateLimitBucket and currentTimeEpochMillis
         SQL = "SELECT COUNT(*) FROM task_rate_limit WHERE task_def_name = ? AND created_on BETWEEN ? AND ?";
-        long currentBucketCount = queryWithTransaction(SQL, q -> q
+        long currentBucketCount = query(tx, SQL, q -> q
                 .addParameter(taskDef.getName())
                 .addTimestampParameter(currentTimeEpochMinusRateLimitBucket)
                 .addTimestampParameter(currentTimeEpochMillis)
                 .executeScalar(Long.class));
 
-        // Within the rate limit
-        if (currentBucketCount < rateLimitPerFrequency) {
-            SQL = "INSERT INTO task_rate_limit(created_on,expires_on,task_def_name) VALUES (?,?,?)";
-            executeWithTransaction(SQL, q -> q
-                    .addTimestampParameter(currentTimeEpochMillis)
-                    .addTimestampParameter(System.currentTimeMillis() + (rateLimitFrequencyInSeconds * 1000))
-                    .addParameter(taskDef.getName())
-                    .executeUpdate());
-
-            logger.debug("Task: {} with rateLimitPerFrequency: {} and rateLimitFrequencyInSeconds: {} within the rate limit with current count {}",
-                    task, rateLimitPerFrequency, rateLimitFrequencyInSeconds, ++currentBucketCount);
-            return false;
+        int granted = (int) Math.max(0, Math.min(requested, rateLimitPerFrequency - currentBucketCount));
+        if (granted == 0) {
+            logger.debug("Task: {} with rateLimitPerFrequency: {} and rateLimitFrequencyInSeconds: {} is out of bounds of rate limit with current count {}",
+                    taskDef.getName(), rateLimitPerFrequency, rateLimitFrequencyInSeconds, currentBucketCount);
+            return 0;
         }
 
-        logger.debug("Task: {} with rateLimitPerFrequency: {} and rateLimitFrequencyInSeconds: {} is out of bounds of rate limit with current count {}",
-                task, rateLimitPerFrequency, rateLimitFrequencyInSeconds, currentBucketCount);
-        return true;
+        // Within the rate limit
+        SQL = "INSERT INTO task_rate_limit(created_on,expires_on,task_def_name) VALUES (?,?,?)";
+        execute(tx, SQL, q -> {
+            for (int i = 0; i < granted; i++) {
+                q.addTimestampParameter(currentTimeEpochMillis)
+                        .addTimestampParameter(currentTimeEpochMillis + (rateLimitFrequencyInSeconds * 1000))
+                        .addParameter(taskDef.getName())
+                        .addBatch();
+            }
+            q.executeBatch();
+        });
+
+        logger.debug("Task: {} with rateLimitPerFrequency: {} and rateLimitFrequencyInSeconds: {} within the rate limit with current count {}",
+                taskDef.getName(), rateLimitPerFrequency, rateLimitFrequencyInSeconds, currentBucketCount + granted);
+        return granted;
     }
 
     @Override
@@ -213,11 +299,10 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
 
     @Override
     public void updateTasks(List<Task> tasks) {
-        withTransaction(tx -> {
-            for (Task task : tasks) {
-                insertOrUpdateTask(tx, task, true);
-            }
-        });
+        if (tasks.isEmpty()) {
+            return;
+        }
+        withTransaction(tx -> insertOrUpdateTasks(tx, tasks, true));
     }
 
     @Override
@@ -377,8 +462,12 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
 
     @Override
     public long getInProgressTaskCount(String taskDefName) {
+        return getWithTransaction(tx -> getInProgressTaskCount(tx, taskDefName));
+    }
+
+    private long getInProgressTaskCount(Connection tx, String taskDefName) {
         String SQL = "SELECT COUNT(*) FROM task_in_progress WHERE task_def_name = ? AND in_progress = true";
-        return queryWithTransaction(SQL, q -> q.addParameter(taskDefName).executeCount());
+        return query(tx, SQL, q -> q.addParameter(taskDefName).executeCount());
     }
 
     @Override
@@ -417,11 +506,20 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
 
     @Override
     public boolean addEventExecution(EventExecution ee) {
+        // Written behind, so the duplicates are not reported
+        if (auditWriter.isEnabled()) {
+            auditWriter.addEventExecution(ee);
+            return true;
+        }
         return getWithTransaction(tx -> insertEventExecution(tx, ee));
     }
 
     @Override
     public void updateEventExecution(EventExecution ee) {
+        if (auditWriter.isEnabled()) {
+            auditWriter.updateEventExecution(ee);
+            return;
+        }
         withTransaction(tx -> updateEventExecution(tx, ee));
     }
 
@@ -460,9 +558,65 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
 
     @Override
     public void addEventPublished(EventPublished ep) {
+        if (auditWriter.isEnabled()) {
+            auditWriter.addEventPublished(ep);
+            return;
+        }
         getWithTransaction(tx -> insertEventPublished(tx, ep));
     }
 
+    @Override
+    public void addStatusEvent(StatusEvent event) {
+        String SQL = "INSERT INTO status_event (workflow_id, event_type, task_id, json_data) VALUES (?, ?, ?, ?)";
+        executeWithTransaction(SQL, q -> q.addParameter(event.getWorkflowId())
+                .addParameter(event.getType().name())
+                .addParameter(event.getTask() == null ? null : event.getTask().getTaskId())
+                .addJsonParameter(event)
+                .executeUpdate());
+    }
+
+    /**
+     * The event is skipped while there is an older one of the same workflow, leased or not,
+     * so the events of a workflow are published in the order they were added
+     */
+    @Override
+    public List<StatusEvent> leaseStatusEvents(int count, long leaseMs) {
+        String SQL = "UPDATE status_event SET deliver_on = ? " +
+                "WHERE id IN (SELECT e.id FROM status_event e WHERE e.deliver_on < now() " +
+                "AND NOT EXISTS (SELECT 1 FROM status_event p WHERE p.workflow_id = e.workflow_id AND p.id < e.id) " +
+                "ORDER BY e.id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING id, attempts, created_on, json_data";
+
+        return queryWithTransaction(SQL, q -> q.addTimestampParameter(System.currentTimeMillis() + leaseMs)
+                .addParameter(count)
+                .executeAndFetch(rs -> {
+                    List<StatusEvent> events = new LinkedList<>();
+                    while (rs.next()) {
+                        StatusEvent event = readValue(rs.getString("json_data"), StatusEvent.class);
+                        event.setId(rs.getLong("id"));
+                        event.setAttempts(rs.getInt("attempts"));
+                        event.setCreated(rs.getTimestamp("created_on").getTime());
+                        events.add(event);
+                    }
+                    events.sort(Comparator.comparingLong(StatusEvent::getId));
+                    return events;
+                }));
+    }
+
+    @Override
+    public void removeStatusEvent(StatusEvent event) {
+        String SQL = "DELETE FROM status_event WHERE id = ?";
+        executeWithTransaction(SQL, q -> q.addParameter(event.getId()).executeDelete());
+    }
+
+    @Override
+    public void retryStatusEvent(StatusEvent event, long delayMs) {
+        String SQL = "UPDATE status_event SET attempts = attempts + 1, deliver_on = ? WHERE id = ?";
+        executeWithTransaction(SQL, q -> q.addTimestampParameter(System.currentTimeMillis() + delayMs)
+                .addParameter(event.getId())
+                .executeUpdate());
+    }
+
     /**
      * Function to find tasks in the workflows which associated with given tags
      * <p>
@@ -621,30 +775,31 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
         return Integer.parseInt(format.format(date));
     }
 
-    private boolean addScheduledTask(Connection tx, Task task) {
-        String taskKey = task.getReferenceTaskName() + task.getRetryCount();
-        final String CHECK_SQL = "SELECT true FROM task_scheduled WHERE workflow_id = ? AND task_key = ?";
-        boolean exists = query(tx, CHECK_SQL, q -> q
-                .addParameter(task.getWorkflowInstanceId())
-                .addParameter(taskKey)
-                .executeScalar(Boolean.class));
-
-        // Return task not scheduled (false) if it is already exists
-        if (exists) {
-            return false;
+    /**
+     * Registers the tasks in the schedule table with a single statement
+     *
+     * @return Ids of the tasks registered, i.e. not scheduled before under the same reference name and retry count
+     */
+    private Set<String> addScheduledTasks(Connection tx, List<Task> tasks) {
+        List<String> workflowIds = new ArrayList<>(tasks.size());
+        List<String> taskKeys = new ArrayList<>(tasks.size());
+        List<String> taskIds = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            workflowIds.add(task.getWorkflowInstanceId());
+            taskKeys.add(task.getReferenceTaskName() + task.getRetryCount());
+            taskIds.add(task.getTaskId());
         }
 
         // Warning! Constraint name is also unique index name
         final String ADD_SQL = "INSERT INTO task_scheduled (workflow_id, task_key, task_id) " +
-                "VALUES (?, ?, ?) ON CONFLICT ON CONSTRAINT task_scheduled_wf_task DO NOTHING";
-
-        int count = query(tx, ADD_SQL, q -> q
-                .addParameter(task.getWorkflowInstanceId())
-                .addParameter(taskKey)
-                .addParameter(task.getTaskId())
-                .executeUpdate());
+                "SELECT * FROM unnest(?, ?, ?) ON CONFLICT ON CONSTRAINT task_scheduled_wf_task DO NOTHING " +
+                "RETURNING task_id";
 
-        return count > 0;
+        return new HashSet<>(query(tx, ADD_SQL, q -> q
+                .addParameter(workflowIds)
+                .addParameter(taskKeys)
+                .addParameter(taskIds)
+                .executeScalarList(String.class)));
     }
 
     private void removeTask(Connection tx, Task task) {
@@ -656,49 +811,73 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
     }
 
     private void insertOrUpdateTask(Connection tx, Task task, boolean update) {
-        task.setUpdateTime(System.currentTimeMillis());
-        if (task.getStatus() != null && task.getStatus().isTerminal()) {
-            task.setEndTime(System.currentTimeMillis());
-        }
+        insertOrUpdateTasks(tx, Collections.singletonList(task), update);
+    }
 
-        TaskDef taskDef = metadata.getTaskDef(task.getTaskDefName());
-        if (taskDef != null && taskDef.concurrencyLimit() > 0) {
-            if (Task.Status.IN_PROGRESS.equals(task.getStatus())) {
-                updateInProgressStatus(tx, task);
+    private void insertOrUpdateTasks(Connection tx, List<Task> tasks, boolean update) {
+        List<Task> terminal = new ArrayList<>();
+        List<Task> inProgress = new ArrayList<>();
+        for (Task task : tasks) {
+            task.setUpdateTime(System.currentTimeMillis());
+            if (task.getStatus() != null && task.getStatus().isTerminal()) {
+                task.setEndTime(System.currentTimeMillis());
+            }
+
+            TaskDef taskDef = metadata.getTaskDef(task.getTaskDefName());
+            if (taskDef != null && taskDef.concurrencyLimit() > 0) {
+                if (Task.Status.IN_PROGRESS.equals(task.getStatus())) {
+                    inProgress.add(task);
+                }
+            }
+
+            if (task.isTerminal()) {
+                terminal.add(task);
             }
         }
 
+        if (!inProgress.isEmpty()) {
+            updateInProgressStatus(tx, inProgress);
+        }
+
         if (update) {
             String SQL = "UPDATE task SET modified_on = now(), task_status = ?, json_data = ?, input = ?, output = ?, start_time = ?, end_time = ? WHERE task_id = ?";
-            execute(tx, SQL, q -> q
-                    .addParameter(task.getStatus().name())
-                    .addJsonParameter(task)
-                    .addJsonParameter(task.getInputData())
-                    .addJsonParameter(task.getOutputData())
-                    .addTimestampParameter(task.getStartTime())
-                    .addTimestampParameter(task.getEndTime())
-                    .addParameter(task.getTaskId())
-                    .executeUpdate());
+            execute(tx, SQL, q -> {
+                for (Task task : tasks) {
+                    q.addParameter(task.getStatus().name())
+                            .addJsonParameter(task)
+                            .addJsonParameter(task.getInputData())
+                            .addJsonParameter(task.getOutputData())
+                            .addTimestampParameter(task.getStartTime())
+                            .addTimestampParameter(task.getEndTime())
+                            .addParameter(task.getTaskId())
+                            .addBatch();
+                }
+                q.executeBatch();
+            });
         } else {
             String SQL = "INSERT INTO task (task_id, task_type, task_refname, task_status, json_data, workflow_id, " +
                     "start_time, end_time, input, output) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT ON CONSTRAINT task_task_id DO NOTHING";
-            execute(tx, SQL, q -> q
-                    .addParameter(task.getTaskId())
-                    .addParameter(task.getTaskType())
-                    .addParameter(task.getReferenceTaskName())
-                    .addParameter(task.getStatus().name())
-                    .addJsonParameter(task)
-                    .addParameter(task.getWorkflowInstanceId())
-                    .addTimestampParameter(task.getStartTime())
-                    .addTimestampParameter(task.getEndTime())
-                    .addJsonParameter(task.getInputData())
-                    .addJsonParameter(task.getOutputData())
-                    .executeUpdate());
+            execute(tx, SQL, q -> {
+                for (Task task : tasks) {
+                    q.addParameter(task.getTaskId())
+                            .addParameter(task.getTaskType())
+                            .addParameter(task.getReferenceTaskName())
+                            .addParameter(task.getStatus().name())
+                            .addJsonParameter(task)
+                            .addParameter(task.getWorkflowInstanceId())
+                            .addTimestampParameter(task.getStartTime())
+                            .addTimestampParameter(task.getEndTime())
+                            .addJsonParameter(task.getInputData())
+                            .addJsonParameter(task.getOutputData())
+                            .addBatch();
+                }
+                q.executeBatch();
+            });
         }
 
-        if (task.isTerminal()) {
-            removeTaskInProgress(tx, task);
+        if (!terminal.isEmpty()) {
+            removeTasksInProgress(tx, terminal);
         }
     }
 
@@ -802,28 +981,50 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
         execute(tx, SQL, q -> q.addParameter(workflowId).executeDelete());
     }
 
-    private void addTaskInProgress(Connection tx, Task task) {
+    private void addTasksInProgress(Connection tx, List<Task> tasks) {
         String SQL = "INSERT INTO task_in_progress (task_def_name, task_id, workflow_id) VALUES (?, ?, ?) " +
                 "ON CONFLICT ON CONSTRAINT task_in_progress_fields DO NOTHING";
 
-        execute(tx, SQL, q -> q.addParameter(task.getTaskDefName())
-                .addParameter(task.getTaskId())
-                .addParameter(task.getWorkflowInstanceId())
-                .executeUpdate());
+        execute(tx, SQL, q -> {
+            for (Task task : tasks) {
+                q.addParameter(task.getTaskDefName())
+                        .addParameter(task.getTaskId())
+                        .addParameter(task.getWorkflowInstanceId())
+                        .addBatch();
+            }
+            q.executeBatch();
+        });
     }
 
     private void removeTaskInProgress(Connection tx, Task task) {
+        removeTasksInProgress(tx, Collections.singletonList(task));
+    }
+
+    private void removeTasksInProgress(Connection tx, List<Task> tasks) {
         String SQL = "DELETE FROM task_in_progress WHERE task_def_name = ? AND task_id = ?";
 
-        execute(tx, SQL,
-                q -> q.addParameter(task.getTaskDefName()).addParameter(task.getTaskId()).executeUpdate());
+        execute(tx, SQL, q -> {
+            for (Task task : tasks) {
+                q.addParameter(task.getTaskDefName()).addParameter(task.getTaskId()).addBatch();
+            }
+            q.executeBatch();
+        });
     }
 
     private void updateInProgressStatus(Connection tx, Task task) {
+        updateInProgressStatus(tx, Collections.singletonList(task));
+    }
+
+    private void updateInProgressStatus(Connection tx, List<Task> tasks) {
         String SQL = "UPDATE task_in_progress SET in_progress = true, modified_on = now() "
                 + "WHERE task_def_name = ? AND task_id = ?";
 
-        execute(tx, SQL, q -> q.addParameter(task.getTaskDefName()).addParameter(task.getTaskId()).executeUpdate());
+        execute(tx, SQL, q -> {
+            for (Task task : tasks) {
+                q.addParameter(task.getTaskDefName()).addParameter(task.getTaskId()).addBatch();
+            }
+            q.executeBatch();
+        });
     }
 
     private void removeScheduledTask(Connection tx, Task task, String taskKey) {
@@ -840,47 +1041,25 @@ public class AuroraExecutionDAO extends AuroraBaseDAO implements ExecutionDAO {
     }
 
     private boolean insertEventExecution(Connection tx, EventExecution ee) {
-        String SQL = "INSERT INTO event_execution" +
-                "(handler_name, event_name, message_id, execution_id, status, subject, received_on, accepted_on) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
-                "ON CONFLICT ON CONSTRAINT event_execution_fields DO NOTHING";
-        int count = query(tx, SQL, q -> q.addParameter(ee.getName())
-                .addParameter(ee.getEvent())
-                .addParameter(ee.getMessageId())
-                .addParameter(ee.getId())
-                .addParameter(ee.getStatus().name())
-                .addParameter(ee.getSubject())
-                .addTimestampParameter(ee.getReceived())
-                .addTimestampParameter(ee.getAccepted())
-                .executeUpdate());
+        int count = query(tx, AuroraAuditWriter.INSERT_EXECUTION, q -> {
+            AuroraAuditWriter.bindExecution(ee).accept(q);
+            return q.executeUpdate();
+        });
         return count > 0;
     }
 
     private void updateEventExecution(Connection tx, EventExecution ee) {
-        String SQL = "UPDATE event_execution SET " +
-                "modified_on = now(), status = ?, started_on = ?, processed_on = ?" +
-                "WHERE handler_name = ? AND event_name = ? " +
-                "AND message_id = ? AND execution_id = ?";
-
-        execute(tx, SQL, q -> q.addParameter(ee.getStatus().name())
-                .addTimestampParameter(ee.getStarted())
-                .addTimestampParameter(ee.getProcessed())
-                .addParameter(ee.getName())
-                .addParameter(ee.getEvent())
-                .addParameter(ee.getMessageId())
-                .addParameter(ee.getId())
-                .executeUpdate());
+        execute(tx, AuroraAuditWriter.UPDATE_EXECUTION, q -> {
+            AuroraAuditWriter.bindExecutionUpdate(ee).accept(q);
+            q.executeUpdate();
+        });
     }
 
     private boolean insertEventPublished(Connection tx, EventPublished ep) {
-        String SQL = "INSERT INTO event_published" +
-                "(json_data, message_id, subject, published_on) " +
-                "VALUES (?, ?, ?, ?)";
-        int count = query(tx, SQL, q -> q.addJsonParameter(ep)
-                .addParameter(ep.getId())
-                .addParameter(ep.getSubject())
-                .addTimestampParameter(ep.getPublished())
-                .executeUpdate());
+        int count = query(tx, AuroraAuditWriter.INSERT_PUBLISHED, q -> {
+            AuroraAuditWriter.bindPublished(ep).accept(q);
+            return q.executeUpdate();
+        });
         return count > 0;
     }
 
@@ -25,9 +25,12 @@ import static java.util.Objects.nonNull;
 
 public class AuroraIndexDAO extends AuroraBaseDAO implements IndexDAO {
 
+	private final AuroraAuditWriter auditWriter;
+
 	@Inject
-	public AuroraIndexDAO(DataSource dataSource, ObjectMapper mapper) {
+	public AuroraIndexDAO(DataSource dataSource, ObjectMapper mapper, AuroraAuditWriter auditWriter) {
 		super(dataSource, mapper);
+		this.auditWriter = auditWriter;
 	}
 
 	@Override
@@ -100,13 +103,14 @@ public class AuroraIndexDAO extends AuroraBaseDAO implements IndexDAO {
 
 	@Override
 	public void addMessage(String queue, Message msg) {
-		String SQL = "INSERT INTO event_message(queue_name, message_id, receipt, json_data) " +
-			"VALUES (?, ?, ?, ?)";
-		executeWithTransaction(SQL, q -> q.addParameter(queue)
-			.addParameter(msg.getId())
-			.addParameter(msg.getReceipt())
-			.addParameter(msg.getPayload())
-			.executeUpdate());
+		if (auditWriter.isEnabled()) {
+			auditWriter.addMessage(queue, msg);
+			return;
+		}
+		executeWithTransaction(AuroraAuditWriter.INSERT_MESSAGE, q -> {
+			AuroraAuditWriter.bindMessage(queue, msg).accept(q);
+			q.executeUpdate();
+		});
 	}
 
 	@Override
@@ -0,0 +1,58 @@
+package com.netflix.conductor.aurora;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.utils.LocalLockProvider;
+import com.netflix.conductor.core.utils.LockException;
+import com.netflix.conductor.core.utils.LockProvider;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locks the path within the JVM first, so the threads of the same instance wait for each other without
+ * going to the database, and then across the cluster with a transaction level advisory lock.
+ * <p>
+ * The advisory lock is taken in the unit of work of the caller, so it is held until the unit commits and
+ * its changes become visible to the next lock holder. Outside of a unit of work it is released right away,
+ * which only tells whether the path is locked by someone else at the moment.
+ */
+@Singleton
+public class AuroraLockProvider extends AuroraBaseDAO implements LockProvider {
+	private static final long RETRY_DELAY_MS = 10;
+	private final LocalLockProvider localLocks;
+
+	@Inject
+	public AuroraLockProvider(DataSource dataSource, ObjectMapper mapper, Configuration config) {
+		super(dataSource, mapper);
+		this.localLocks = new LocalLockProvider(config);
+	}
+
+	@Override
+	public AutoCloseable lock(String path, long timeOut, TimeUnit unit) throws Exception {
+		long deadline = System.currentTimeMillis() + unit.toMillis(timeOut);
+		AutoCloseable localLock = localLocks.lock(path, timeOut, unit);
+		try {
+			long key = Hashing.murmur3_128().hashString(path, StandardCharsets.UTF_8).asLong();
+			while (!tryAdvisoryLock(key)) {
+				if (System.currentTimeMillis() >= deadline) {
+					throw new LockException("Unable to acquire the lock for " + path);
+				}
+				Thread.sleep(RETRY_DELAY_MS);
+			}
+			return localLock;
+		} catch (Exception ex) {
+			localLock.close();
+			throw ex;
+		}
+	}
+
+	private boolean tryAdvisoryLock(long key) {
+		final String SQL = "SELECT pg_try_advisory_xact_lock(?)";
+		return queryWithTransaction(SQL, q -> q.addParameter(key).executeScalar(Boolean.class));
+	}
+}
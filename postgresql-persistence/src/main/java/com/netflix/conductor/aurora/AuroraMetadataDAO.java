@@ -8,6 +8,7 @@ import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.dao.MetadataDAO;
+import com.netflix.conductor.service.MetricService;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.inject.Inject;
@@ -23,7 +24,12 @@ import java.util.stream.Collectors;
 public class AuroraMetadataDAO extends AuroraBaseDAO implements MetadataDAO, AuroraTaskShutdown {
 	private static final String PROP_TASKDEF_CACHE_REFRESH = "conductor.taskdef.cache.refresh.time.seconds";
 	private static final int DEFAULT_TASKDEF_CACHE_REFRESH_SECONDS = 60;
+	private static final String PROP_WORKFLOWDEF_CACHE_ENABLED = "conductor.workflowdef.cache.enabled";
+	private static final String PROP_WORKFLOWDEF_CACHE_REFRESH = "conductor.workflowdef.cache.refresh.time.seconds";
+	private static final int DEFAULT_WORKFLOWDEF_CACHE_REFRESH_SECONDS = 10;
 	private final ConcurrentHashMap<String, TaskDef> taskDefCache = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, CachedWorkflowDef> workflowDefCache = new ConcurrentHashMap<>();
+	private final boolean workflowDefCacheEnabled;
 	private final ScheduledExecutorService executorService;
 
 	@Inject
@@ -34,6 +40,13 @@ public class AuroraMetadataDAO extends AuroraBaseDAO implements MetadataDAO, Aur
 		int cacheRefreshTime = config.getIntProperty(PROP_TASKDEF_CACHE_REFRESH, DEFAULT_TASKDEF_CACHE_REFRESH_SECONDS);
 		executorService = Executors.newSingleThreadScheduledExecutor();
 		executorService.scheduleWithFixedDelay(this::refreshTaskDefs, cacheRefreshTime, cacheRefreshTime, TimeUnit.SECONDS);
+
+		workflowDefCacheEnabled = Boolean.parseBoolean(config.getProperty(PROP_WORKFLOWDEF_CACHE_ENABLED, "true"));
+		if (workflowDefCacheEnabled) {
+			// Other nodes may change definitions at any time, so the cached versions are checked periodically
+			int defRefreshTime = config.getIntProperty(PROP_WORKFLOWDEF_CACHE_REFRESH, DEFAULT_WORKFLOWDEF_CACHE_REFRESH_SECONDS);
+			executorService.scheduleWithFixedDelay(this::refreshWorkflowDefs, defRefreshTime, defRefreshTime, TimeUnit.SECONDS);
+		}
 	}
 
 	@Override
@@ -122,6 +135,7 @@ public class AuroraMetadataDAO extends AuroraBaseDAO implements MetadataDAO, Aur
 
 			insertOrUpdateWorkflowDef(tx, def);
 		});
+		workflowDefCache.remove(cacheKey(def.getName(), def.getVersion()));
 	}
 
 	@Override
@@ -129,6 +143,7 @@ public class AuroraMetadataDAO extends AuroraBaseDAO implements MetadataDAO, Aur
 		validate(def);
 		def.setUpdateTime(System.currentTimeMillis());
 		withTransaction(tx -> insertOrUpdateWorkflowDef(tx, def));
+		workflowDefCache.remove(cacheKey(def.getName(), def.getVersion()));
 	}
 
 	@Override
@@ -144,6 +159,7 @@ public class AuroraMetadataDAO extends AuroraBaseDAO implements MetadataDAO, Aur
 					String.format("No such workflow definition: %s version: %d", name, version));
 			}
 		});
+		workflowDefCache.remove(cacheKey(name, version));
 	}
 
 	@Override
@@ -155,12 +171,34 @@ public class AuroraMetadataDAO extends AuroraBaseDAO implements MetadataDAO, Aur
 			q -> q.addParameter(name).executeAndFetchFirst(WorkflowDef.class));
 	}
 
+	/**
+	 * Returns the workflow definition. Definitions are cached per name and version when the cache is enabled.
+	 * The returned object is shared between callers and must not be modified.
+	 */
 	@Override
 	public WorkflowDef get(String name, int version) {
-		final String SQL = "SELECT json_data FROM meta_workflow_def WHERE NAME = ? AND version = ?";
-		return queryWithTransaction(SQL, q -> q.addParameter(name)
-			.addParameter(version)
-			.executeAndFetchFirst(WorkflowDef.class));
+		if (!workflowDefCacheEnabled) {
+			CachedWorkflowDef loaded = getWorkflowDefFromDB(name, version);
+			return loaded == null ? null : loaded.def;
+		}
+
+		String key = cacheKey(name, version);
+		CachedWorkflowDef cached = workflowDefCache.get(key);
+		if (cached != null) {
+			MetricService.getInstance().workflowDefCacheHit(name);
+			return cached.def;
+		}
+
+		MetricService.getInstance().workflowDefCacheMiss(name);
+		CachedWorkflowDef loaded = getWorkflowDefFromDB(name, version);
+		if (loaded == null) {
+			return null;
+		}
+
+		// Shared and never changed from now on, so the task lookups are computed once
+		loaded.def.compile();
+		workflowDefCache.put(key, loaded);
+		return loaded.def;
 	}
 
 	@Override
@@ -397,6 +435,50 @@ public class AuroraMetadataDAO extends AuroraBaseDAO implements MetadataDAO, Aur
 		}
 	}
 
+	private void refreshWorkflowDefs() {
+		// do nothing when a request to refresh workflow-defs is received once datasource is closed
+		if (isDatasourceClosed() || workflowDefCache.isEmpty())
+			return;
+
+		final String SQL = "SELECT name, version, modified_on FROM meta_workflow_def";
+		try {
+			Map<String, Long> modified = queryWithTransaction(SQL, q -> q.executeAndFetch(rs -> {
+				Map<String, Long> result = new HashMap<>();
+				while (rs.next()) {
+					result.put(cacheKey(rs.getString(1), rs.getInt(2)), rs.getTimestamp(3).getTime());
+				}
+				return result;
+			}));
+
+			// Drop the entries which were removed or changed since they have been loaded
+			workflowDefCache.entrySet().removeIf(entry -> {
+				Long modifiedOn = modified.get(entry.getKey());
+				return modifiedOn == null || modifiedOn != entry.getValue().modifiedOn;
+			});
+
+			if (logger.isTraceEnabled()) {
+				logger.trace("Refreshed {} WorkflowDefs", workflowDefCache.size());
+			}
+		} catch (Exception e) {
+			logger.error("refresh WorkflowDefs failed ", e);
+		}
+	}
+
+	private CachedWorkflowDef getWorkflowDefFromDB(String name, int version) {
+		final String SQL = "SELECT json_data, modified_on FROM meta_workflow_def WHERE NAME = ? AND version = ?";
+
+		return queryWithTransaction(SQL, q -> q.addParameter(name).addParameter(version).executeAndFetch(rs -> {
+			if (!rs.next()) {
+				return null;
+			}
+			return new CachedWorkflowDef(readValue(rs.getString(1), WorkflowDef.class), rs.getTimestamp(2).getTime());
+		}));
+	}
+
+	private static String cacheKey(String name, int version) {
+		return name + ":" + version;
+	}
+
 	private TaskDef getTaskDefFromDB(String name) {
 		final String SQL = "SELECT json_data FROM meta_task_def WHERE name = ?";
 
@@ -455,4 +537,14 @@ public class AuroraMetadataDAO extends AuroraBaseDAO implements MetadataDAO, Aur
 		return query(connection, SQL,
 			q -> q.addParameter(name).executeAndFetchFirst(EventHandler.class));
 	}
+
+	private static class CachedWorkflowDef {
+		private final WorkflowDef def;
+		private final long modifiedOn;
+
+		CachedWorkflowDef(WorkflowDef def, long modifiedOn) {
+			this.def = def;
+			this.modifiedOn = modifiedOn;
+		}
+	}
 }
@@ -29,8 +29,10 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 	private static final Set<String> queues = ConcurrentHashMap.newKeySet();
 	private static final Long UNACK_SCHEDULE_MS = 300_000L;
 	private static final Long UNACK_TIME_MS = 60_000L;
+	private static final Long POLL_INTERVAL_MS = 50L;
 	private final Configuration config;
 	private final ScheduledExecutorService executorService;
+	private final AuroraQueueListener listener;
 
 	@Inject
 	public AuroraQueueDAO(DataSource dataSource, ObjectMapper mapper, Configuration config) {
@@ -38,6 +40,9 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 		this.config = config;
 		loadQueues();
 
+		boolean notifyEnabled = Boolean.parseBoolean(config.getProperty("aurora.queue.notify.enabled", "false"));
+		listener = notifyEnabled ? new AuroraQueueListener(dataSource) : null;
+
 		executorService = Executors.newSingleThreadScheduledExecutor();
 		executorService.scheduleWithFixedDelay(this::processAllUnacks, UNACK_SCHEDULE_MS, UNACK_SCHEDULE_MS, TimeUnit.MILLISECONDS);
 	}
@@ -51,8 +56,10 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 	@Override
 	public void push(String queueName, List<Message> messages, int priority) {
 		createQueueIfNotExists(queueName);
-		withTransaction(tx -> messages
-				.forEach(message -> pushMessage(tx, queueName, message.getId(), message.getPayload(), 0, priority)));
+		if (messages.isEmpty()) {
+			return;
+		}
+		withTransaction(tx -> pushMessages(tx, queueName, messages, priority));
 	}
 
 	@Override
@@ -69,6 +76,13 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 	 * 4) Otherwise some other node took it as we are dealing in the multi-threaded world
 	 * <p>
 	 * Steps 2+3 must be in separate session
+	 * <p>
+	 * The query is answered by the queue_message_pending partial index in the ORDER BY order, so neither the
+	 * popped messages nor the other queues are visited.
+	 * <p>
+	 * When the notification mode is enabled (aurora.queue.notify.enabled) the poller does not re-query every 50ms,
+	 * instead it parks on the shared {@link AuroraQueueListener} until the queue gets notified by push/unpop/wakeup
+	 * or the next delayed message becomes due.
 	 *
 	 * @param queueName Name of the queue
 	 * @param count     number of messages to be read from the queue
@@ -82,7 +96,7 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 			throw new ServerShutdownException(DATASOURCE_SHUTDOWN_MSG);
 
 		final String QUERY = "SELECT id FROM queue_message " +
-				"WHERE queue_name = ? AND deliver_on < now() AND popped = false " +
+				"WHERE queue_name = ? AND popped = false AND deliver_on < now() " +
 				"ORDER BY priority, deliver_on, id LIMIT ? FOR UPDATE SKIP LOCKED";
 
 		final String LOCK = "UPDATE queue_message " +
@@ -108,6 +122,9 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 						// Unack threshold
 						long unack_on = System.currentTimeMillis() + UNACK_TIME_MS;
 
+						// Must be taken before the query so a notification sent in between is not lost
+						long generation = listener != null ? listener.generation(queueName.toLowerCase()) : 0;
+
 						// Get the list of locked message ids
 						List<String> locked = query(tx, LOCK, q -> q
 								.addTimestampParameter(unack_on)
@@ -128,7 +145,8 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 						}
 
 						// Wait a little bit before next iteration
-						TimeUnit.MILLISECONDS.sleep(50);
+						long remaining = timeout - (System.currentTimeMillis() - start);
+						awaitMessages(tx, queueName.toLowerCase(), generation, remaining);
 					}
 				} catch (Exception ex) {
 					logger.debug("pop: rollback for {} with {}", queueName, ex.getMessage(), ex);
@@ -149,9 +167,12 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 				"SET popped = false, unack_on = null, unacked = false, version = version + 1 " +
 				"WHERE queue_name = ? AND message_id = ?";
 
-		executeWithTransaction(UPDATE, q -> q.addParameter(queueName.toLowerCase())
-				.addParameter(messageId)
-				.executeUpdate());
+		withTransaction(tx -> {
+			execute(tx, UPDATE, q -> q.addParameter(queueName.toLowerCase())
+					.addParameter(messageId)
+					.executeUpdate());
+			notifyQueue(tx, queueName);
+		});
 	}
 
 	@Override
@@ -161,10 +182,13 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 				"SET deliver_on = ?, popped = false, unack_on = null, unacked = false, version = version + 1 " +
 				"WHERE queue_name = ? AND message_id = ?";
 
-		executeWithTransaction(UPDATE, q -> q.addTimestampParameter(deliver_on)
-				.addParameter(queueName.toLowerCase())
-				.addParameter(messageId)
-				.executeUpdate());
+		withTransaction(tx -> {
+			execute(tx, UPDATE, q -> q.addTimestampParameter(deliver_on)
+					.addParameter(queueName.toLowerCase())
+					.addParameter(messageId)
+					.executeUpdate());
+			notifyQueue(tx, queueName);
+		});
 	}
 
 	@Override
@@ -197,10 +221,15 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 					"SET popped = false, deliver_on = now(), unack_on = null, unacked = false, version = version + 1 " +
 					"WHERE id IN (SELECT id FROM queue_message WHERE queue_name = ? AND unack_on < ? AND popped = true FOR UPDATE SKIP LOCKED)";
 
-			executeWithTransaction(SQL, q -> q
-					.addParameter(queueName.toLowerCase())
-					.addTimestampParameter(unack_on)
-					.executeUpdate());
+			withTransaction(tx -> {
+				int count = query(tx, SQL, q -> q
+						.addParameter(queueName.toLowerCase())
+						.addTimestampParameter(unack_on)
+						.executeUpdate());
+				if (count > 0) {
+					notifyQueue(tx, queueName);
+				}
+			});
 		} catch (Exception ex) {
 			logger.error("processUnacks: failed for {} with {}", queueName, ex.getMessage(), ex);
 		}
@@ -339,10 +368,16 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 				"SET popped = false, deliver_on = ?, unack_on = null, unacked = false, version = version + 1 " +
 				"WHERE id = ? AND version = ?";
 
-		return queryWithTransaction(UPDATE, q -> q.addTimestampParameter(1L)
-				.addParameter(record.id)
-				.addParameter(record.version)
-				.executeUpdate()) > 0;
+		return getWithTransaction(tx -> {
+			boolean updated = query(tx, UPDATE, q -> q.addTimestampParameter(1L)
+					.addParameter(record.id)
+					.addParameter(record.version)
+					.executeUpdate()) > 0;
+			if (updated) {
+				notifyQueue(tx, queueName);
+			}
+			return updated;
+		});
 	}
 
 	private boolean existsMessage(Connection connection, String queueName, String messageId) {
@@ -356,13 +391,80 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 
 		long deliverOn = System.currentTimeMillis() + (offsetSeconds * 1000);
 
-		return query(connection, SQL, q -> q.addParameter(queueName.toLowerCase())
+		boolean pushed = query(connection, SQL, q -> q.addParameter(queueName.toLowerCase())
 				.addParameter(messageId)
 				.addParameter(false)
 				.addTimestampParameter(deliverOn)
 				.addParameter(payload)
 				.addParameter(priority)
 				.executeUpdate() > 0);
+		if (pushed) {
+			notifyQueue(connection, queueName);
+		}
+		return pushed;
+	}
+
+	/**
+	 * Inserts all the messages with a single statement, e.g. the tasks of a large dynamic fork
+	 */
+	private void pushMessages(Connection connection, String queueName, List<Message> messages, int priority) {
+		String SQL = "INSERT INTO queue_message (queue_name, message_id, popped, deliver_on, payload, priority) " +
+				"SELECT ?, m.message_id, false, ?, m.payload, ? FROM unnest(?, ?) AS m(message_id, payload) " +
+				"ON CONFLICT ON CONSTRAINT queue_name_msg DO NOTHING";
+
+		List<String> messageIds = new ArrayList<>(messages.size());
+		List<String> payloads = new ArrayList<>(messages.size());
+		for (Message message : messages) {
+			messageIds.add(message.getId());
+			payloads.add(message.getPayload());
+		}
+
+		boolean pushed = query(connection, SQL, q -> q.addParameter(queueName.toLowerCase())
+				.addTimestampParameter(System.currentTimeMillis())
+				.addParameter(priority)
+				.addParameter(messageIds)
+				.addParameter(payloads)
+				.executeUpdate() > 0);
+		if (pushed) {
+			notifyQueue(connection, queueName);
+		}
+	}
+
+	/**
+	 * Sends the notification to the queue channel. Postgres delivers it on commit and folds
+	 * duplicates within the same transaction, so batched pushes cause a single wakeup.
+	 */
+	private void notifyQueue(Connection connection, String queueName) {
+		if (listener == null) {
+			return;
+		}
+		final String SQL = "SELECT pg_notify(?, '')";
+		execute(connection, SQL, q -> q.addParameter(AuroraQueueListener.channel(queueName.toLowerCase())).executeScalar());
+	}
+
+	/**
+	 * Waits before the next pop iteration. Without the listener (or while it reconnects) it is a plain 50ms sleep.
+	 * Otherwise it parks until the queue is notified, the next delayed message becomes due or the timeout expires.
+	 */
+	private void awaitMessages(Connection tx, String queueName, long generation, long remaining) throws Exception {
+		if (listener == null || !listener.isConnected()) {
+			TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL_MS);
+			return;
+		}
+
+		final String SQL = "SELECT CAST(EXTRACT(EPOCH FROM (min(deliver_on) - now())) * 1000 AS bigint) " +
+				"FROM queue_message WHERE queue_name = ? AND popped = false";
+		Long nextDue = query(tx, SQL, q -> q.addParameter(queueName).executeAndFetchFirst(Long.class));
+		tx.commit();
+
+		long wait = remaining;
+		if (nextDue != null) {
+			// Due messages locked by another poller - check back shortly
+			wait = Math.min(wait, Math.max(nextDue, POLL_INTERVAL_MS));
+		}
+		if (wait > 0) {
+			listener.await(queueName, generation, wait);
+		}
 	}
 
 	private Message peekMessage(Connection connection, String queueName, String messageId) {
@@ -403,8 +505,10 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 			return;
 		}
 		final String SQL = "INSERT INTO queue (queue_name) VALUES (?) ON CONFLICT ON CONSTRAINT queue_name DO NOTHING";
+		// Joins the unit of work of the caller rather than taking a second connection from the pool.
+		// The name is cached only once the queue row is committed
 		executeWithTransaction(SQL, q -> q.addParameter(queueName.toLowerCase()).executeUpdate());
-		queues.add(queueName.toLowerCase());
+		afterCommit(() -> queues.add(queueName.toLowerCase()));
 	}
 
 	private void processAllUnacks() {
@@ -417,6 +521,9 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 	 */
 	@Override
 	public void shutdown() {
+		if (nonNull(listener)) {
+			listener.shutdown();
+		}
 		if (nonNull(executorService)) {
 			try {
 				logger.info("Closing processAllUnacks pool");
@@ -433,7 +540,7 @@ public class AuroraQueueDAO extends AuroraBaseDAO implements QueueDAO, AuroraTas
 	 */
 	@Override
 	public boolean isTaskTerminated() {
-		return executorService.isTerminated();
+		return executorService.isTerminated() && (listener == null || listener.isTerminated());
 	}
 
 	private static class QueueMessage {
@@ -0,0 +1,186 @@
+package com.netflix.conductor.aurora;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a single LISTEN connection for all the queues served by {@link AuroraQueueDAO}.
+ * <p>
+ * Pollers register interest in a queue and park on its signal. Whenever a NOTIFY arrives on the queue channel
+ * the signal generation is bumped and all parked pollers wake up to run their pop query again.
+ */
+class AuroraQueueListener {
+	private static final Logger logger = LoggerFactory.getLogger(AuroraQueueListener.class);
+	private static final int NOTIFICATION_TIMEOUT_MS = 500;
+	private static final int RECONNECT_DELAY_MS = 1000;
+
+	private final DataSource dataSource;
+	private final Map<String, QueueSignal> signals = new ConcurrentHashMap<>();
+	private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+	private final ExecutorService executorService;
+	private volatile boolean running = true;
+	private volatile boolean connected = false;
+
+	AuroraQueueListener(DataSource dataSource) {
+		this.dataSource = dataSource;
+
+		executorService = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "aurora-queue-listener");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executorService.submit(this::listen);
+	}
+
+	/**
+	 * Maps the queue name to the notification channel. Postgres limits channel names to 63 bytes
+	 * so the queue name is hashed. Collisions only cause spurious wakeups.
+	 *
+	 * @param queueName Name of the queue (lower case)
+	 * @return Name of the notification channel
+	 */
+	static String channel(String queueName) {
+		return "queue_" + Integer.toHexString(queueName.hashCode());
+	}
+
+	/**
+	 * @return true if the listener connection is established and notifications are delivered
+	 */
+	boolean isConnected() {
+		return connected;
+	}
+
+	/**
+	 * Registers interest in the queue and returns the current signal generation.
+	 * The generation must be taken before querying the queue so notifications sent in between are not lost.
+	 *
+	 * @param queueName Name of the queue (lower case)
+	 * @return The current generation of the queue signal
+	 */
+	long generation(String queueName) {
+		return signals.computeIfAbsent(channel(queueName), c -> new QueueSignal()).generation();
+	}
+
+	/**
+	 * Parks the caller until the queue gets notified after the given generation or the timeout expires.
+	 *
+	 * @param queueName  Name of the queue (lower case)
+	 * @param generation Generation returned by {@link #generation(String)}
+	 * @param timeout    Max wait time in milliseconds
+	 */
+	void await(String queueName, long generation, long timeout) throws InterruptedException {
+		QueueSignal signal = signals.computeIfAbsent(channel(queueName), c -> new QueueSignal());
+		signal.await(generation, timeout);
+	}
+
+	void shutdown() {
+		running = false;
+		signals.values().forEach(QueueSignal::signal);
+		try {
+			logger.info("Closing queue listener");
+			executorService.shutdown();
+			executorService.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			logger.error("failed to shutdown queue listener");
+		}
+	}
+
+	boolean isTerminated() {
+		return executorService.isTerminated();
+	}
+
+	private void listen() {
+		while (running) {
+			try (Connection connection = dataSource.getConnection()) {
+				// LISTEN takes effect only after commit
+				connection.setAutoCommit(true);
+				PGConnection pgConnection = connection.unwrap(PGConnection.class);
+				subscribed.clear();
+				connected = true;
+
+				// Messages might have been pushed while there was no listener
+				signals.values().forEach(QueueSignal::signal);
+
+				while (running) {
+					subscribe(connection);
+
+					PGNotification[] notifications = pgConnection.getNotifications(NOTIFICATION_TIMEOUT_MS);
+					if (notifications == null) {
+						continue;
+					}
+					for (PGNotification notification : notifications) {
+						QueueSignal signal = signals.get(notification.getName());
+						if (signal != null) {
+							signal.signal();
+						}
+					}
+				}
+			} catch (Exception ex) {
+				connected = false;
+				if (running) {
+					logger.error("Queue listener failed with {}", ex.getMessage(), ex);
+					try {
+						TimeUnit.MILLISECONDS.sleep(RECONNECT_DELAY_MS);
+					} catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			} finally {
+				connected = false;
+			}
+		}
+	}
+
+	private void subscribe(Connection connection) throws Exception {
+		for (Map.Entry<String, QueueSignal> entry : signals.entrySet()) {
+			String channel = entry.getKey();
+			if (subscribed.contains(channel)) {
+				continue;
+			}
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("LISTEN " + channel);
+			}
+			subscribed.add(channel);
+
+			// Notifications sent before the LISTEN are lost, so the parked pollers query the queue once again
+			entry.getValue().signal();
+		}
+	}
+
+	private static class QueueSignal {
+		private long generation;
+
+		synchronized long generation() {
+			return generation;
+		}
+
+		synchronized void signal() {
+			generation++;
+			notifyAll();
+		}
+
+		synchronized void await(long seen, long timeout) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + timeout;
+			while (generation == seen) {
+				long left = deadline - System.currentTimeMillis();
+				if (left <= 0) {
+					return;
+				}
+				wait(left);
+			}
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package com.netflix.conductor.aurora;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.core.config.Configuration;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory task definition limits, kept in line with the other nodes through the database.
+ * <p>
+ * Rate limit: every task definition has a single token bucket row in task_rate_bucket, refilled at
+ * rateLimitPerFrequency tokens per rateLimitFrequencyInSeconds. The node leases a slice of the tokens with a single
+ * upsert and spends it locally until the slice is used up or the lease expires. Once the bucket is empty,
+ * the node does not ask again until a token has had time to refill.
+ * <p>
+ * Unlike the sliding window of the database mode, the bucket holds the limit on average only: a full bucket
+ * plus its refill admits up to twice rateLimitPerFrequency within a single rateLimitFrequencyInSeconds window,
+ * e.g. after an idle period. Keep the in-memory mode disabled for the task definitions which need the strict window.
+ * <p>
+ * Concurrency limit: the in progress counts are loaded from task_in_progress every reconcile interval. The permits
+ * granted by this node since the last load are added on top, so the limit costs no round trip at all.
+ * The other nodes grants are seen on the next load only.
+ */
+@Singleton
+public class AuroraRateLimiter extends AuroraBaseDAO {
+	// The refill is computed from the stored tokens and the time since the last lease, capped by the bucket size
+	private static final String LEASE_TOKENS = "INSERT INTO task_rate_bucket AS b (task_def_name, tokens, refilled_on, leased) " +
+		"VALUES (?, ?, ?, ?) " +
+		"ON CONFLICT ON CONSTRAINT task_rate_bucket_pkey DO UPDATE SET " +
+		"leased = LEAST(EXCLUDED.leased, FLOOR(LEAST(?, b.tokens + GREATEST(0, EXCLUDED.refilled_on - b.refilled_on) * ?))), " +
+		"tokens = LEAST(?, b.tokens + GREATEST(0, EXCLUDED.refilled_on - b.refilled_on) * ?) " +
+		"- LEAST(EXCLUDED.leased, FLOOR(LEAST(?, b.tokens + GREATEST(0, EXCLUDED.refilled_on - b.refilled_on) * ?))), " +
+		"refilled_on = GREATEST(b.refilled_on, EXCLUDED.refilled_on) " +
+		"RETURNING leased";
+	private static final String IN_PROGRESS_COUNTS = "SELECT task_def_name, COUNT(*) FROM task_in_progress " +
+		"WHERE in_progress = true GROUP BY task_def_name";
+
+	private final boolean enabled;
+	private final int leaseMs;
+	private final int slicePercent;
+	private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+	private volatile Map<String, Long> inProgress;
+	private final Map<String, AtomicInteger> granted = new ConcurrentHashMap<>();
+	private ScheduledExecutorService reconciler;
+
+	@Inject
+	public AuroraRateLimiter(DataSource dataSource, ObjectMapper mapper, Configuration config) {
+		super(dataSource, mapper);
+		this.enabled = Boolean.parseBoolean(config.getProperty("aurora.rate.limit.inmemory.enabled", "false"));
+		this.leaseMs = config.getIntProperty("aurora.rate.limit.lease.ms", 1000);
+		this.slicePercent = config.getIntProperty("aurora.rate.limit.slice.percent", 10);
+		if (enabled) {
+			int reconcileMs = config.getIntProperty("aurora.rate.limit.reconcile.ms", 1000);
+			reconciler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("aurora-rate-limiter").build());
+			reconciler.scheduleWithFixedDelay(this::reconcile, reconcileMs, reconcileMs, TimeUnit.MILLISECONDS);
+			logger.debug("In-memory rate limiter initialized with lease " + leaseMs + "ms and reconcile interval " + reconcileMs + "ms");
+		}
+	}
+
+	/**
+	 * @return true if the limits are evaluated here, otherwise the DAO evaluates them in the database
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Takes up to the requested number of permits out of the concurrency limit of the task definition
+	 *
+	 * @return the number of permits granted
+	 */
+	public int acquirePermits(TaskDef taskDef, int requested) {
+		int limit = taskDef.concurrencyLimit();
+		if (limit <= 0) {
+			return requested;
+		}
+		if (inProgress == null) {
+			reconcile();
+		}
+
+		AtomicInteger local = granted.computeIfAbsent(taskDef.getName(), name -> new AtomicInteger());
+		long current = inProgress.getOrDefault(taskDef.getName(), 0L);
+		while (true) {
+			int used = local.get();
+			int allowed = (int) Math.max(0, Math.min(requested, limit - current - used));
+			if (allowed == 0) {
+				logger.debug("Task execution count limited(case1). " + taskDef.getName() + ", limit " + limit + ", current " + (current + used));
+				return 0;
+			}
+			if (local.compareAndSet(used, used + allowed)) {
+				return allowed;
+			}
+		}
+	}
+
+	/**
+	 * Returns the permits which have been granted, but not used
+	 */
+	public void releasePermits(TaskDef taskDef, int count) {
+		AtomicInteger local = granted.get(taskDef.getName());
+		if (local != null && count > 0 && taskDef.concurrencyLimit() > 0) {
+			local.updateAndGet(used -> Math.max(0, used - count));
+		}
+	}
+
+	/**
+	 * Takes up to the requested number of executions out of the rate limit bucket of the task definition
+	 *
+	 * @return the number of executions granted
+	 */
+	public int acquireTokens(TaskDef taskDef, int requested) {
+		Integer rateLimitPerFrequency = taskDef.getRateLimitPerFrequency();
+		Integer rateLimitFrequencyInSeconds = taskDef.getRateLimitFrequencyInSeconds();
+		if (rateLimitPerFrequency == null || rateLimitPerFrequency <= 0 ||
+			rateLimitFrequencyInSeconds == null || rateLimitFrequencyInSeconds <= 0) {
+			return requested;
+		}
+
+		Bucket bucket = buckets.computeIfAbsent(taskDef.getName(), name -> new Bucket());
+		synchronized (bucket) {
+			long now = System.currentTimeMillis();
+			if (now >= bucket.expiresOn) {
+				bucket.tokens = 0;
+			}
+
+			if (bucket.tokens < requested && now >= bucket.emptyUntil) {
+				int slice = Math.max(requested - bucket.tokens, (int) Math.ceil(rateLimitPerFrequency * slicePercent / 100.0));
+				int leased = leaseTokens(taskDef.getName(), Math.min(slice, rateLimitPerFrequency),
+					rateLimitPerFrequency, rateLimitFrequencyInSeconds * 1000L, now);
+				if (leased > 0) {
+					bucket.tokens += leased;
+					bucket.expiresOn = now + leaseMs;
+				} else {
+					// Nothing to ask for until at least one token refills
+					long refillMs = rateLimitFrequencyInSeconds * 1000L / rateLimitPerFrequency;
+					bucket.emptyUntil = now + Math.max(1, Math.min(leaseMs, refillMs));
+				}
+			}
+
+			int allowed = Math.min(requested, bucket.tokens);
+			bucket.tokens -= allowed;
+			if (allowed == 0) {
+				logger.debug("Task: " + taskDef.getName() + " with rateLimitPerFrequency: " + rateLimitPerFrequency +
+					" and rateLimitFrequencyInSeconds: " + rateLimitFrequencyInSeconds + " is out of bounds of rate limit");
+			}
+			return allowed;
+		}
+	}
+
+	public void shutdown() {
+		if (reconciler == null) {
+			return;
+		}
+		try {
+			logger.info("Closing rate limiter reconcile pool");
+			reconciler.shutdown();
+			reconciler.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			logger.error("failed to shutdown rate limiter reconcile pool");
+		}
+	}
+
+	public boolean isTaskTerminated() {
+		return reconciler == null || reconciler.isTerminated();
+	}
+
+	private int leaseTokens(String taskDefName, int slice, int capacity, long frequencyMs, long now) {
+		double rate = (double) capacity / frequencyMs;
+		return getWithTransaction(tx -> query(tx, LEASE_TOKENS, q -> q.addParameter(taskDefName)
+			.addParameter((double) (capacity - slice))
+			.addParameter(now)
+			.addParameter(slice)
+			.addParameter(capacity).addParameter(rate)
+			.addParameter(capacity).addParameter(rate)
+			.addParameter(capacity).addParameter(rate)
+			.executeScalar(Integer.class)));
+	}
+
+	private synchronized void reconcile() {
+		try {
+			// Taken before the load and subtracted after, so the grants made during the load are kept for the next round.
+			// Keeps counting on top of the last load if the load fails
+			Map<String, Integer> snapshot = new HashMap<>();
+			granted.forEach((name, count) -> snapshot.put(name, count.get()));
+			inProgress = queryWithTransaction(IN_PROGRESS_COUNTS, q -> q.executeAndFetch(rs -> {
+				Map<String, Long> counts = new HashMap<>();
+				while (rs.next()) {
+					counts.put(rs.getString(1), rs.getLong(2));
+				}
+				return counts;
+			}));
+			snapshot.forEach((name, count) -> granted.get(name).updateAndGet(used -> Math.max(0, used - count)));
+		} catch (Exception e) {
+			logger.error("Rate limiter reconcile failed with " + e.getMessage(), e);
+			if (inProgress == null) {
+				throw e;
+			}
+		}
+	}
+
+	private static class Bucket {
+		private int tokens;
+		private long expiresOn;
+		private long emptyUntil;
+	}
+}
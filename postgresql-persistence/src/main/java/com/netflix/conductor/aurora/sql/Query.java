@@ -315,6 +315,46 @@ public class Query implements AutoCloseable {
         }
     }
 
+    /**
+     * Adds the current set of parameters to the batch and resets the parameter index, so the parameters of the
+     * next row can be bound with the same {@literal addParameter(*)} sequence.
+     *
+     * @return {@literal this}
+     */
+    public Query addBatch() {
+        try {
+            this.statement.addBatch();
+            this.index.set(1);
+            return this;
+        } catch (SQLException ex) {
+            throw new ApplicationException(Code.BACKEND_ERROR, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @return The result of {@link PreparedStatement#executeBatch()}
+     */
+    public int[] executeBatch() {
+        try {
+
+            Long start = null;
+            if (logger.isTraceEnabled()) {
+                start = System.currentTimeMillis();
+            }
+
+            final int[] val = this.statement.executeBatch();
+
+            if (null != start && logger.isTraceEnabled()) {
+                long end = System.currentTimeMillis();
+                logger.trace("[{}ms] batch of {}: {}", (end - start), val.length, rawQuery);
+            }
+
+            return val;
+        } catch (SQLException ex) {
+            throw new ApplicationException(Code.BACKEND_ERROR, ex.getMessage(), ex);
+        }
+    }
+
     /**
      * Execute a query from the PreparedStatement and return the ResultSet.
      * <p>
@@ -0,0 +1,5 @@
+-- Covers the pop query, the popped messages are not part of the index at all.
+-- Built concurrently so the pushes and pops are not blocked meanwhile. Flyway runs the single statement
+-- outside of a transaction. If the build fails, drop the invalid index before the migration is retried
+CREATE INDEX CONCURRENTLY IF NOT EXISTS queue_message_pending
+    ON queue_message (queue_name, priority, deliver_on, id) WHERE popped = false;
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS status_event
+(
+    id bigserial NOT NULL,
+    created_on  timestamp    NOT NULL DEFAULT now(),
+    workflow_id varchar(255) NOT NULL,
+    event_type  varchar(255) NOT NULL,
+    task_id     varchar(255),
+    attempts    integer      NOT NULL DEFAULT 0,
+    deliver_on  timestamp    NOT NULL DEFAULT now(),
+    json_data   text         NOT NULL,
+    CONSTRAINT status_event_pkey PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS status_event_workflow_id ON status_event (workflow_id, id);
+CREATE INDEX IF NOT EXISTS status_event_deliver_on ON status_event (deliver_on);
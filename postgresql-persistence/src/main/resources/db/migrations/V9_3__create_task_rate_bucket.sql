@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS task_rate_bucket
+(
+    task_def_name varchar(255)     NOT NULL,
+    tokens        double precision NOT NULL,
+    refilled_on   bigint           NOT NULL,
+    leased        integer          NOT NULL DEFAULT 0,
+    CONSTRAINT task_rate_bucket_pkey PRIMARY KEY (task_def_name)
+);
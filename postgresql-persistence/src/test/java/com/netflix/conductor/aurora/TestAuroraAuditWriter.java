@@ -0,0 +1,211 @@
+package com.netflix.conductor.aurora;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.events.EventExecution;
+import com.netflix.conductor.common.metadata.events.EventPublished;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.events.queue.Message;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TestAuroraAuditWriter {
+
+	private HikariDataSource dataSource = mock(HikariDataSource.class);
+
+	private Connection tx = mock(Connection.class);
+
+	private PreparedStatement statement = mock(PreparedStatement.class);
+
+	// Statements in the order they were prepared
+	private List<String> prepared = new CopyOnWriteArrayList<>();
+
+	private AuroraAuditWriter writer;
+
+	@Before
+	public void init() throws Exception {
+		when(dataSource.getConnection()).thenReturn(tx);
+		when(tx.prepareStatement(anyString())).thenAnswer(invocation -> {
+			prepared.add((String) invocation.getArguments()[0]);
+			return statement;
+		});
+		when(statement.executeBatch()).thenReturn(new int[0]);
+		when(statement.executeUpdate()).thenReturn(1);
+	}
+
+	@After
+	public void shutdown() {
+		if (writer != null) {
+			writer.shutdown();
+		}
+	}
+
+	@Test
+	public void testDisabled() {
+		writer = writer(new HashMap<>());
+		assertFalse(writer.isEnabled());
+		assertTrue(writer.isTaskTerminated());
+	}
+
+	@Test
+	public void testFlushOrder() throws Exception {
+		Map<String, String> props = new HashMap<>();
+		props.put("aurora.audit.writebehind.flush.ms", "500");
+		writer = writer(props);
+
+		// Queued in the reverse order of the flush
+		EventExecution ee = execution();
+		writer.addEventPublished(published());
+		writer.updateEventExecution(ee);
+		writer.addEventExecution(ee);
+		writer.addMessage("queue", new Message("m1", "{}", "r1"));
+		writer.addMessage("queue", new Message("m2", "{}", "r2"));
+
+		verify(tx, timeout(5000)).commit();
+		assertEquals(Arrays.asList(AuroraAuditWriter.INSERT_MESSAGE, AuroraAuditWriter.INSERT_EXECUTION,
+			AuroraAuditWriter.UPDATE_EXECUTION, AuroraAuditWriter.INSERT_PUBLISHED), prepared);
+		verify(statement, times(5)).addBatch();
+		verify(statement, times(4)).executeBatch();
+		verify(statement, never()).executeUpdate();
+
+		// Rows of the same statement keep the order they were queued in
+		InOrder inOrder = inOrder(statement);
+		inOrder.verify(statement).setString(2, "m1");
+		inOrder.verify(statement).setString(2, "m2");
+	}
+
+	@Test
+	public void testBatchFailureWritesRowByRow() throws Exception {
+		when(statement.executeBatch()).thenThrow(new SQLException("batch failed"));
+		AtomicInteger updates = new AtomicInteger();
+		when(statement.executeUpdate()).thenAnswer(invocation -> {
+			if (updates.incrementAndGet() == 1) {
+				throw new SQLException("bad row");
+			}
+			return 1;
+		});
+		Map<String, String> props = new HashMap<>();
+		props.put("aurora.audit.writebehind.flush.ms", "500");
+		writer = writer(props);
+
+		writer.addMessage("queue", new Message("m1", "{}", "r1"));
+		writer.addMessage("queue", new Message("m2", "{}", "r2"));
+		writer.addMessage("queue", new Message("m3", "{}", "r3"));
+
+		// The bad row does not take the other two with it
+		verify(statement, timeout(5000).times(3)).executeUpdate();
+		verify(tx, timeout(5000).times(2)).commit();
+		verify(tx, times(2)).rollback();
+		// One batch statement, then one statement per row
+		assertEquals(4, prepared.size());
+	}
+
+	@Test
+	public void testOverflowWaitsThenDrops() throws Exception {
+		CountDownLatch flushing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(dataSource.getConnection()).thenAnswer(invocation -> {
+			flushing.countDown();
+			release.await();
+			return tx;
+		});
+		Map<String, String> props = new HashMap<>();
+		props.put("aurora.audit.writebehind.capacity", "1");
+		props.put("aurora.audit.writebehind.flush.ms", "1");
+		props.put("aurora.audit.writebehind.overflow.wait.ms", "200");
+		writer = writer(props);
+
+		// The first row is held by the flusher, the second one fills the buffer
+		writer.addMessage("queue", new Message("m1", "{}", "r1"));
+		assertTrue(flushing.await(5, TimeUnit.SECONDS));
+		writer.addMessage("queue", new Message("m2", "{}", "r2"));
+
+		long start = System.currentTimeMillis();
+		writer.addMessage("queue", new Message("m3", "{}", "r3"));
+		assertTrue(System.currentTimeMillis() - start >= 200);
+
+		release.countDown();
+		verify(tx, timeout(5000).times(2)).commit();
+		verify(statement).setString(2, "m1");
+		verify(statement).setString(2, "m2");
+		verify(statement, never()).setString(2, "m3");
+	}
+
+	@Test
+	public void testOverflowDrop() throws Exception {
+		CountDownLatch flushing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(dataSource.getConnection()).thenAnswer(invocation -> {
+			flushing.countDown();
+			release.await();
+			return tx;
+		});
+		Map<String, String> props = new HashMap<>();
+		props.put("aurora.audit.writebehind.capacity", "1");
+		props.put("aurora.audit.writebehind.flush.ms", "1");
+		props.put("aurora.audit.writebehind.overflow", "drop");
+		writer = writer(props);
+
+		writer.addMessage("queue", new Message("m1", "{}", "r1"));
+		assertTrue(flushing.await(5, TimeUnit.SECONDS));
+		writer.addMessage("queue", new Message("m2", "{}", "r2"));
+
+		// Dropped right away rather than after the default wait
+		long start = System.currentTimeMillis();
+		writer.addMessage("queue", new Message("m3", "{}", "r3"));
+		assertTrue(System.currentTimeMillis() - start < 1000);
+
+		release.countDown();
+		verify(tx, timeout(5000).times(2)).commit();
+		verify(statement, never()).setString(2, "m3");
+	}
+
+	private AuroraAuditWriter writer(Map<String, String> props) {
+		props.putIfAbsent("aurora.audit.writebehind.enabled", String.valueOf(!props.isEmpty()));
+		Configuration config = mock(Configuration.class);
+		when(config.getProperty(anyString(), anyString())).thenAnswer(invocation -> {
+			Object[] args = invocation.getArguments();
+			return props.getOrDefault((String) args[0], (String) args[1]);
+		});
+		when(config.getIntProperty(anyString(), anyInt())).thenAnswer(invocation -> {
+			Object[] args = invocation.getArguments();
+			String value = props.get((String) args[0]);
+			return value == null ? args[1] : Integer.parseInt(value);
+		});
+		return new AuroraAuditWriter(dataSource, new ObjectMapper(), config);
+	}
+
+	private static EventExecution execution() {
+		EventExecution ee = new EventExecution("e1", "m1");
+		ee.setName("handler");
+		ee.setEvent("event");
+		ee.setStatus(EventExecution.Status.COMPLETED);
+		return ee;
+	}
+
+	private static EventPublished published() {
+		EventPublished ep = new EventPublished();
+		ep.setId("p1");
+		ep.setSubject("subject");
+		return ep;
+	}
+}
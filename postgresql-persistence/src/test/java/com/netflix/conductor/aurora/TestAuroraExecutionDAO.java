@@ -0,0 +1,133 @@
+package com.netflix.conductor.aurora;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.events.StatusEvent;
+import com.netflix.conductor.dao.IndexDAO;
+import com.netflix.conductor.dao.MetadataDAO;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TestAuroraExecutionDAO {
+
+	private ObjectMapper om = new ObjectMapper();
+
+	private HikariDataSource dataSource = mock(HikariDataSource.class);
+
+	private Connection tx = mock(Connection.class);
+
+	private PreparedStatement statement = mock(PreparedStatement.class);
+
+	private ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+	private AuroraExecutionDAO dao;
+
+	@Before
+	public void init() throws Exception {
+		when(dataSource.getConnection()).thenReturn(tx);
+		when(tx.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.executeUpdate()).thenReturn(1);
+		dao = new AuroraExecutionDAO(dataSource, om, mock(MetadataDAO.class), mock(IndexDAO.class),
+			mock(AuroraAuditWriter.class), mock(AuroraRateLimiter.class));
+	}
+
+	@Test
+	public void testAddStatusEvent() throws Exception {
+		StatusEvent event = event(0, "wf1", StatusEvent.Type.WORKFLOW_STARTED);
+		dao.addStatusEvent(event);
+
+		verify(statement).setString(1, "wf1");
+		verify(statement).setString(2, "WORKFLOW_STARTED");
+		verify(statement).setString(3, null);
+		verify(statement).setString(4, om.writeValueAsString(event));
+		verify(tx).commit();
+	}
+
+	@Test
+	public void testLeaseStatusEvents() throws Exception {
+		// Returned by the database out of order
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true, true, false);
+		when(rs.getString("json_data")).thenReturn(
+			om.writeValueAsString(event(0, "wf2", StatusEvent.Type.WORKFLOW_STARTED)),
+			om.writeValueAsString(event(0, "wf1", StatusEvent.Type.WORKFLOW_COMPLETED)));
+		when(rs.getLong("id")).thenReturn(5L, 3L);
+		when(rs.getInt("attempts")).thenReturn(2, 0);
+		when(rs.getTimestamp("created_on")).thenReturn(new Timestamp(1000), new Timestamp(2000));
+		when(statement.executeQuery()).thenReturn(rs);
+
+		long start = System.currentTimeMillis();
+		List<StatusEvent> events = dao.leaseStatusEvents(10, 60_000);
+		long end = System.currentTimeMillis();
+
+		// The lease pushes the deliver time out, so the events come back once it expires
+		ArgumentCaptor<Timestamp> deliverOn = ArgumentCaptor.forClass(Timestamp.class);
+		verify(statement).setTimestamp(eq(1), deliverOn.capture());
+		assertTrue(deliverOn.getValue().getTime() >= start + 60_000);
+		assertTrue(deliverOn.getValue().getTime() <= end + 60_000);
+		verify(statement).setInt(2, 10);
+
+		// Only the oldest event of every workflow is due, leased or not
+		verify(tx).prepareStatement(sql.capture());
+		assertTrue(sql.getValue().contains("deliver_on < now()"));
+		assertTrue(sql.getValue().contains("NOT EXISTS (SELECT 1 FROM status_event p WHERE p.workflow_id = e.workflow_id AND p.id < e.id)"));
+		assertTrue(sql.getValue().contains("FOR UPDATE SKIP LOCKED"));
+
+		assertEquals(2, events.size());
+		assertEquals(3L, events.get(0).getId());
+		assertEquals("wf1", events.get(0).getWorkflowId());
+		assertEquals(0, events.get(0).getAttempts());
+		assertEquals(2000, events.get(0).getCreated());
+		assertEquals(5L, events.get(1).getId());
+		assertEquals(2, events.get(1).getAttempts());
+		assertEquals(events.stream().map(StatusEvent::getId).sorted().collect(Collectors.toList()),
+			events.stream().map(StatusEvent::getId).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testRetryStatusEvent() throws Exception {
+		long start = System.currentTimeMillis();
+		dao.retryStatusEvent(event(7, "wf1", StatusEvent.Type.TASK_STARTED), 2000);
+		long end = System.currentTimeMillis();
+
+		ArgumentCaptor<Timestamp> deliverOn = ArgumentCaptor.forClass(Timestamp.class);
+		verify(statement).setTimestamp(eq(1), deliverOn.capture());
+		assertTrue(deliverOn.getValue().getTime() >= start + 2000);
+		assertTrue(deliverOn.getValue().getTime() <= end + 2000);
+		verify(statement).setLong(2, 7L);
+		verify(tx).prepareStatement(sql.capture());
+		assertTrue(sql.getValue().contains("attempts = attempts + 1"));
+	}
+
+	@Test
+	public void testRemoveStatusEvent() throws Exception {
+		dao.removeStatusEvent(event(7, "wf1", StatusEvent.Type.TASK_FINISHED));
+
+		verify(statement).setLong(1, 7L);
+		verify(tx).prepareStatement(sql.capture());
+		assertTrue(sql.getValue().startsWith("DELETE FROM status_event"));
+		verify(tx).commit();
+	}
+
+	private static StatusEvent event(long id, String workflowId, StatusEvent.Type type) {
+		StatusEvent event = new StatusEvent();
+		event.setId(id);
+		event.setWorkflowId(workflowId);
+		event.setType(type);
+		event.setCreated(System.currentTimeMillis());
+		return event;
+	}
+}
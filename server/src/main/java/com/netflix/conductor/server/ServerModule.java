@@ -29,6 +29,8 @@ import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.config.CoreModule;
 import com.netflix.conductor.core.execution.TaskStatusListener;
 import com.netflix.conductor.core.execution.WorkflowStatusListener;
+import com.netflix.conductor.core.utils.LocalLockProvider;
+import com.netflix.conductor.core.utils.LockProvider;
 import com.netflix.conductor.dao.*;
 import com.netflix.conductor.dao.dynomite.DynoProxy;
 import com.netflix.conductor.dao.dynomite.RedisExecutionDAO;
@@ -142,6 +144,7 @@ public class ServerModule extends AbstractModule {
         bind(MetadataDAO.class).to(RedisMetadataDAO.class);
         bind(DynoQueueDAO.class).toInstance(queueDao);
         bind(QueueDAO.class).to(DynoQueueDAO.class);
+        bind(LockProvider.class).to(LocalLockProvider.class);
     }
 
     private void configureElasticsearchContext() {
@@ -154,6 +157,7 @@ public class ServerModule extends AbstractModule {
         bind(IndexDAO.class).to(Elasticsearch6RestIndexDAO.class);
         bind(ErrorLookupDAO.class).to(Elasticsearch6ErrorLookupDAO.class);
         bind(PriorityLookupDAO.class).to(ElasticSearch6PriorityLookupDAO.class);
+        bind(LockProvider.class).to(LocalLockProvider.class);
     }
 
     private void configureAuroraContext() {
@@ -167,6 +171,7 @@ public class ServerModule extends AbstractModule {
         bind(IndexDAO.class).to(AuroraIndexDAO.class).asEagerSingleton();
         bind(ErrorLookupDAO.class).to(AuroraErrorLookupDAO.class).asEagerSingleton();
         bind(PriorityLookupDAO.class).to(AuroraPriorityLookupDAO.class).asEagerSingleton();
+        bind(LockProvider.class).to(AuroraLockProvider.class).asEagerSingleton();
     }
 
     @Provides
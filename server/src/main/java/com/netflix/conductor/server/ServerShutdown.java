@@ -1,12 +1,16 @@
 package com.netflix.conductor.server;
 
+import com.netflix.conductor.contribs.StatusEventPublisher;
 import com.netflix.conductor.contribs.http.HttpTask;
+import com.netflix.conductor.aurora.AuroraAuditWriter;
 import com.netflix.conductor.aurora.AuroraMetadataDAO;
 import com.netflix.conductor.aurora.AuroraQueueDAO;
+import com.netflix.conductor.aurora.AuroraRateLimiter;
 import com.netflix.conductor.core.events.EventProcessor;
 import com.netflix.conductor.core.execution.WorkflowSweeper;
 import com.netflix.conductor.core.execution.batch.BatchSweeper;
 import com.netflix.conductor.core.execution.tasks.SystemTaskWorkerCoordinator;
+import com.netflix.conductor.service.BulkWorkflowService;
 import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +30,10 @@ public class ServerShutdown {
     private final DataSource dataSource;
     private final AuroraMetadataDAO auroraMetadataDAO;
     private final AuroraQueueDAO auroraQueueDAO;
+    private final StatusEventPublisher statusEventPublisher;
+    private final AuroraAuditWriter auroraAuditWriter;
+    private final AuroraRateLimiter auroraRateLimiter;
+    private final BulkWorkflowService bulkWorkflowService;
 
     @Inject
     public ServerShutdown(SystemTaskWorkerCoordinator taskWorkerCoordinator,
@@ -35,7 +43,11 @@ public class ServerShutdown {
                           HttpTask httpTask,
                           DataSource dataSource,
                           AuroraMetadataDAO auroraMetadataDAO,
-                          AuroraQueueDAO auroraQueueDAO) {
+                          AuroraQueueDAO auroraQueueDAO,
+                          StatusEventPublisher statusEventPublisher,
+                          AuroraAuditWriter auroraAuditWriter,
+                          AuroraRateLimiter auroraRateLimiter,
+                          BulkWorkflowService bulkWorkflowService) {
 
         this.taskWorkerCoordinator = taskWorkerCoordinator;
         this.workflowSweeper = workflowSweeper;
@@ -45,16 +57,24 @@ public class ServerShutdown {
         this.dataSource = dataSource;
         this.auroraMetadataDAO = auroraMetadataDAO;
         this.auroraQueueDAO = auroraQueueDAO;
+        this.statusEventPublisher = statusEventPublisher;
+        this.auroraAuditWriter = auroraAuditWriter;
+        this.auroraRateLimiter = auroraRateLimiter;
+        this.bulkWorkflowService = bulkWorkflowService;
     }
 
     public void shutdown() {
+        bulkWorkflowService.shutdown();
         batchSweeper.shutdown();
         eventProcessor.shutdown();
         workflowSweeper.shutdown();
         taskWorkerCoordinator.shutdown();
         httpTask.shutdown();
+        statusEventPublisher.shutdown();
         auroraMetadataDAO.shutdown();
         auroraQueueDAO.shutdown();
+        auroraAuditWriter.shutdown();
+        auroraRateLimiter.shutdown();
 
         logger.info("Closing primary data source");
         if (dataSource instanceof HikariDataSource) {
@@ -63,7 +83,9 @@ public class ServerShutdown {
             datasource.getHikariPoolMXBean().softEvictConnections();
             while (datasource.getHikariPoolMXBean().getActiveConnections() > 0 ||
                     !auroraMetadataDAO.isTaskTerminated() ||
-                    !auroraQueueDAO.isTaskTerminated()) {
+                    !auroraQueueDAO.isTaskTerminated() ||
+                    !auroraAuditWriter.isTaskTerminated() ||
+                    !auroraRateLimiter.isTaskTerminated()) {
                 logger.debug("waiting for {} active connections to complete shutdown...",
                         datasource.getHikariPoolMXBean().getActiveConnections());
             }
@@ -29,6 +29,8 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.config.CoreModule;
+import com.netflix.conductor.core.utils.LocalLockProvider;
+import com.netflix.conductor.core.utils.LockProvider;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.IndexDAO;
 import com.netflix.conductor.dao.MetadataDAO;
@@ -82,6 +84,7 @@ public class TestModule extends AbstractModule {
 		bind(DynoQueueDAO.class).toInstance(queueDao);
 		bind(QueueDAO.class).to(DynoQueueDAO.class);
 		bind(IndexDAO.class).to(MockIndexDAO.class);		
+		bind(LockProvider.class).to(LocalLockProvider.class);
 		DynoProxy proxy = new DynoProxy(jedisMock);
 		bind(DynoProxy.class).toInstance(proxy);
 		install(new CoreModule());